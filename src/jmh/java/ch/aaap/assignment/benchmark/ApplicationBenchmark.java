@@ -0,0 +1,110 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.Application;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency distribution of the {@link Application} queries, on top of each model
+ * implementation. Run with {@code -prof gc} to get the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicationBenchmark {
+
+  /**
+   * The application under test, on top of the model of the {@link ModelState}.
+   */
+  @State(Scope.Benchmark)
+  public static class ApplicationState {
+
+    Application application;
+
+    @Setup(Level.Trial)
+    public void setUp(ModelState modelState) {
+      application = new Application(modelState.model);
+    }
+  }
+
+  @Benchmark
+  public Object getAmountOfPoliticalCommunitiesInCanton(ApplicationState state,
+      QueryParams.CantonCode params) {
+    try {
+      return state.application.getAmountOfPoliticalCommunitiesInCanton(params.cantonCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getAmountOfDistrictsInCanton(ApplicationState state,
+      QueryParams.CantonCode params) {
+    try {
+      return state.application.getAmountOfDistrictsInCanton(params.cantonCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getAmountOfPoliticalCommunitiesInDistrict(ApplicationState state,
+      QueryParams.DistrictNumber params) {
+    try {
+      return state.application.getAmountOfPoliticalCommunitiesInDistrict(params.districtNumber);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getDistrictForZipCode(ApplicationState state, QueryParams.ZipCode params) {
+    try {
+      return state.application.getDistrictForZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getAllDistrictsForZipCode(ApplicationState state, QueryParams.ZipCode params) {
+    try {
+      return state.application.getAllDistrictsForZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getLastUpdateOfPoliticalCommunityByPostalCommunityName(ApplicationState state,
+      QueryParams.PostalCommunityName params) {
+    try {
+      return state.application.getLastUpdateOfPoliticalCommunityByPostalCommunityName(
+          params.name);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public long getAmountOfCantons(ApplicationState state) {
+    return state.application.getAmountOfCantons();
+  }
+
+  @Benchmark
+  public long getAmountOfPoliticalCommunityWithoutPostalCommunities(ApplicationState state) {
+    return state.application.getAmountOfPoliticalCommunityWithoutPostalCommunities();
+  }
+}
@@ -0,0 +1,99 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVUtil;
+import ch.aaap.assignment.raw.StringPool;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Prints how long {@link CSVUtil} and {@link CSVFastLoader} take to parse the bundled csv files,
+ * and how much heap the rows they return retain.
+ *
+ * <p>Not a JMH benchmark, run it from the benchmarks jar:
+ * {@code java -cp target/candidate-assignment-java-0.0.1-SNAPSHOT-benchmarks.jar
+ * ch.aaap.assignment.benchmark.CSVLoadTiming [iterations]}. Every loader is run the given
+ * amount of times (default 20) after as many warm-up runs, the average and the best run are
+ * reported. The retained heap is the difference of the used heap, after garbage collection, with
+ * and without the rows: it's an estimate, run with a fixed heap size ({@code -Xms} =
+ * {@code -Xmx}) for stable figures. {@link LoadBenchmark} measures the parsing with JMH.
+ */
+public class CSVLoadTiming {
+
+  private CSVLoadTiming() {
+
+  }
+
+  /**
+   * Runs the comparison.
+   */
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    report("CSVUtil political communities", CSVUtil::getPoliticalCommunities, iterations);
+    report("CSVFastLoader political communities", CSVFastLoader::getPoliticalCommunities,
+        iterations);
+    report("CSVUtil postal communities", CSVUtil::getPostalCommunities, iterations);
+    report("CSVFastLoader postal communities", CSVFastLoader::getPostalCommunities, iterations);
+
+    System.out.printf("%-40s %6d KiB%n", "CSVUtil rows retain",
+        retainedBytes(() -> List.of(CSVUtil.getPoliticalCommunities(),
+            CSVUtil.getPostalCommunities())) / 1024);
+    System.out.printf("%-40s %6d KiB%n", "CSVFastLoader pooled rows retain",
+        retainedBytes(() -> {
+          StringPool pool = new StringPool();
+          return List.of(CSVFastLoader.getPoliticalCommunities(pool),
+              CSVFastLoader.getPostalCommunities(pool));
+        }) / 1024);
+  }
+
+  /**
+   * Estimates the amount of heap retained by the object returned by the supplier.
+   */
+  public static long retainedBytes(Supplier<?> supplier) {
+    long before = usedHeapAfterGc();
+    Object retained = supplier.get();
+    long after = usedHeapAfterGc();
+    Reference.reachabilityFence(retained);
+    return after - before;
+  }
+
+  private static long usedHeapAfterGc() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Returns the nanoseconds of each of the given amount of runs of the loader.
+   */
+  public static long[] measure(Supplier<? extends Set<?>> loader, int iterations) {
+    long[] nanos = new long[iterations];
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      Set<?> rows = loader.get();
+      nanos[i] = System.nanoTime() - start;
+      if (rows.isEmpty()) {
+        throw new IllegalStateException("loader returned no rows");
+      }
+    }
+    return nanos;
+  }
+
+  private static void report(String label, Supplier<? extends Set<?>> loader, int iterations) {
+    measure(loader, iterations);
+    long[] nanos = measure(loader, iterations);
+    long total = 0;
+    long best = Long.MAX_VALUE;
+    for (long run : nanos) {
+      total += run;
+      best = Math.min(best, run);
+    }
+    System.out.printf("%-40s avg %6d us, best %6d us%n", label,
+        TimeUnit.NANOSECONDS.toMicros(total / iterations), TimeUnit.NANOSECONDS.toMicros(best));
+  }
+}
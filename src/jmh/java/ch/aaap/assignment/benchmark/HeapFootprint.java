@@ -0,0 +1,152 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.ColumnarModelImp;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.MappedModelImp;
+import ch.aaap.assignment.model.imp.ModelImp;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint and garbage collection cost of each model implementation: the heap and direct
+ * memory the built model retains, the pause of a full collection while it is live, and the
+ * collections a query workload triggers.
+ *
+ * <p>Not a JMH benchmark, run it from the benchmarks jar with a fixed heap, e.g.
+ * {@code java -Xms512m -Xmx512m -cp target/candidate-assignment-java-0.0.1-SNAPSHOT-benchmarks.jar
+ * ch.aaap.assignment.benchmark.HeapFootprint [seconds [implementation...]]}. Defaults to 10
+ * seconds of queries on every implementation.
+ */
+public class HeapFootprint {
+
+  private static final List<String> IMPLEMENTATIONS =
+      List.of("ModelImp", "IndexedModelImp", "ColumnarModelImp", "OffHeapModelImp");
+  private static final String[] ZIP_CODES = {"8305", "1008", "3011", "6900", "9999"};
+  private static final String[] NAMES = {"Zürich", "Zurich", "Bern", "Lugano", "Los Angeles"};
+  private static final int FULL_COLLECTIONS = 5;
+
+  // keeps the query results alive until the next query, so they can't be optimized away
+  private static volatile Object sink;
+
+  /**
+   * Measures the implementations given as arguments, or all of them.
+   */
+  public static void main(String[] args) {
+    long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+    List<String> implementations = args.length > 1
+        ? List.of(args).subList(1, args.length) : IMPLEMENTATIONS;
+    Set<CSVPoliticalCommunity> csvPoliticalCommunities = CSVFastLoader.getPoliticalCommunities();
+    Set<CSVPostalCommunity> csvPostalCommunities = CSVFastLoader.getPostalCommunities();
+    System.out.printf("%-18s %12s %12s %14s %12s %14s %10s%n", "implementation", "heap KiB",
+        "direct KiB", "full gc ms", "queries", "gcs", "gc ms");
+    for (String implementation : implementations) {
+      fullCollections(2);
+      long heapBefore = usedHeap();
+      long directBefore = usedDirect();
+      Model model = build(implementation, csvPoliticalCommunities, csvPostalCommunities);
+      fullCollections(2);
+      long heap = usedHeap() - heapBefore;
+      long direct = usedDirect() - directBefore;
+      double fullPause = (double) fullCollections(FULL_COLLECTIONS) / FULL_COLLECTIONS;
+
+      long[] before = collections();
+      long queries = query(model, TimeUnit.SECONDS.toNanos(seconds));
+      long[] after = collections();
+      System.out.printf("%-18s %12d %12d %14.1f %12d %14d %10d%n", implementation, heap / 1024,
+          direct / 1024, fullPause, queries, after[0] - before[0], after[1] - before[1]);
+      sink = model;
+      sink = null;
+    }
+  }
+
+  private static Model build(String implementation,
+      Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    switch (implementation) {
+      case "ModelImp":
+        return new ModelImp(csvPoliticalCommunities, csvPostalCommunities);
+      case "IndexedModelImp":
+        return new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities);
+      case "ColumnarModelImp":
+        return new ColumnarModelImp(csvPoliticalCommunities, csvPostalCommunities);
+      case "OffHeapModelImp":
+        return MappedModelImp.offHeap(csvPoliticalCommunities, csvPostalCommunities);
+      default:
+        throw new IllegalArgumentException(
+            String.format("Unknown model implementation %s", implementation));
+    }
+  }
+
+  /**
+   * Runs a mix of lookups and collection queries for the given time.
+   *
+   * @return the amount of queries run
+   */
+  private static long query(Model model, long nanos) {
+    long end = System.nanoTime() + nanos;
+    long queries = 0;
+    while (System.nanoTime() < end) {
+      for (int i = 0; i < ZIP_CODES.length; i++) {
+        sink = model.getDistrictsByZipCodes(ZIP_CODES);
+        sink = model.getLastUpdatesByPostalCommunityNames(NAMES);
+        sink = model.countPoliticalCommunitiesByCanton("ZH");
+        sink = model.getPoliticalCommunitiesWithoutPostalCommunity();
+      }
+      sink = model.getPoliticalCommunitiesByCanton();
+      queries += 4 * ZIP_CODES.length + 1;
+    }
+    return queries;
+  }
+
+  /**
+   * Runs full collections.
+   *
+   * @return the time spent collecting, in milliseconds
+   */
+  private static long fullCollections(int count) {
+    long before = collections()[1];
+    for (int i = 0; i < count; i++) {
+      System.gc();
+    }
+    return collections()[1] - before;
+  }
+
+  /**
+   * Returns the amount of collections and the time spent collecting in milliseconds, summed over
+   * all the collectors.
+   */
+  private static long[] collections() {
+    long[] result = new long[2];
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      result[0] += Math.max(collector.getCollectionCount(), 0);
+      result[1] += Math.max(collector.getCollectionTime(), 0);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the heap used after the last collection, summed over the heap pools.
+   */
+  private static long usedHeap() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+        .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+        .sum();
+  }
+
+  private static long usedDirect() {
+    return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(pool -> pool.getName().equals("direct"))
+        .mapToLong(BufferPoolMXBean::getMemoryUsed)
+        .sum();
+  }
+}
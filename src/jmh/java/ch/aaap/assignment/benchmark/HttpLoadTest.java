@@ -0,0 +1,159 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.Application;
+import ch.aaap.assignment.http.QueryServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the {@link QueryServer}: concurrent clients send a mix of queries for a fixed time,
+ * then the throughput and the p50, p99 and max latencies of each endpoint are reported.
+ *
+ * <p>Not a JMH benchmark, run it from the benchmarks jar:
+ * {@code java -cp target/candidate-assignment-java-0.0.1-SNAPSHOT-benchmarks.jar
+ * ch.aaap.assignment.benchmark.HttpLoadTest [clients [seconds [warmupSeconds]]]}. Defaults to
+ * 32 clients, 10 seconds measured after 3 seconds of warmup.
+ */
+public class HttpLoadTest {
+
+  private static final String[] PATHS = {
+      "/cantons",
+      "/cantons/ZH/political-communities",
+      "/cantons/count",
+      "/political-communities/without-postal-community/count",
+      "/cantons/ZH/political-communities/count",
+      "/zip-codes/8305/district",
+      "/zip-codes/1008/districts",
+      "/zip-codes/1008/distribution",
+      "/postal-communities/Z%C3%BCrich/last-update",
+      "/zip-codes/9999/district"
+  };
+
+  /**
+   * Starts a server on the bundled model and runs the load test against it.
+   */
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    long seconds = args.length > 1 ? Long.parseLong(args[1]) : 10;
+    long warmupSeconds = args.length > 2 ? Long.parseLong(args[2]) : 3;
+    QueryServer.enableNoDelay();
+    try (QueryServer server =
+        new QueryServer(new Application(), new InetSocketAddress("localhost", 0))) {
+      server.start();
+      String base = "http://localhost:" + server.getPort();
+      run(base, clients, TimeUnit.SECONDS.toNanos(warmupSeconds));
+      long[][] latencies = run(base, clients, TimeUnit.SECONDS.toNanos(seconds));
+      report(latencies, seconds);
+    }
+  }
+
+  /**
+   * Runs the clients for the given time.
+   *
+   * @return the latencies in nanoseconds, by endpoint
+   */
+  private static long[][] run(String base, int clients, long nanos) throws Exception {
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    HttpRequest[] requests = Arrays.stream(PATHS)
+        .map(path -> HttpRequest.newBuilder(URI.create(base + path)).build())
+        .toArray(HttpRequest[]::new);
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    long end = System.nanoTime() + nanos;
+    List<Future<LongList[]>> futures = new ArrayList<>();
+    for (int c = 0; c < clients; c++) {
+      int first = c;
+      futures.add(executor.submit(() -> {
+        LongList[] latencies = new LongList[requests.length];
+        Arrays.setAll(latencies, i -> new LongList());
+        for (int i = first; System.nanoTime() < end; i++) {
+          int endpoint = i % requests.length;
+          long start = System.nanoTime();
+          client.send(requests[endpoint], BodyHandlers.ofByteArray());
+          latencies[endpoint].add(System.nanoTime() - start);
+        }
+        return latencies;
+      }));
+    }
+    LongList[] merged = new LongList[requests.length];
+    Arrays.setAll(merged, i -> new LongList());
+    for (Future<LongList[]> future : futures) {
+      LongList[] latencies = future.get();
+      for (int i = 0; i < latencies.length; i++) {
+        merged[i].addAll(latencies[i]);
+      }
+    }
+    executor.shutdown();
+    return Arrays.stream(merged).map(LongList::toSortedArray).toArray(long[][]::new);
+  }
+
+  private static void report(long[][] latencies, long seconds) {
+    long total = 0;
+    System.out.printf("%-56s %10s %10s %10s %10s%n", "endpoint", "requests", "p50 us",
+        "p99 us", "max us");
+    for (int i = 0; i < PATHS.length; i++) {
+      long[] sorted = latencies[i];
+      total += sorted.length;
+      System.out.printf("%-56s %10d %10.1f %10.1f %10.1f%n", PATHS[i], sorted.length,
+          micros(percentile(sorted, 50)), micros(percentile(sorted, 99)),
+          micros(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+    long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+    System.out.printf("%-56s %10d %10.1f %10.1f %10.1f%n", "all", total,
+        micros(percentile(all, 50)), micros(percentile(all, 99)),
+        micros(all.length == 0 ? 0 : all[all.length - 1]));
+    System.out.printf("throughput: %.0f requests/s%n", (double) total / seconds);
+  }
+
+  /**
+   * Returns the nearest rank percentile of the sorted values.
+   */
+  private static long percentile(long[] sorted, int percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1_000.0;
+  }
+
+  /**
+   * Growable array of longs, so that recording a latency doesn't box it.
+   */
+  private static final class LongList {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    void addAll(LongList other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.values[i]);
+      }
+    }
+
+    long[] toSortedArray() {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+  }
+}
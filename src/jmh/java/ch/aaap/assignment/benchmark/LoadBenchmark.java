@@ -0,0 +1,136 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.ColumnarModelImp;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.MappedModelImp;
+import ch.aaap.assignment.model.imp.ModelDelta;
+import ch.aaap.assignment.model.imp.ModelImp;
+import ch.aaap.assignment.model.imp.ModelSnapshot;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import ch.aaap.assignment.raw.CSVUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to parse the csv files and to build the models from the parsed rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+
+  private Set<CSVPoliticalCommunity> csvPoliticalCommunities;
+  private Set<CSVPostalCommunity> csvPostalCommunities;
+  private Path snapshot;
+  private IndexedModelImp indexedModel;
+  private ModelDelta delta;
+
+  /**
+   * Parses the rows the model construction benchmarks start from, writes the snapshot and
+   * prepares a delta updating 10 political communities.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    csvPoliticalCommunities = CSVFastLoader.getPoliticalCommunities();
+    csvPostalCommunities = CSVFastLoader.getPostalCommunities();
+    snapshot = Files.createTempFile("model", ".bin");
+    ModelSnapshot.write(csvPoliticalCommunities, csvPostalCommunities, snapshot);
+    indexedModel = new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities);
+    ModelDelta.ModelDeltaBuilder builder = ModelDelta.builder();
+    csvPoliticalCommunities.stream().limit(10).forEach(row -> builder.politicalCommunity(
+        CSVPoliticalCommunity.builder()
+            .number(row.getNumber())
+            .name(row.getName())
+            .shortName(row.getShortName())
+            .cantonCode(row.getCantonCode())
+            .cantonName(row.getCantonName())
+            .districtNumber(row.getDistrictNumber())
+            .districtName(row.getDistrictName())
+            .lastUpdate(LocalDate.of(2030, 1, 1))
+            .build()));
+    delta = builder.build();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(snapshot);
+  }
+
+  @Benchmark
+  public Set<CSVPoliticalCommunity> csvUtilPoliticalCommunities() {
+    return CSVUtil.getPoliticalCommunities();
+  }
+
+  @Benchmark
+  public Set<CSVPostalCommunity> csvUtilPostalCommunities() {
+    return CSVUtil.getPostalCommunities();
+  }
+
+  @Benchmark
+  public Set<CSVPoliticalCommunity> fastLoaderPoliticalCommunities() {
+    return CSVFastLoader.getPoliticalCommunities();
+  }
+
+  @Benchmark
+  public Set<CSVPostalCommunity> fastLoaderPostalCommunities() {
+    return CSVFastLoader.getPostalCommunities();
+  }
+
+  @Benchmark
+  public Model modelImp() {
+    return new ModelImp(csvPoliticalCommunities, csvPostalCommunities);
+  }
+
+  @Benchmark
+  public Model indexedModelImp() {
+    return new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities);
+  }
+
+  @Benchmark
+  public Model indexedModelImpParallel() {
+    return new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities,
+        ForkJoinPool.commonPool());
+  }
+
+  @Benchmark
+  public Model indexedModelImpDelta() {
+    return indexedModel.apply(delta);
+  }
+
+  @Benchmark
+  public Model columnarModelImp() {
+    return new ColumnarModelImp(csvPoliticalCommunities, csvPostalCommunities);
+  }
+
+  @Benchmark
+  public Model mappedModelImp() {
+    return MappedModelImp.open(snapshot);
+  }
+
+  @Benchmark
+  public Model offHeapModelImp() {
+    return MappedModelImp.offHeap(csvPoliticalCommunities, csvPostalCommunities);
+  }
+}
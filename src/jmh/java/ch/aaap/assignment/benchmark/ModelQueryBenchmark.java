@@ -0,0 +1,256 @@
+package ch.aaap.assignment.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput and latency distribution of every {@link ch.aaap.assignment.model.Model} query, for
+ * each implementation. Run with {@code -prof gc} to get the allocation rate.
+ *
+ * <p>Lookups of unknown keys throw: the exception is returned so that its cost is measured too.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelQueryBenchmark {
+
+  @Benchmark
+  public Object getPoliticalCommunities(ModelState state) {
+    return state.model.getPoliticalCommunities();
+  }
+
+  @Benchmark
+  public Object getPostalCommunities(ModelState state) {
+    return state.model.getPostalCommunities();
+  }
+
+  @Benchmark
+  public Object getCantons(ModelState state) {
+    return state.model.getCantons();
+  }
+
+  @Benchmark
+  public Object getDistricts(ModelState state) {
+    return state.model.getDistricts();
+  }
+
+  @Benchmark
+  public Object getPoliticalCommunitiesByCanton(ModelState state) {
+    return state.model.getPoliticalCommunitiesByCanton();
+  }
+
+  @Benchmark
+  public Object getDistrictsByCanton(ModelState state) {
+    return state.model.getDistrictsByCanton();
+  }
+
+  @Benchmark
+  public Object getPoliticalCommunitiesByDistrict(ModelState state) {
+    return state.model.getPoliticalCommunitiesByDistrict();
+  }
+
+  @Benchmark
+  public Object getPoliticalCommunitiesWithoutPostalCommunity(ModelState state) {
+    return state.model.getPoliticalCommunitiesWithoutPostalCommunity();
+  }
+
+  @Benchmark
+  public Object getDistrictByZipCode(ModelState state, QueryParams.ZipCode params) {
+    try {
+      return state.model.getDistrictByZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getAllDistrictsByZipCode(ModelState state, QueryParams.ZipCode params) {
+    try {
+      return state.model.getAllDistrictsByZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getDistrictDistributionByZipCode(ModelState state, QueryParams.ZipCode params) {
+    try {
+      return state.model.getDistrictDistributionByZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getPoliticalCommunityByZipCode(ModelState state, QueryParams.ZipCode params) {
+    try {
+      return state.model.getPoliticalCommunityByZipCode(params.zipCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getLastUpdateByPostalCommunityName(ModelState state,
+      QueryParams.PostalCommunityName params) {
+    try {
+      return state.model.getLastUpdateByPostalCommunityName(params.name);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object countPoliticalCommunitiesByCanton(ModelState state,
+      QueryParams.CantonCode params) {
+    try {
+      return state.model.countPoliticalCommunitiesByCanton(params.cantonCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object countDistrictsByCanton(ModelState state, QueryParams.CantonCode params) {
+    try {
+      return state.model.countDistrictsByCanton(params.cantonCode);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object countPoliticalCommunitiesByDistrict(ModelState state,
+      QueryParams.DistrictNumber params) {
+    try {
+      return state.model.countPoliticalCommunitiesByDistrict(params.districtNumber);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getDistrictsByZipCodes(ModelState state, QueryParams.Batch batch) {
+    return state.model.getDistrictsByZipCodes(batch.zipCodes);
+  }
+
+  @Benchmark
+  public Object getLastUpdatesByPostalCommunityNames(ModelState state, QueryParams.Batch batch) {
+    return state.model.getLastUpdatesByPostalCommunityNames(batch.names);
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public void getPostalCommunitiesByZipCodePrefix(ModelState state,
+      QueryParams.ZipCodePrefix params, Blackhole blackhole) {
+    for (Object postalCommunity :
+        state.model.getPostalCommunitiesByZipCodePrefix(params.zipCodePrefix)) {
+      blackhole.consume(postalCommunity);
+    }
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public void getDistrictsByZipCodePrefix(ModelState state, QueryParams.ZipCodePrefix params,
+      Blackhole blackhole) {
+    for (Object district : state.model.getDistrictsByZipCodePrefix(params.zipCodePrefix)) {
+      blackhole.consume(district);
+    }
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public Object getPostalCommunitiesByPoliticalCommunity(ModelState state,
+      QueryParams.PoliticalCommunityNumber params, Blackhole blackhole) {
+    try {
+      consume(state.model.getPostalCommunitiesByPoliticalCommunity(
+          params.politicalCommunityNumber), blackhole);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public Object getZipCodesByPoliticalCommunity(ModelState state,
+      QueryParams.PoliticalCommunityNumber params, Blackhole blackhole) {
+    try {
+      consume(state.model.getZipCodesByPoliticalCommunity(params.politicalCommunityNumber),
+          blackhole);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getDistrictByPoliticalCommunity(ModelState state,
+      QueryParams.PoliticalCommunityNumber params) {
+    try {
+      return state.model.getDistrictByPoliticalCommunity(params.politicalCommunityNumber);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getCantonByDistrict(ModelState state, QueryParams.DistrictNumber params) {
+    try {
+      return state.model.getCantonByDistrict(params.districtNumber);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public Object getPoliticalCommunitiesByZipCode(ModelState state, QueryParams.ZipCode params,
+      Blackhole blackhole) {
+    try {
+      consume(state.model.getPoliticalCommunitiesByZipCode(params.zipCode), blackhole);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Iterates the result, since the indexed models return lazy views.
+   */
+  @Benchmark
+  public Object getCantonsByZipCode(ModelState state, QueryParams.ZipCode params,
+      Blackhole blackhole) {
+    try {
+      consume(state.model.getCantonsByZipCode(params.zipCode), blackhole);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  private static void consume(Iterable<?> elements, Blackhole blackhole) {
+    for (Object element : elements) {
+      blackhole.consume(element);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.ColumnarModelImp;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.InstrumentedModel;
+import ch.aaap.assignment.model.imp.MappedModelImp;
+import ch.aaap.assignment.model.imp.ModelImp;
+import ch.aaap.assignment.model.imp.ModelSnapshot;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The model implementation under test, built once per trial, optionally instrumented.
+ */
+@State(Scope.Benchmark)
+public class ModelState {
+
+  @Param({"ModelImp", "IndexedModelImp", "ColumnarModelImp", "MappedModelImp",
+      "OffHeapModelImp"})
+  public String implementation;
+
+  // off, on or allocations, see InstrumentedModel: -p instrumentation=off,on,allocations
+  @Param({"off"})
+  public String instrumentation;
+
+  public Model model;
+
+  private Path snapshot;
+
+  /**
+   * Builds the model.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Set<CSVPoliticalCommunity> csvPoliticalCommunities = CSVFastLoader.getPoliticalCommunities();
+    Set<CSVPostalCommunity> csvPostalCommunities = CSVFastLoader.getPostalCommunities();
+    switch (implementation) {
+      case "ModelImp":
+        model = new ModelImp(csvPoliticalCommunities, csvPostalCommunities);
+        break;
+      case "IndexedModelImp":
+        model = new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities);
+        break;
+      case "ColumnarModelImp":
+        model = new ColumnarModelImp(csvPoliticalCommunities, csvPostalCommunities);
+        break;
+      case "MappedModelImp":
+        snapshot = Files.createTempFile("model", ".bin");
+        ModelSnapshot.write(csvPoliticalCommunities, csvPostalCommunities, snapshot);
+        model = MappedModelImp.open(snapshot);
+        break;
+      case "OffHeapModelImp":
+        model = MappedModelImp.offHeap(csvPoliticalCommunities, csvPostalCommunities);
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Unknown model implementation %s", implementation));
+    }
+    if (!"off".equals(instrumentation)) {
+      model = new InstrumentedModel(model, "allocations".equals(instrumentation));
+    }
+  }
+
+  /**
+   * Removes the snapshot file, if any.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (snapshot != null) {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+}
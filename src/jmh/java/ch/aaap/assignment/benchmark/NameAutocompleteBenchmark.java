@@ -0,0 +1,51 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.NameAutocomplete;
+import ch.aaap.assignment.model.imp.NameSuggestion;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of the name autocompletion, for the top 10 names of queries typed in an address form:
+ * short and long prefixes, and misspelled names falling back to the edit distance search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameAutocompleteBenchmark {
+
+  @Param({"z", "Zür", "Bern", "zrich", "Lasuanne", "Xylophon"})
+  public String query;
+
+  private NameAutocomplete autocomplete;
+
+  /**
+   * Indexes the names.
+   */
+  @Setup
+  public void setUp() {
+    autocomplete = NameAutocomplete.of(new IndexedModelImp(
+        CSVFastLoader.getPoliticalCommunities(), CSVFastLoader.getPostalCommunities()));
+  }
+
+  @Benchmark
+  public List<NameSuggestion> complete() {
+    return autocomplete.complete(query, 10);
+  }
+}
@@ -0,0 +1,110 @@
+package ch.aaap.assignment.benchmark;
+
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Inputs of the query benchmarks. Each kind of input is its own state, so a benchmark only runs
+ * with the parameters of the inputs it uses.
+ */
+public final class QueryParams {
+
+  private QueryParams() {
+
+  }
+
+  /**
+   * A zip code with a single district, one spanning several districts and an unknown one.
+   */
+  @State(Scope.Benchmark)
+  public static class ZipCode {
+
+    @Param({"8305", "1008", "9999"})
+    public String zipCode;
+  }
+
+  /**
+   * Zip code prefixes of a region, of a city and of a single zip code.
+   */
+  @State(Scope.Benchmark)
+  public static class ZipCodePrefix {
+
+    @Param({"8", "80", "8305"})
+    public String zipCodePrefix;
+  }
+
+  /**
+   * A postal community name, an ambiguous one with and without diacritics, and an unknown one.
+   */
+  @State(Scope.Benchmark)
+  public static class PostalCommunityName {
+
+    @Param({"Vergeletto", "Zürich", "Zurich", "Los Angeles"})
+    public String name;
+  }
+
+  /**
+   * A known and an unknown canton.
+   */
+  @State(Scope.Benchmark)
+  public static class CantonCode {
+
+    @Param({"ZH", "XX"})
+    public String cantonCode;
+  }
+
+  /**
+   * A known and an unknown district.
+   */
+  @State(Scope.Benchmark)
+  public static class DistrictNumber {
+
+    @Param({"101", "9999"})
+    public String districtNumber;
+  }
+
+  /**
+   * A political community with many postal communities and an unknown one.
+   */
+  @State(Scope.Benchmark)
+  public static class PoliticalCommunityNumber {
+
+    @Param({"261", "9999"})
+    public String politicalCommunityNumber;
+  }
+
+  /**
+   * A batch of the zip codes and names of all the postal communities, in random order, with an
+   * unknown value every 10 entries.
+   */
+  @State(Scope.Benchmark)
+  public static class Batch {
+
+    public String[] zipCodes;
+    public String[] names;
+
+    /**
+     * Builds the batch.
+     */
+    @Setup
+    public void setUp() {
+      List<CSVPostalCommunity> rows = new ArrayList<>(CSVFastLoader.getPostalCommunities());
+      Collections.shuffle(rows, new Random(42));
+      zipCodes = new String[rows.size()];
+      names = new String[rows.size()];
+      for (int i = 0; i < rows.size(); i++) {
+        boolean miss = i % 10 == 0;
+        zipCodes[i] = miss ? "9999" : rows.get(i).getZipCode();
+        names[i] = miss ? "Los Angeles" : rows.get(i).getName();
+      }
+    }
+  }
+}
@@ -1,22 +1,51 @@
 package ch.aaap.assignment;
 
 import ch.aaap.assignment.model.Model;
-import ch.aaap.assignment.model.imp.ModelImp;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.InstrumentedModel;
+import ch.aaap.assignment.model.imp.MappedModelImp;
+import ch.aaap.assignment.model.imp.ModelStatistics;
+import ch.aaap.assignment.model.imp.ReloadableModel;
+import ch.aaap.assignment.raw.CSVFastLoader;
 import ch.aaap.assignment.raw.CSVPoliticalCommunity;
 import ch.aaap.assignment.raw.CSVPostalCommunity;
-import ch.aaap.assignment.raw.CSVUtil;
+import ch.aaap.assignment.raw.StringPool;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class Application {
 
-  private Model model = null;
+  private ReloadableModel model = null;
+  // the model answering the queries: the reloadable one, instrumented if enabled
+  private Model queries = null;
 
   public Application() {
     initModel();
   }
 
+  /**
+   * Loads the CSVs concurrently and builds the model indexes in parallel on the given executor.
+   *
+   * @param executor executor running the loading and indexing tasks
+   */
+  public Application(Executor executor) {
+    initModel(executor);
+  }
+
+  /**
+   * Uses an already built model, e.g. a {@link MappedModelImp} opened from a snapshot file.
+   *
+   * @param model the model to query
+   */
+  public Application(Model model) {
+    this.model = new ReloadableModel(model, true);
+    this.queries = InstrumentedModel.wrap(this.model, "Application");
+  }
+
   public static void main(String[] args) {
     new Application();
   }
@@ -25,20 +54,89 @@ public class Application {
    * Reads the CSVs and initializes a in memory model.
    */
   private void initModel() {
-    Set<CSVPoliticalCommunity> csvPoliticalCommunities = CSVUtil.getPoliticalCommunities();
-    Set<CSVPostalCommunity> csvPostalCommunities = CSVUtil.getPostalCommunities();
-    this.model = new ModelImp(csvPoliticalCommunities, csvPostalCommunities);
+    // one pool for both files, so that the values they share are held once
+    StringPool pool = new StringPool();
+    Set<CSVPoliticalCommunity> csvPoliticalCommunities =
+        CSVFastLoader.getPoliticalCommunities(pool);
+    Set<CSVPostalCommunity> csvPostalCommunities = CSVFastLoader.getPostalCommunities(pool);
+    this.model = new ReloadableModel(
+        new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities), true);
+    this.queries = InstrumentedModel.wrap(this.model, "Application");
+  }
+
+  /**
+   * Reads the two independent CSVs concurrently and initializes a in memory model.
+   */
+  private void initModel(Executor executor) {
+    // a pool per file: pools are not thread safe
+    CompletableFuture<Set<CSVPoliticalCommunity>> csvPoliticalCommunities =
+        CompletableFuture.supplyAsync(CSVFastLoader::getPoliticalCommunities, executor);
+    CompletableFuture<Set<CSVPostalCommunity>> csvPostalCommunities =
+        CompletableFuture.supplyAsync(CSVFastLoader::getPostalCommunities, executor);
+    // built from the calling thread: the model waits for its own tasks on the executor
+    this.model = new ReloadableModel(new IndexedModelImp(csvPoliticalCommunities.join(),
+        csvPostalCommunities.join(), executor), true);
+    this.queries = InstrumentedModel.wrap(this.model, "Application");
+  }
+
+  /**
+   * Loads new versions of the CSVs in the background and swaps the model once built. Queries keep
+   * being answered by the current model meanwhile, which is also kept if the files can't be read.
+   *
+   * @param politicalCommunitiesCsv GDE csv file
+   * @param postalCommunitiesCsv PLZ6 csv file
+   * @return the version of the new model
+   */
+  public CompletableFuture<Long> reloadModel(Path politicalCommunitiesCsv,
+      Path postalCommunitiesCsv) {
+    return reloadModel(politicalCommunitiesCsv, postalCommunitiesCsv, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Loads new versions of the CSVs on the given executor and swaps the model once built.
+   *
+   * @param politicalCommunitiesCsv GDE csv file
+   * @param postalCommunitiesCsv PLZ6 csv file
+   * @param executor executor running the loading and indexing
+   * @return the version of the new model
+   */
+  public CompletableFuture<Long> reloadModel(Path politicalCommunitiesCsv,
+      Path postalCommunitiesCsv, Executor executor) {
+    return model.reload(politicalCommunitiesCsv, postalCommunitiesCsv, executor);
   }
 
   /**
-   * Return Model.
+   * Return Model. It follows the reloads: keep {@link ReloadableModel#getModel()} for consistent
+   * answers across several queries.
    *
    * @return model
    */
-  public Model getModel() {
+  public ReloadableModel getModel() {
     return model;
   }
 
+  /**
+   * Returns the model the queries of the application are answered by: the
+   * {@link #getModel() reloadable model}, wrapped in an {@link InstrumentedModel} when the system
+   * property {@value InstrumentedModel#PROPERTY} enables it.
+   *
+   * @return model answering the queries
+   */
+  public Model getQueryModel() {
+    return queries;
+  }
+
+  /**
+   * Returns the statistics of the cantons and districts of the model currently served. They are
+   * computed while loading each model and swapped in with it, see
+   * {@link ReloadableModel#getStatistics()}.
+   *
+   * @return statistics of the current model
+   */
+  public ModelStatistics getStatistics() {
+    return model.getStatistics();
+  }
+
   /**
    * Returns number of political communities in canton.
    *
@@ -46,15 +144,7 @@ public class Application {
    * @return amount of political communities in given canton
    */
   public long getAmountOfPoliticalCommunitiesInCanton(String cantonCode) {
-    return model.getPoliticalCommunitiesByCanton()
-        .entrySet()
-        .stream()
-        .filter(entry -> entry.getKey().equals(cantonCode))
-        .findAny()
-        .map(Entry::getValue)
-        .map(Set::size)
-        .orElseThrow(
-            () -> new IllegalArgumentException(String.format("Can't find canton %s", cantonCode)));
+    return queries.countPoliticalCommunitiesByCanton(cantonCode);
   }
 
   /**
@@ -64,15 +154,7 @@ public class Application {
    * @return amount of districts in given canton
    */
   public long getAmountOfDistrictsInCanton(String cantonCode) {
-    return model.getDistrictsByCanton()
-        .entrySet()
-        .stream()
-        .filter(entry -> entry.getKey().equals(cantonCode))
-        .findAny()
-        .map(Entry::getValue)
-        .map(Set::size)
-        .orElseThrow(
-            () -> new IllegalArgumentException(String.format("Can't find canton %s", cantonCode)));
+    return queries.countDistrictsByCanton(cantonCode);
   }
 
   /**
@@ -82,16 +164,7 @@ public class Application {
    * @return amount of districts in given canton
    */
   public long getAmountOfPoliticalCommunitiesInDistrict(String districtNumber) {
-    return model.getPoliticalCommunitiesByDistrict()
-        .entrySet()
-        .stream()
-        .filter(entry -> entry.getKey().equals(districtNumber))
-        .findAny()
-        .map(Entry::getValue)
-        .map(Set::size)
-        .orElseThrow(
-            () -> new IllegalArgumentException(
-                String.format("Can't find district %s", districtNumber)));
+    return queries.countPoliticalCommunitiesByDistrict(districtNumber);
   }
 
   /**
@@ -101,7 +174,7 @@ public class Application {
    * @return district that belongs to specified zip code
    */
   public String getDistrictForZipCode(String zipCode) {
-    return model.getDistrictByZipCode(zipCode);
+    return queries.getDistrictByZipCode(zipCode);
   }
 
   /**
@@ -111,7 +184,17 @@ public class Application {
    * @return districts that belongs to specified zip code
    */
   public Set<String> getAllDistrictsForZipCode(String zipCode) {
-    return model.getAllDistrictsByZipCode(zipCode);
+    return queries.getAllDistrictsByZipCode(zipCode);
+  }
+
+  /**
+   * Returns the district of each zip code, without throwing for unknown zip codes.
+   *
+   * @param zipCodes 4 digit zip codes
+   * @return the district of the zip code at the same position, null for unknown zip codes
+   */
+  public String[] getDistrictsForZipCodes(String[] zipCodes) {
+    return queries.getDistrictsByZipCodes(zipCodes);
   }
 
   /**
@@ -122,7 +205,19 @@ public class Application {
    */
   public LocalDate getLastUpdateOfPoliticalCommunityByPostalCommunityName(
       String postalCommunityName) {
-    return model.getLastUpdateByPostalCommunityName(postalCommunityName);
+    return queries.getLastUpdateByPostalCommunityName(postalCommunityName);
+  }
+
+  /**
+   * Returns the date of the last update of the political community of each postal community name,
+   * without throwing for unknown names.
+   *
+   * @param postalCommunityNames community names
+   * @return lastUpdate of the name at the same position, null for unknown names
+   */
+  public LocalDate[] getLastUpdatesOfPoliticalCommunitiesByPostalCommunityNames(
+      String[] postalCommunityNames) {
+    return queries.getLastUpdatesByPostalCommunityNames(postalCommunityNames);
   }
 
   /**
@@ -131,7 +226,7 @@ public class Application {
    * @return amount of canton
    */
   public long getAmountOfCantons() {
-    return this.model.getCantons().size();
+    return this.queries.getCantons().size();
   }
 
   /**
@@ -140,6 +235,6 @@ public class Application {
    * @return amount of political communities without postal communities
    */
   public long getAmountOfPoliticalCommunityWithoutPostalCommunities() {
-    return model.getPoliticalCommunitiesWithoutPostalCommunity().size();
+    return queries.getPoliticalCommunitiesWithoutPostalCommunity().size();
   }
 }
@@ -0,0 +1,277 @@
+package ch.aaap.assignment.enrich;
+
+import ch.aaap.assignment.Application;
+import ch.aaap.assignment.model.Model;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams a csv file of addresses and appends the district, canton and political community of the
+ * zip code of each row.
+ *
+ * <p>Rows are read in chunks of a fixed size, chunks are enriched in parallel on the executor and
+ * written back in input order. At most {@code maxChunksInFlight} chunks are read ahead of the
+ * output, so the memory used does not depend on the size of the input. Rows are kept as they are,
+ * the zip column only is parsed; quoted fields (RFC 4180) may contain commas and line breaks.
+ * Rows of an unknown zip code get empty columns.
+ *
+ * <p>Usage: {@code AddressEnricher [--zip-column name] [--chunk-size rows] [input [output]]}. The
+ * zip column defaults to {@value #DEFAULT_ZIP_COLUMN}, input and output to stdin and stdout
+ * ({@code -}).
+ */
+public class AddressEnricher {
+
+  public static final String DEFAULT_ZIP_COLUMN = "zip";
+  public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ZipEnrichment enrichment;
+  private final Executor executor;
+  private final int chunkSize;
+  private final int maxChunksInFlight;
+
+  /**
+   * Creates an enricher.
+   *
+   * @param model model resolving the zip codes
+   * @param executor executor enriching the chunks
+   * @param chunkSize amount of rows per chunk
+   * @param maxChunksInFlight amount of chunks read but not written yet, at least 1
+   */
+  public AddressEnricher(Model model, Executor executor, int chunkSize, int maxChunksInFlight) {
+    if (chunkSize < 1 || maxChunksInFlight < 1) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid chunk size %d or chunks in flight %d", chunkSize, maxChunksInFlight));
+    }
+    this.enrichment = ZipEnrichment.of(model);
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+    this.maxChunksInFlight = maxChunksInFlight;
+  }
+
+  /**
+   * Enriches the csv rows of the given input. Streams are not closed.
+   *
+   * @param input csv with a header row
+   * @param output receives the header and the rows, each with the appended columns
+   * @param zipColumn name of the zip code column, ignoring case
+   * @return amount of rows enriched, header excluded
+   * @throws IllegalArgumentException if the header has no such column
+   */
+  public long enrich(Reader input, Writer output, String zipColumn) throws IOException {
+    BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input
+        : new BufferedReader(input, BUFFER_SIZE);
+    String header = readRecord(reader);
+    if (header == null) {
+      return 0;
+    }
+    if (header.startsWith("\uFEFF")) {
+      header = header.substring(1);
+    }
+    int zipIndex = columnIndex(header, zipColumn);
+    output.write(header);
+    output.write(enrichment.header());
+    output.write('\n');
+
+    ArrayDeque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+    long rows = 0;
+    List<String> chunk = readChunk(reader);
+    while (!chunk.isEmpty()) {
+      rows += chunk.size();
+      List<String> records = chunk;
+      inFlight.add(CompletableFuture.supplyAsync(() -> enrichChunk(records, zipIndex), executor));
+      if (inFlight.size() >= maxChunksInFlight) {
+        output.write(join(inFlight.poll()));
+      }
+      chunk = readChunk(reader);
+    }
+    while (!inFlight.isEmpty()) {
+      output.write(join(inFlight.poll()));
+    }
+    output.flush();
+    return rows;
+  }
+
+  /**
+   * Runs the enrichment on the bundled model.
+   */
+  public static void main(String[] args) throws IOException {
+    String zipColumn = DEFAULT_ZIP_COLUMN;
+    int chunkSize = DEFAULT_CHUNK_SIZE;
+    List<String> files = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if ("--zip-column".equals(args[i]) && i + 1 < args.length) {
+        zipColumn = args[++i];
+      } else if ("--chunk-size".equals(args[i]) && i + 1 < args.length) {
+        chunkSize = Integer.parseInt(args[++i]);
+      } else {
+        files.add(args[i]);
+      }
+    }
+    String input = !files.isEmpty() ? files.get(0) : "-";
+    String output = files.size() > 1 ? files.get(1) : "-";
+
+    int workers = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try (Reader reader = "-".equals(input)
+            ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+            : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8);
+        Writer writer = "-".equals(output)
+            ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8)) {
+      AddressEnricher enricher =
+          new AddressEnricher(new Application().getModel(), executor, chunkSize, 2 * workers);
+      enricher.enrich(reader, writer, zipColumn);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private String enrichChunk(List<String> records, int zipIndex) {
+    StringBuilder sb = new StringBuilder(records.size() * 128);
+    for (String record : records) {
+      sb.append(record).append(enrichment.suffix(field(record, zipIndex))).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private List<String> readChunk(BufferedReader reader) throws IOException {
+    List<String> chunk = new ArrayList<>(chunkSize);
+    String record;
+    while (chunk.size() < chunkSize && (record = readRecord(reader)) != null) {
+      chunk.add(record);
+    }
+    return chunk;
+  }
+
+  /**
+   * Reads the next non blank record, joining the lines of quoted fields spanning several lines.
+   */
+  private static String readRecord(BufferedReader reader) throws IOException {
+    String line = reader.readLine();
+    while (line != null && line.isEmpty()) {
+      line = reader.readLine();
+    }
+    if (line == null || !openQuote(line)) {
+      return line;
+    }
+    StringBuilder record = new StringBuilder(line);
+    boolean open = true;
+    while (open && (line = reader.readLine()) != null) {
+      record.append('\n').append(line);
+      open ^= openQuote(line);
+    }
+    return record.toString();
+  }
+
+  private static boolean openQuote(String line) {
+    boolean open = false;
+    for (int i = 0; i < line.length(); i++) {
+      if (line.charAt(i) == '"') {
+        open = !open;
+      }
+    }
+    return open;
+  }
+
+  private static int columnIndex(String header, String column) {
+    for (int i = 0; ; i++) {
+      String name = field(header, i);
+      if (name == null) {
+        throw new IllegalArgumentException(String.format("Can't find column %s", column));
+      }
+      if (name.strip().equalsIgnoreCase(column)) {
+        return i;
+      }
+    }
+  }
+
+  /**
+   * Returns the unquoted value of the field at the given index, null if the record has less fields.
+   */
+  static String field(String record, int index) {
+    int field = 0;
+    int i = 0;
+    while (field < index) {
+      boolean quoted = false;
+      for (; i < record.length() && (quoted || record.charAt(i) != ','); i++) {
+        if (record.charAt(i) == '"') {
+          quoted = !quoted;
+        }
+      }
+      if (i == record.length()) {
+        return null;
+      }
+      i++;
+      field++;
+    }
+    if (i < record.length() && record.charAt(i) == '"') {
+      StringBuilder value = new StringBuilder();
+      for (i++; i < record.length(); i++) {
+        char c = record.charAt(i);
+        if (c == '"') {
+          if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+            i++;
+          } else {
+            break;
+          }
+        }
+        value.append(c);
+      }
+      return value.toString();
+    }
+    int end = record.indexOf(',', i);
+    return record.substring(i, end == -1 ? record.length() : end);
+  }
+
+  /**
+   * Appends the value as a csv field, quoted if needed.
+   */
+  static void appendField(StringBuilder sb, String value) {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      sb.append(value);
+      return;
+    }
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        sb.append('"');
+      }
+      sb.append(c);
+    }
+    sb.append('"');
+  }
+
+  private static String join(CompletableFuture<String> chunk) {
+    try {
+      return chunk.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package ch.aaap.assignment.enrich;
+
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The columns appended to an address, precomputed for each 4 digit zip code.
+ *
+ * <p>The political community is the one returned by
+ * {@link Model#getPoliticalCommunityByZipCode(String)}, the district is its district, which is
+ * the one returned by {@link Model#getDistrictByZipCode(String)}. Each zip code maps to a
+ * ready-made csv suffix, so enriching a row is an array access and a string concatenation.
+ */
+final class ZipEnrichment {
+
+  static final List<String> COLUMNS = List.of("district_number", "district_name", "canton_code",
+      "political_community_number", "political_community_name");
+
+  private static final int ZIP_CODES = 10_000;
+
+  private final String[] suffixes;
+  private final String missing;
+  private final String header;
+
+  private ZipEnrichment(String[] suffixes) {
+    this.suffixes = suffixes;
+    this.missing = csvSuffix(new String[COLUMNS.size()]);
+    this.header = csvSuffix(COLUMNS.toArray(new String[0]));
+  }
+
+  /**
+   * Builds the columns of every zip code known by the model.
+   */
+  static ZipEnrichment of(Model model) {
+    Map<String, District> districtsByNumber = new HashMap<>();
+    for (District district : model.getDistricts()) {
+      districtsByNumber.put(district.getNumber(), district);
+    }
+    Map<String, String> cantonCodesByDistrictNumber = new HashMap<>();
+    model.getDistrictsByCanton().forEach((cantonCode, districts) -> {
+      for (District district : districts) {
+        cantonCodesByDistrictNumber.put(district.getNumber(), cantonCode);
+      }
+    });
+    Map<String, String> districtNumbersByCommunityNumber = new HashMap<>();
+    model.getPoliticalCommunitiesByDistrict().forEach((districtNumber, communities) -> {
+      for (PoliticalCommunity community : communities) {
+        districtNumbersByCommunityNumber.put(community.getNumber(), districtNumber);
+      }
+    });
+
+    Set<String> zipCodes = new TreeSet<>();
+    for (PostalCommunity postalCommunity : model.getPostalCommunities()) {
+      if (zipCode(postalCommunity.getZipCode()) != -1) {
+        zipCodes.add(postalCommunity.getZipCode());
+      }
+    }
+    String[] suffixes = new String[ZIP_CODES];
+    for (String zipCode : zipCodes) {
+      PoliticalCommunity community;
+      try {
+        community = model.getPoliticalCommunityByZipCode(zipCode);
+      } catch (IllegalArgumentException e) {
+        // no political community to resolve the zip code
+        continue;
+      }
+      District district =
+          districtsByNumber.get(districtNumbersByCommunityNumber.get(community.getNumber()));
+      suffixes[zipCode(zipCode)] = csvSuffix(new String[] {
+          district.getNumber(),
+          district.getName(),
+          cantonCodesByDistrictNumber.get(district.getNumber()),
+          community.getNumber(),
+          community.getName()});
+    }
+    return new ZipEnrichment(suffixes);
+  }
+
+  /**
+   * Returns the names of the appended columns, as a csv suffix starting with a comma.
+   */
+  String header() {
+    return header;
+  }
+
+  /**
+   * Returns the appended columns of the zip code, as a csv suffix starting with a comma. The
+   * columns are empty if the zip code is null or unknown.
+   */
+  String suffix(String zipCode) {
+    int zip = zipCode == null ? -1 : zipCode(zipCode.strip());
+    String suffix = zip == -1 ? null : suffixes[zip];
+    return suffix == null ? missing : suffix;
+  }
+
+  /**
+   * Returns the numeric value of a 4 digit zip code, -1 if it's not one.
+   */
+  static int zipCode(String zipCode) {
+    if (zipCode == null || zipCode.length() != 4) {
+      return -1;
+    }
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      char c = zipCode.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + c - '0';
+    }
+    return value;
+  }
+
+  private static String csvSuffix(String[] values) {
+    StringBuilder sb = new StringBuilder();
+    for (String value : values) {
+      sb.append(',');
+      if (value != null) {
+        AddressEnricher.appendField(sb, value);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,142 @@
+package ch.aaap.assignment.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Minimal JSON writer for the responses of the {@link QueryServer}: objects of strings, numbers,
+ * string arrays, object arrays and nested objects of numbers.
+ */
+final class Json {
+
+  private final StringBuilder json = new StringBuilder(64).append('{');
+
+  /**
+   * Adds a string member, null written as {@code null}.
+   */
+  Json add(String name, String value) {
+    name(name);
+    string(value);
+    return this;
+  }
+
+  /**
+   * Adds a number member.
+   */
+  Json add(String name, long value) {
+    name(name);
+    json.append(value);
+    return this;
+  }
+
+  /**
+   * Adds an array member of strings.
+   */
+  Json add(String name, Collection<String> values) {
+    name(name);
+    json.append('[');
+    boolean first = true;
+    for (String value : values) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      string(value);
+    }
+    json.append(']');
+    return this;
+  }
+
+  /**
+   * Adds an object member of numbers, in the iteration order of the map.
+   */
+  Json add(String name, Map<String, Double> values) {
+    name(name);
+    json.append('{');
+    boolean first = true;
+    for (Map.Entry<String, Double> value : values.entrySet()) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      string(value.getKey());
+      json.append(':').append(value.getValue().doubleValue());
+    }
+    json.append('}');
+    return this;
+  }
+
+  /**
+   * Adds an array member of objects.
+   */
+  Json addObjects(String name, Collection<Json> objects) {
+    name(name);
+    json.append('[');
+    boolean first = true;
+    for (Json object : objects) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      json.append(object.json).append('}');
+    }
+    json.append(']');
+    return this;
+  }
+
+  /**
+   * Returns the UTF-8 encoded object.
+   */
+  byte[] toBytes() {
+    return toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return json + "}";
+  }
+
+  private void name(String name) {
+    if (json.length() > 1) {
+      json.append(',');
+    }
+    string(name);
+    json.append(':');
+  }
+
+  private void string(String value) {
+    if (value == null) {
+      json.append("null");
+      return;
+    }
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+}
@@ -0,0 +1,302 @@
+package ch.aaap.assignment.http;
+
+import ch.aaap.assignment.Application;
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight HTTP server answering the {@link Application} queries as JSON, on the JDK's
+ * {@code com.sun.net.httpserver}.
+ *
+ * <p>Endpoints, all {@code GET}:
+ * <ul>
+ * <li>{@code /cantons}</li>
+ * <li>{@code /cantons/count}</li>
+ * <li>{@code /cantons/{code}/districts}</li>
+ * <li>{@code /cantons/{code}/political-communities}</li>
+ * <li>{@code /cantons/{code}/political-communities/count}</li>
+ * <li>{@code /cantons/{code}/districts/count}</li>
+ * <li>{@code /districts/{number}/political-communities/count}</li>
+ * <li>{@code /political-communities/without-postal-community}</li>
+ * <li>{@code /political-communities/without-postal-community/count}</li>
+ * <li>{@code /zip-codes/{zipCode}/district}, the dominant district</li>
+ * <li>{@code /zip-codes/{zipCode}/districts}</li>
+ * <li>{@code /zip-codes/{zipCode}/distribution}, the share of each district</li>
+ * <li>{@code /postal-communities/{name}/last-update}</li>
+ * <li>{@code /cache/stats}, the counters of the {@link ResponseCache}</li>
+ * </ul>
+ * Unknown cantons, districts, zip codes and names answer 404 with an {@code error} member.
+ *
+ * <p>Each request is handled on its own virtual thread when the JVM has them (Java 21+), on a
+ * cached thread pool otherwise. The answers of the canton and political community listings and
+ * of their counts only change with the data: they are encoded once per model version in the
+ * {@link ResponseCache} and written from the same byte array to every request.
+ */
+public class QueryServer implements AutoCloseable {
+
+  public static final int DEFAULT_PORT = 8080;
+
+  private static final String JSON = "application/json; charset=utf-8";
+  // numbers of digits only, in numeric order
+  private static final Comparator<String> BY_NUMBER =
+      Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+  private final Application application;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ResponseCache cache;
+
+  /**
+   * Creates a server, not started yet.
+   *
+   * @param application application answering the queries
+   * @param address address to listen on, port 0 for any free port
+   */
+  public QueryServer(Application application, InetSocketAddress address) throws IOException {
+    this.application = application;
+    this.server = HttpServer.create(address, 0);
+    this.executor = newRequestExecutor();
+    this.cache = new ResponseCache(application.getModel());
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+  }
+
+  /**
+   * Serves the bundled model, on the port given as argument or {@value #DEFAULT_PORT}.
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    enableNoDelay();
+    new QueryServer(new Application(), new InetSocketAddress(port)).start();
+  }
+
+  /**
+   * Turns TCP_NODELAY on for the JDK's HTTP servers, unless {@code sun.net.httpserver.nodelay} is
+   * already set. The headers and the body are written separately: without it the body waits for
+   * the delayed ACK of the headers, adding 40 ms to every response.
+   *
+   * <p>The property is JVM wide and read when the first server of the process is created: call
+   * this before, from the launcher owning the process, as {@link #main(String[])} does. Embedding
+   * applications can pass {@code -Dsun.net.httpserver.nodelay=true} instead.
+   */
+  public static void enableNoDelay() {
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the cache of the aggregate responses.
+   */
+  public ResponseCache getResponseCache() {
+    return cache;
+  }
+
+  /**
+   * Stops the server, without waiting for the requests being handled.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  /**
+   * Returns an executor starting a virtual thread per task, or a cached thread pool before Java
+   * 21. Looked up by reflection, the code being compiled for Java 11.
+   */
+  static ExecutorService newRequestExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        send(exchange, 405, new Json().add("error",
+            String.format("Unsupported method %s", exchange.getRequestMethod())).toBytes());
+        return;
+      }
+      byte[] body;
+      try {
+        body = answer(exchange.getRequestURI().getRawPath());
+      } catch (IllegalArgumentException e) {
+        send(exchange, 404, new Json().add("error", e.getMessage()).toBytes());
+        return;
+      }
+      send(exchange, 200, body);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private byte[] answer(String rawPath) {
+    String[] path = segments(rawPath);
+    // the decoded path, so that equivalent paths share a cache entry
+    String query = String.join("/", path);
+    if (matches(path, "cantons")) {
+      return cache.get(query, QueryServer::cantons);
+    }
+    if (matches(path, "cantons", "count")) {
+      return cache.get(query, model -> count(model.getCantons().size()));
+    }
+    if (matches(path, "cantons", null, "districts")) {
+      return cache.get(query, model -> districts(model, path[1]));
+    }
+    if (matches(path, "cantons", null, "political-communities")) {
+      return cache.get(query, model -> politicalCommunities(
+          group(model.getPoliticalCommunitiesByCanton(), "canton", path[1])));
+    }
+    if (matches(path, "political-communities", "without-postal-community")) {
+      return cache.get(query, model -> politicalCommunities(
+          model.getPoliticalCommunitiesWithoutPostalCommunity()));
+    }
+    if (matches(path, "political-communities", "without-postal-community", "count")) {
+      return cache.get(query,
+          model -> count(model.getPoliticalCommunitiesWithoutPostalCommunity().size()));
+    }
+    if (matches(path, "cantons", null, "political-communities", "count")) {
+      return count(application.getAmountOfPoliticalCommunitiesInCanton(path[1]));
+    }
+    if (matches(path, "cantons", null, "districts", "count")) {
+      return count(application.getAmountOfDistrictsInCanton(path[1]));
+    }
+    if (matches(path, "districts", null, "political-communities", "count")) {
+      return count(application.getAmountOfPoliticalCommunitiesInDistrict(path[1]));
+    }
+    if (matches(path, "zip-codes", null, "district")) {
+      return new Json().add("zipCode", path[1])
+          .add("district", application.getDistrictForZipCode(path[1])).toBytes();
+    }
+    if (matches(path, "zip-codes", null, "districts")) {
+      return new Json().add("zipCode", path[1])
+          .add("districts", application.getAllDistrictsForZipCode(path[1])).toBytes();
+    }
+    if (matches(path, "zip-codes", null, "distribution")) {
+      Map<String, Double> districts =
+          application.getQueryModel().getDistrictDistributionByZipCode(path[1]);
+      return new Json().add("zipCode", path[1]).add("districts", districts).toBytes();
+    }
+    if (matches(path, "postal-communities", null, "last-update")) {
+      LocalDate lastUpdate =
+          application.getLastUpdateOfPoliticalCommunityByPostalCommunityName(path[1]);
+      return new Json().add("postalCommunityName", path[1])
+          .add("lastUpdate", lastUpdate.toString()).toBytes();
+    }
+    if (matches(path, "cache", "stats")) {
+      return new Json().add("version", cache.getVersion()).add("entries", cache.size())
+          .add("hits", cache.getHits()).add("misses", cache.getMisses()).toBytes();
+    }
+    throw new IllegalArgumentException(String.format("Can't find resource /%s", query));
+  }
+
+  private static byte[] cantons(Model model) {
+    List<Json> cantons = model.getCantons().stream()
+        .sorted(Comparator.comparing(Canton::getCode))
+        .map(canton -> new Json().add("code", canton.getCode()).add("name", canton.getName()))
+        .collect(Collectors.toList());
+    return new Json().addObjects("cantons", cantons).toBytes();
+  }
+
+  private static byte[] districts(Model model, String cantonCode) {
+    List<Json> districts = group(model.getDistrictsByCanton(), "canton", cantonCode).stream()
+        .sorted(Comparator.comparing(District::getNumber, BY_NUMBER))
+        .map(district -> new Json().add("number", district.getNumber())
+            .add("name", district.getName()))
+        .collect(Collectors.toList());
+    return new Json().addObjects("districts", districts).toBytes();
+  }
+
+  private static byte[] politicalCommunities(Set<PoliticalCommunity> politicalCommunities) {
+    List<Json> json = politicalCommunities.stream()
+        .sorted(Comparator.comparing(PoliticalCommunity::getNumber, BY_NUMBER))
+        .map(politicalCommunity -> new Json().add("number", politicalCommunity.getNumber())
+            .add("name", politicalCommunity.getName())
+            .add("shortName", politicalCommunity.getShortName())
+            .add("lastUpdate", String.valueOf(politicalCommunity.getLastUpdate())))
+        .collect(Collectors.toList());
+    return new Json().addObjects("politicalCommunities", json).toBytes();
+  }
+
+  private static <T> Set<T> group(Map<String, Set<T>> groups, String kind, String key) {
+    Set<T> group = groups.get(key);
+    if (group == null) {
+      throw new IllegalArgumentException(String.format("Can't find %s %s", kind, key));
+    }
+    return group;
+  }
+
+  private static byte[] count(long count) {
+    return new Json().add("count", count).toBytes();
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  /**
+   * Splits the path into its decoded segments, without the empty ones.
+   */
+  private static String[] segments(String rawPath) {
+    return Arrays.stream(rawPath.split("/"))
+        .filter(segment -> !segment.isEmpty())
+        .map(segment -> URLDecoder.decode(segment, StandardCharsets.UTF_8))
+        .toArray(String[]::new);
+  }
+
+  /**
+   * Tells whether the path has the given segments, a null segment matching any value.
+   */
+  private static boolean matches(String[] path, String... pattern) {
+    if (path.length != pattern.length) {
+      return false;
+    }
+    for (int i = 0; i < pattern.length; i++) {
+      if (pattern[i] != null && !pattern[i].equals(path[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
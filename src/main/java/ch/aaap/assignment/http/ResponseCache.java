@@ -0,0 +1,106 @@
+package ch.aaap.assignment.http;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.ReloadableModel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Encoded responses of queries whose answer only changes with the data, keyed by query and by
+ * {@link ReloadableModel#getVersion() model version}.
+ *
+ * <p>A response is encoded once per version, on the first request, then the same bytes are
+ * written to every request. The responses of a version are dropped as soon as a request sees a
+ * newer version, so replacing or reloading the model invalidates the whole cache. Requests still
+ * running on an older version get freshly encoded responses, not cached ones.
+ *
+ * <p>Thread safe: the responses of the current version are held in a concurrent map, the hits and
+ * misses are counted in {@link LongAdder}s.
+ */
+public final class ResponseCache {
+
+  private final ReloadableModel model;
+  private final AtomicReference<Generation> generation =
+      new AtomicReference<>(new Generation(-1));
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates an empty cache of the responses of the given model.
+   */
+  public ResponseCache(ReloadableModel model) {
+    this.model = model;
+  }
+
+  /**
+   * Returns the cached response of the query on the current version of the model, encoding it if
+   * the query wasn't answered on this version yet.
+   *
+   * @param query key of the query, e.g. its path
+   * @param encoder encodes the response of the query on the given model
+   * @return the encoded response, not to be modified
+   * @throws IllegalArgumentException thrown by the encoder, the response is not cached
+   */
+  public byte[] get(String query, Function<Model, byte[]> encoder) {
+    // the version is read before the model: the model is then of that version or newer, never
+    // an older one cached under a newer version
+    long version = model.getVersion();
+    Model current = model.getModel();
+    Generation cached = generation.updateAndGet(
+        previous -> previous.version < version ? new Generation(version) : previous);
+    byte[] response = cached.version == version ? cached.responses.get(query) : null;
+    if (response != null) {
+      hits.increment();
+      return response;
+    }
+    misses.increment();
+    if (cached.version != version) {
+      return encoder.apply(current);
+    }
+    return cached.responses.computeIfAbsent(query, key -> encoder.apply(current));
+  }
+
+  /**
+   * Returns the amount of requests answered from the cache.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the amount of requests whose response had to be encoded.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the amount of responses cached for the current version.
+   */
+  public int size() {
+    return generation.get().responses.size();
+  }
+
+  /**
+   * Returns the version of the model the cached responses are of, -1 before the first request.
+   */
+  public long getVersion() {
+    return generation.get().version;
+  }
+
+  /**
+   * The responses of a version of the model.
+   */
+  private static final class Generation {
+
+    private final long version;
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+
+    private Generation(long version) {
+      this.version = version;
+    }
+  }
+}
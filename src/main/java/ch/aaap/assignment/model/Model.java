@@ -1,8 +1,12 @@
 package ch.aaap.assignment.model;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface Model {
 
@@ -27,4 +31,367 @@ public interface Model {
   Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity();
 
   Set<String> getAllDistrictsByZipCode(String zipCode);
+
+  /**
+   * Returns how the zip code is shared between its districts, weighted by the percentage of each
+   * postal community lying in each political community. The dominant district, returned by
+   * {@link #getDistrictByZipCode(String)}, comes first.
+   *
+   * @param zipCode 4 digit zip code
+   * @return the share of the zip code of each district name, summing to 1
+   * @throws IllegalArgumentException if the zip code is unknown
+   */
+  Map<String, Double> getDistrictDistributionByZipCode(String zipCode);
+
+  /**
+   * Returns the political community holding the largest share of the zip code within its
+   * dominant district, see {@link #getDistrictDistributionByZipCode(String)}.
+   *
+   * @param zipCode 4 digit zip code
+   * @return the dominant political community of the zip code
+   * @throws IllegalArgumentException if the zip code is unknown
+   */
+  PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode);
+
+  /**
+   * Returns number of political communities in canton.
+   *
+   * @param cantonCode code of a canton (e.g. ZH)
+   * @return amount of political communities in given canton
+   * @throws IllegalArgumentException if the canton is unknown
+   */
+  default int countPoliticalCommunitiesByCanton(String cantonCode) {
+    return count(getPoliticalCommunitiesByCanton(), cantonCode, "canton");
+  }
+
+  /**
+   * Returns number of districts in canton.
+   *
+   * @param cantonCode code of a canton (e.g. ZH)
+   * @return amount of districts in given canton
+   * @throws IllegalArgumentException if the canton is unknown
+   */
+  default int countDistrictsByCanton(String cantonCode) {
+    return count(getDistrictsByCanton(), cantonCode, "canton");
+  }
+
+  /**
+   * Returns number of political communities in district.
+   *
+   * @param districtNumber number of a district (e.g. 101)
+   * @return amount of political communities in given district
+   * @throws IllegalArgumentException if the district is unknown
+   */
+  default int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    return count(getPoliticalCommunitiesByDistrict(), districtNumber, "district");
+  }
+
+  /**
+   * Returns the district of each zip code, see {@link #getDistrictByZipCode(String)}. The default
+   * resolves them one by one, paying an exception per unknown zip code: models with a zip code
+   * index override it.
+   *
+   * @param zipCodes 4 digit zip codes
+   * @return the district of the zip code at the same position, null for unknown or null zip
+   *         codes
+   */
+  default String[] getDistrictsByZipCodes(String[] zipCodes) {
+    String[] districts = new String[zipCodes.length];
+    for (int i = 0; i < zipCodes.length; i++) {
+      if (zipCodes[i] == null) {
+        continue;
+      }
+      try {
+        districts[i] = getDistrictByZipCode(zipCodes[i]);
+      } catch (IllegalArgumentException e) {
+        // unknown zip code, left null
+      }
+    }
+    return districts;
+  }
+
+  /**
+   * Returns the last update of each postal community name, see
+   * {@link #getLastUpdateByPostalCommunityName(String)}. The default resolves them one by one,
+   * paying an exception per unknown name: models with a name index override it.
+   *
+   * @param postalCommunityNames postal community names
+   * @return the last update of the name at the same position, null for unknown or null names
+   */
+  default LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    LocalDate[] lastUpdates = new LocalDate[postalCommunityNames.length];
+    for (int i = 0; i < postalCommunityNames.length; i++) {
+      if (postalCommunityNames[i] == null) {
+        continue;
+      }
+      try {
+        lastUpdates[i] = getLastUpdateByPostalCommunityName(postalCommunityNames[i]);
+      } catch (IllegalArgumentException e) {
+        // unknown name, left null
+      }
+    }
+    return lastUpdates;
+  }
+
+  /**
+   * Returns the postal communities whose zip code is in the range, iterated in ascending zip code
+   * order.
+   *
+   * @param fromZipCode first 4 digit zip code of the range (e.g. 8000)
+   * @param toZipCode last 4 digit zip code of the range, included (e.g. 8099)
+   * @return the postal communities, empty if none or if the range is empty
+   * @throws IllegalArgumentException if a bound is not a 4 digit zip code
+   */
+  default Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    int from = zipCode(fromZipCode);
+    int to = zipCode(toZipCode);
+    Set<PostalCommunity> postalCommunities = getPostalCommunities().stream()
+        .filter(postalCommunity -> inRange(postalCommunity.getZipCode(), from, to))
+        .sorted(Comparator.comparing(PostalCommunity::getZipCode))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    return Collections.unmodifiableSet(postalCommunities);
+  }
+
+  /**
+   * Returns the postal communities whose zip code starts with the prefix, see
+   * {@link #getPostalCommunitiesByZipCodeRange(String, String)}.
+   *
+   * @param zipCodePrefix 1 to 4 leading digits of zip codes (e.g. 80)
+   * @throws IllegalArgumentException if the prefix is not made of 1 to 4 digits
+   */
+  default Set<PostalCommunity> getPostalCommunitiesByZipCodePrefix(String zipCodePrefix) {
+    return getPostalCommunitiesByZipCodeRange(firstZipCode(zipCodePrefix),
+        lastZipCode(zipCodePrefix));
+  }
+
+  /**
+   * Returns the names of the districts of the zip codes in the range, iterated in ascending zip
+   * code order.
+   *
+   * @param fromZipCode first 4 digit zip code of the range (e.g. 8000)
+   * @param toZipCode last 4 digit zip code of the range, included (e.g. 8099)
+   * @return the district names, empty if none or if the range is empty
+   * @throws IllegalArgumentException if a bound is not a 4 digit zip code
+   */
+  default Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    Set<String> districts = new LinkedHashSet<>();
+    String previousZipCode = null;
+    for (PostalCommunity postalCommunity :
+        getPostalCommunitiesByZipCodeRange(fromZipCode, toZipCode)) {
+      String zipCode = postalCommunity.getZipCode();
+      if (!zipCode.equals(previousZipCode)) {
+        previousZipCode = zipCode;
+        try {
+          districts.addAll(getAllDistrictsByZipCode(zipCode));
+        } catch (IllegalArgumentException e) {
+          // no political community to resolve the zip code
+        }
+      }
+    }
+    return Collections.unmodifiableSet(districts);
+  }
+
+  /**
+   * Returns the names of the districts of the zip codes starting with the prefix, see
+   * {@link #getDistrictsByZipCodeRange(String, String)}.
+   *
+   * @param zipCodePrefix 1 to 4 leading digits of zip codes (e.g. 80)
+   * @throws IllegalArgumentException if the prefix is not made of 1 to 4 digits
+   */
+  default Set<String> getDistrictsByZipCodePrefix(String zipCodePrefix) {
+    return getDistrictsByZipCodeRange(firstZipCode(zipCodePrefix), lastZipCode(zipCodePrefix));
+  }
+
+  /**
+   * Returns the postal communities of a political community, iterated in ascending zip code
+   * order.
+   *
+   * @param politicalCommunityNumber number of a political community (e.g. 261)
+   * @return the postal communities, empty if the political community has none
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  default Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    politicalCommunity(politicalCommunityNumber);
+    Set<PostalCommunity> postalCommunities = getPostalCommunities().stream()
+        .filter(postalCommunity ->
+            politicalCommunityNumber.equals(postalCommunity.getPoliticalCommunityNumber()))
+        .sorted(Comparator.comparing(PostalCommunity::getZipCode))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    return Collections.unmodifiableSet(postalCommunities);
+  }
+
+  /**
+   * Returns the zip codes of a political community, in ascending order.
+   *
+   * @param politicalCommunityNumber number of a political community (e.g. 261)
+   * @return the zip codes, empty if the political community has no postal community
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  default Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    Set<String> zipCodes = getPostalCommunitiesByPoliticalCommunity(politicalCommunityNumber)
+        .stream()
+        .map(PostalCommunity::getZipCode)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    return Collections.unmodifiableSet(zipCodes);
+  }
+
+  /**
+   * Returns the district of a political community.
+   *
+   * @param politicalCommunityNumber number of a political community (e.g. 261)
+   * @return the district of the political community
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  default District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    politicalCommunity(politicalCommunityNumber);
+    for (Map.Entry<String, Set<PoliticalCommunity>> district :
+        getPoliticalCommunitiesByDistrict().entrySet()) {
+      if (district.getValue().stream().anyMatch(politicalCommunity ->
+          politicalCommunity.getNumber().equals(politicalCommunityNumber))) {
+        return getDistricts().stream()
+            .filter(candidate -> candidate.getNumber().equals(district.getKey()))
+            .findAny()
+            .orElseThrow();
+      }
+    }
+    throw new IllegalArgumentException(
+        String.format("Can't find district of political community %s", politicalCommunityNumber));
+  }
+
+  /**
+   * Returns the canton of a district.
+   *
+   * @param districtNumber number of a district (e.g. 101)
+   * @return the canton of the district
+   * @throws IllegalArgumentException if the district is unknown
+   */
+  default Canton getCantonByDistrict(String districtNumber) {
+    for (Map.Entry<String, Set<District>> canton : getDistrictsByCanton().entrySet()) {
+      for (District district : canton.getValue()) {
+        if (district.getNumber().equals(districtNumber)) {
+          return getCantons().stream()
+              .filter(candidate -> candidate.getCode().equals(canton.getKey()))
+              .findAny()
+              .orElseThrow();
+        }
+      }
+    }
+    throw new IllegalArgumentException(String.format("Can't find district %s", districtNumber));
+  }
+
+  /**
+   * Returns the political communities a zip code lies in, iterated in ascending number order.
+   *
+   * @param zipCode 4 digit zip code
+   * @return the political communities, at least one
+   * @throws IllegalArgumentException if no postal community of a known political community has
+   *         the zip code
+   */
+  default Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    Set<String> numbers = getPostalCommunities().stream()
+        .filter(postalCommunity -> postalCommunity.getZipCode().equals(zipCode))
+        .map(PostalCommunity::getPoliticalCommunityNumber)
+        .collect(Collectors.toSet());
+    Set<PoliticalCommunity> politicalCommunities = getPoliticalCommunities().stream()
+        .filter(politicalCommunity -> numbers.contains(politicalCommunity.getNumber()))
+        .sorted(Comparator.comparing(PoliticalCommunity::getNumber,
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (politicalCommunities.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return Collections.unmodifiableSet(politicalCommunities);
+  }
+
+  /**
+   * Returns the cantons a zip code lies in, in the order of the political communities of
+   * {@link #getPoliticalCommunitiesByZipCode(String)}. Most zip codes lie in a single canton.
+   *
+   * @param zipCode 4 digit zip code
+   * @return the cantons, at least one
+   * @throws IllegalArgumentException if no postal community of a known political community has
+   *         the zip code
+   */
+  default Set<Canton> getCantonsByZipCode(String zipCode) {
+    Set<Canton> cantons = new LinkedHashSet<>();
+    for (PoliticalCommunity politicalCommunity : getPoliticalCommunitiesByZipCode(zipCode)) {
+      cantons.add(getCantonByDistrict(
+          getDistrictByPoliticalCommunity(politicalCommunity.getNumber()).getNumber()));
+    }
+    return Collections.unmodifiableSet(cantons);
+  }
+
+  /**
+   * Returns the size of the group of the key, see {@link #countPoliticalCommunitiesByCanton}.
+   *
+   * @throws IllegalArgumentException if there is no group for the key
+   */
+  private static int count(Map<String, ? extends Set<?>> groups, String key, String kind) {
+    Set<?> group = groups.get(key);
+    if (group == null) {
+      throw new IllegalArgumentException(String.format("Can't find %s %s", kind, key));
+    }
+    return group.size();
+  }
+
+  /**
+   * Returns the political community of the number.
+   *
+   * @throws IllegalArgumentException if there is no such political community
+   */
+  private PoliticalCommunity politicalCommunity(String politicalCommunityNumber) {
+    return getPoliticalCommunities().stream()
+        .filter(politicalCommunity -> politicalCommunity.getNumber().equals(
+            politicalCommunityNumber))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException(String.format(
+            "Can't find political community %s", politicalCommunityNumber)));
+  }
+
+  /**
+   * Returns the 4 digit zip code as int.
+   *
+   * @throws IllegalArgumentException if it's not a 4 digit zip code
+   */
+  private static int zipCode(String zipCode) {
+    if (zipCode == null || !zipCode.matches("[0-9]{4}")) {
+      throw new IllegalArgumentException(String.format("Unsupported zip code %s", zipCode));
+    }
+    return Integer.parseInt(zipCode);
+  }
+
+  /**
+   * Returns whether the zip code is a 4 digit zip code between from and to, both included.
+   */
+  private static boolean inRange(String zipCode, int from, int to) {
+    if (zipCode == null || !zipCode.matches("[0-9]{4}")) {
+      return false;
+    }
+    int zip = Integer.parseInt(zipCode);
+    return zip >= from && zip <= to;
+  }
+
+  private static String firstZipCode(String zipCodePrefix) {
+    return checkedPrefix(zipCodePrefix) + "0000".substring(zipCodePrefix.length());
+  }
+
+  private static String lastZipCode(String zipCodePrefix) {
+    return checkedPrefix(zipCodePrefix) + "9999".substring(zipCodePrefix.length());
+  }
+
+  /**
+   * Returns the zip code prefix.
+   *
+   * @throws IllegalArgumentException if it's not 1 to 4 digits
+   */
+  private static String checkedPrefix(String zipCodePrefix) {
+    if (zipCodePrefix == null || !zipCodePrefix.matches("[0-9]{1,4}")) {
+      throw new IllegalArgumentException(
+          String.format("Unsupported zip code prefix %s", zipCodePrefix));
+    }
+    return zipCodePrefix;
+  }
 }
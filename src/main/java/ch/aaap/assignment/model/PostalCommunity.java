@@ -7,4 +7,6 @@ public interface PostalCommunity {
   String getZipCodeAddition();
 
   String getName();
+
+  String getPoliticalCommunityNumber();
 }
@@ -0,0 +1,754 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Low footprint model storing the data as parallel primitive arrays.
+ *
+ * <p>Political communities are sorted by canton, district and number, so that the communities of
+ * a canton or a district are a contiguous range of indexes. Strings are held once in a
+ * dictionary and referenced by id, dates are stored as epoch days. The {@link Canton},
+ * {@link District}, {@link PoliticalCommunity} and {@link PostalCommunity} instances handed out
+ * are flyweights created on demand, holding only an index into the arrays; the returned sets are
+ * views over index ranges. Postal communities are sorted by zip code, so a zip code range is a
+ * binary searched range of them. The postal communities of each political community and the
+ * political communities of each zip code are kept as ranges of index arrays, so following a link
+ * between them is an array access. The flyweights extend the entities of the other models and
+ * read their values from the arrays, so they are equal to any entity of the same values, whichever
+ * model it comes from.
+ */
+public class ColumnarModelImp implements Model {
+
+  private static final byte NO_CANTON = -1;
+  private static final short NO_DISTRICT = -1;
+
+  // dictionary of all the strings, referenced by id
+  private final String[] strings;
+
+  // cantons, by canton ordinal
+  private final int[] cantonCode;
+  private final int[] cantonName;
+  private final byte[] cantonByCode; // canton ordinal by ModelKeys.cantonCode
+  private final int[] cantonCommunityStart; // community range, cantonCount + 1 entries
+  private final int[] cantonDistrictStart; // district range, cantonCount + 1 entries
+
+  // districts, by district ordinal
+  private final short[] districtNumber;
+  private final int[] districtName;
+  private final byte[] districtCanton;
+  private final short[] districtByNumber; // district ordinal by district number
+  private final int[] districtCommunityStart; // community range, districtCount + 1 entries
+
+  // political communities, by community index
+  private final int[] communityNumber;
+  private final int[] communityName;
+  private final int[] communityShortName;
+  private final short[] communityDistrict; // district number
+  private final byte[] communityCanton;
+  private final int[] communityLastUpdate; // epoch day
+  private final int[] communitiesWithoutPostalCommunity;
+  private final int[] communityByNumber; // community index by number, -1 for none
+  // postal community indexes of each community, by zip code, communityCount + 1 entries
+  private final int[] communityPostalStart;
+  private final int[] communityPostals;
+
+  // postal communities, by postal community index
+  private final short[] postalZipCode;
+  private final int[] postalZipCodeAddition;
+  private final int[] postalName;
+  private final int[] postalCommunity; // political community index
+
+  // zip index: district ordinals of each zip code, the dominant first, and their share of the
+  // zip code, ModelKeys.ZIP_CODES + 1 entries
+  private final int[] zipDistrictStart;
+  private final short[] zipDistricts;
+  private final double[] zipDistrictShares;
+  private final int[] zipCommunity; // dominant political community index, by zip code
+  // community indexes of each zip code, by number, ModelKeys.ZIP_CODES + 1 entries
+  private final int[] zipCommunityStart;
+  private final int[] zipCommunities;
+
+  // name index: normalized postal community names, sorted, and their last update epoch day
+  private final String[] nameKeys;
+  private final int[] nameLastUpdate;
+
+  private final Set<Canton> cantons;
+  private final Set<District> districts;
+  private final Set<PoliticalCommunity> politicalCommunities;
+  private final Set<PostalCommunity> postalCommunities;
+  private final Set<PoliticalCommunity> politicalCommunitiesWithoutPostalCommunity;
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByCanton;
+  private final Map<String, Set<District>> districtsByCanton;
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict;
+
+  /**
+   * Ctor. Builds the columns, the given sets are not retained.
+   */
+  public ColumnarModelImp(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+
+    // cantons and districts, sorted by code / number
+    TreeMap<String, CSVPoliticalCommunity> cantonRows = new TreeMap<>();
+    TreeMap<Integer, CSVPoliticalCommunity> districtRows = new TreeMap<>();
+    for (CSVPoliticalCommunity row : csvPoliticalCommunities) {
+      cantonRows.putIfAbsent(row.getCantonCode(), row);
+      districtRows.putIfAbsent(checkedDigits(row.getDistrictNumber(), "district number"), row);
+    }
+
+    int cantonCount = cantonRows.size();
+    cantonCode = new int[cantonCount];
+    cantonName = new int[cantonCount];
+    cantonByCode = new byte[ModelKeys.CANTON_CODES];
+    Arrays.fill(cantonByCode, NO_CANTON);
+    Map<String, Byte> cantonOrdinal = new HashMap<>();
+    for (CSVPoliticalCommunity row : cantonRows.values()) {
+      byte ordinal = (byte) cantonOrdinal.size();
+      cantonOrdinal.put(row.getCantonCode(), ordinal);
+      cantonCode[ordinal] = id(row.getCantonCode(), stringIds, dictionary);
+      cantonName[ordinal] = id(row.getCantonName(), stringIds, dictionary);
+      int key = ModelKeys.cantonCode(row.getCantonCode());
+      if (key != ModelKeys.NO_KEY) {
+        cantonByCode[key] = ordinal;
+      }
+    }
+
+    // districts sorted by canton, then number
+    List<CSVPoliticalCommunity> districtList = new ArrayList<>(districtRows.values());
+    districtList.sort(Comparator
+        .comparing((CSVPoliticalCommunity row) -> cantonOrdinal.get(row.getCantonCode()))
+        .thenComparingInt(row -> ModelKeys.digits(row.getDistrictNumber())));
+    int districtCount = districtList.size();
+    districtNumber = new short[districtCount];
+    districtName = new int[districtCount];
+    districtCanton = new byte[districtCount];
+    districtByNumber = new short[districtRows.isEmpty() ? 0 : districtRows.lastKey() + 1];
+    Arrays.fill(districtByNumber, NO_DISTRICT);
+    cantonDistrictStart = new int[cantonCount + 1];
+    for (int i = 0; i < districtCount; i++) {
+      CSVPoliticalCommunity row = districtList.get(i);
+      int number = ModelKeys.digits(row.getDistrictNumber());
+      districtNumber[i] = (short) number;
+      districtName[i] = id(row.getDistrictName(), stringIds, dictionary);
+      districtCanton[i] = cantonOrdinal.get(row.getCantonCode());
+      districtByNumber[number] = (short) i;
+      cantonDistrictStart[districtCanton[i] + 1] = i + 1;
+    }
+    fillGaps(cantonDistrictStart);
+
+    // communities sorted by canton, district, then number
+    List<CSVPoliticalCommunity> communityList = new ArrayList<>(csvPoliticalCommunities);
+    communityList.sort(Comparator
+        .comparing((CSVPoliticalCommunity row) -> cantonOrdinal.get(row.getCantonCode()))
+        .thenComparingInt(row -> districtByNumber[ModelKeys.digits(row.getDistrictNumber())])
+        .thenComparingInt(row -> checkedDigits(row.getNumber(), "community number")));
+    int communityCount = communityList.size();
+    communityNumber = new int[communityCount];
+    communityName = new int[communityCount];
+    communityShortName = new int[communityCount];
+    communityDistrict = new short[communityCount];
+    communityCanton = new byte[communityCount];
+    communityLastUpdate = new int[communityCount];
+    cantonCommunityStart = new int[cantonCount + 1];
+    districtCommunityStart = new int[districtCount + 1];
+    Map<String, Integer> communityByNumber = new HashMap<>();
+    this.communityByNumber = new int[communityCount == 0 ? 0
+        : communityList.stream().mapToInt(row -> ModelKeys.digits(row.getNumber())).max()
+            .getAsInt() + 1];
+    Arrays.fill(this.communityByNumber, -1);
+    for (int i = 0; i < communityCount; i++) {
+      CSVPoliticalCommunity row = communityList.get(i);
+      communityNumber[i] = ModelKeys.digits(row.getNumber());
+      communityName[i] = id(row.getName(), stringIds, dictionary);
+      communityShortName[i] = id(row.getShortName(), stringIds, dictionary);
+      communityDistrict[i] = (short) ModelKeys.digits(row.getDistrictNumber());
+      communityCanton[i] = cantonOrdinal.get(row.getCantonCode());
+      communityLastUpdate[i] = (int) row.getLastUpdate().toEpochDay();
+      communityByNumber.put(row.getNumber(), i);
+      this.communityByNumber[communityNumber[i]] = i;
+      cantonCommunityStart[communityCanton[i] + 1] = i + 1;
+      districtCommunityStart[districtByNumber[communityDistrict[i]] + 1] = i + 1;
+    }
+    fillGaps(cantonCommunityStart);
+    fillGaps(districtCommunityStart);
+
+    // postal communities, the ones of unknown political communities or with an invalid zip code
+    // can't be resolved and are left out
+    List<CSVPostalCommunity> postalList = new ArrayList<>();
+    for (CSVPostalCommunity row : csvPostalCommunities) {
+      if (communityByNumber.containsKey(row.getPoliticalCommunityNumber())
+          && ModelKeys.zipCode(row.getZipCode()) != ModelKeys.NO_KEY) {
+        postalList.add(row);
+      }
+    }
+    postalList.sort(Comparator.comparing(CSVPostalCommunity::getZipCode));
+    int postalCount = postalList.size();
+    postalZipCode = new short[postalCount];
+    postalZipCodeAddition = new int[postalCount];
+    postalName = new int[postalCount];
+    postalCommunity = new int[postalCount];
+    BitSet withPostalCommunity = new BitSet(communityCount);
+    TreeMap<String, Integer> lastUpdateByName = new TreeMap<>();
+    for (int i = 0; i < postalCount; i++) {
+      CSVPostalCommunity row = postalList.get(i);
+      postalZipCode[i] = (short) ModelKeys.zipCode(row.getZipCode());
+      postalZipCodeAddition[i] = id(row.getZipCodeAddition(), stringIds, dictionary);
+      postalName[i] = id(row.getName(), stringIds, dictionary);
+      int community = communityByNumber.get(row.getPoliticalCommunityNumber());
+      postalCommunity[i] = community;
+      withPostalCommunity.set(community);
+      lastUpdateByName.merge(ModelKeys.name(row.getName()), communityLastUpdate[community],
+          Math::max);
+    }
+    communitiesWithoutPostalCommunity = withoutPostal(withPostalCommunity, communityCount);
+
+    // postal communities grouped by community, in zip code order as the postal communities are
+    communityPostalStart = new int[communityCount + 1];
+    for (int community : postalCommunity) {
+      communityPostalStart[community + 1]++;
+    }
+    for (int i = 0; i < communityCount; i++) {
+      communityPostalStart[i + 1] += communityPostalStart[i];
+    }
+    communityPostals = new int[postalCount];
+    int[] nextPostal = Arrays.copyOf(communityPostalStart, communityCount);
+    for (int i = 0; i < postalCount; i++) {
+      communityPostals[nextPostal[postalCommunity[i]]++] = i;
+    }
+
+    // distinct communities of each zip code, from its range of postal communities
+    zipCommunityStart = new int[ModelKeys.ZIP_CODES + 1];
+    int[] communities = new int[postalCount];
+    int communityEnd = 0;
+    for (int start = 0; start < postalCount; ) {
+      int zip = postalZipCode[start];
+      int end = start;
+      while (end < postalCount && postalZipCode[end] == zip) {
+        end++;
+      }
+      int[] ofZip = IntStream.range(start, end).map(i -> postalCommunity[i]).distinct()
+          .boxed().sorted(Comparator.comparingInt(community -> communityNumber[community]))
+          .mapToInt(Integer::intValue).toArray();
+      zipCommunityStart[zip] = communityEnd;
+      System.arraycopy(ofZip, 0, communities, communityEnd, ofZip.length);
+      communityEnd += ofZip.length;
+      zipCommunityStart[zip + 1] = communityEnd;
+      start = end;
+    }
+    fillGaps(zipCommunityStart);
+    zipCommunities = Arrays.copyOf(communities, communityEnd);
+
+    Map<String, CSVPoliticalCommunity> csvByNumber = new HashMap<>();
+    for (CSVPoliticalCommunity row : csvPoliticalCommunities) {
+      csvByNumber.put(row.getNumber(), row);
+    }
+    Map<Integer, ZipDistribution> distributionsByZip =
+        ZipDistribution.byZipCode(postalList, csvByNumber);
+    zipDistrictStart = new int[ModelKeys.ZIP_CODES + 1];
+    int zipDistrictCount =
+        distributionsByZip.values().stream().mapToInt(ZipDistribution::size).sum();
+    zipDistricts = new short[zipDistrictCount];
+    zipDistrictShares = new double[zipDistrictCount];
+    zipCommunity = new int[ModelKeys.ZIP_CODES];
+    Arrays.fill(zipCommunity, -1);
+    int next = 0;
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      zipDistrictStart[zip] = next;
+      ZipDistribution distribution = distributionsByZip.get(zip);
+      if (distribution != null) {
+        for (int i = 0; i < distribution.size(); i++) {
+          zipDistricts[next] = districtByNumber[ModelKeys.digits(distribution.districtNumber(i))];
+          zipDistrictShares[next++] = distribution.districtShare(i);
+        }
+        zipCommunity[zip] = communityByNumber.get(distribution.politicalCommunityNumber());
+      }
+    }
+    zipDistrictStart[ModelKeys.ZIP_CODES] = next;
+
+    nameKeys = lastUpdateByName.keySet().toArray(new String[0]);
+    nameLastUpdate = lastUpdateByName.values().stream().mapToInt(Integer::intValue).toArray();
+
+    strings = dictionary.toArray(new String[0]);
+
+    cantons = new IndexSet<>(0, cantonCount, CantonView::new);
+    districts = new IndexSet<>(0, districtCount, DistrictView::new);
+    politicalCommunities = new IndexSet<>(0, communityCount, CommunityView::new);
+    postalCommunities = new IndexSet<>(0, postalCount, PostalView::new);
+    politicalCommunitiesWithoutPostalCommunity = new IndexSet<>(0,
+        communitiesWithoutPostalCommunity.length,
+        i -> new CommunityView(communitiesWithoutPostalCommunity[i]));
+    Map<String, Set<PoliticalCommunity>> byCanton = new HashMap<>();
+    Map<String, Set<District>> districtsOfCanton = new HashMap<>();
+    for (int canton = 0; canton < cantonCount; canton++) {
+      byCanton.put(strings[cantonCode[canton]], new IndexSet<>(cantonCommunityStart[canton],
+          cantonCommunityStart[canton + 1], CommunityView::new));
+      districtsOfCanton.put(strings[cantonCode[canton]], new IndexSet<>(
+          cantonDistrictStart[canton], cantonDistrictStart[canton + 1], DistrictView::new));
+    }
+    Map<String, Set<PoliticalCommunity>> byDistrict = new HashMap<>();
+    for (int district = 0; district < districtCount; district++) {
+      byDistrict.put(String.valueOf(districtNumber[district]), new IndexSet<>(
+          districtCommunityStart[district], districtCommunityStart[district + 1],
+          CommunityView::new));
+    }
+    politicalCommunitiesByCanton = Map.copyOf(byCanton);
+    districtsByCanton = Map.copyOf(districtsOfCanton);
+    politicalCommunitiesByDistrict = Map.copyOf(byDistrict);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunities() {
+    return politicalCommunities;
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunities() {
+    return postalCommunities;
+  }
+
+  @Override
+  public Set<Canton> getCantons() {
+    return cantons;
+  }
+
+  @Override
+  public Set<District> getDistricts() {
+    return districts;
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByCanton() {
+    return politicalCommunitiesByCanton;
+  }
+
+  @Override
+  public Map<String, Set<District>> getDistrictsByCanton() {
+    return districtsByCanton;
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByDistrict() {
+    return politicalCommunitiesByDistrict;
+  }
+
+  @Override
+  public String getDistrictByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    return strings[districtName[zipDistricts[zipDistrictStart[zip]]]];
+  }
+
+  @Override
+  public Set<String> getAllDistrictsByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    int start = zipDistrictStart[zip];
+    return new IndexSet<>(start, zipDistrictStart[zip + 1],
+        i -> strings[districtName[zipDistricts[i]]]);
+  }
+
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    Map<String, Double> shares = new LinkedHashMap<>();
+    for (int i = zipDistrictStart[zip]; i < zipDistrictStart[zip + 1]; i++) {
+      shares.merge(strings[districtName[zipDistricts[i]]], zipDistrictShares[i], Double::sum);
+    }
+    return Collections.unmodifiableMap(shares);
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return new CommunityView(zipCommunity[zip(zipCode)]);
+  }
+
+  @Override
+  public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
+    int index = Arrays.binarySearch(nameKeys, ModelKeys.name(postalCommunityName));
+    if (index < 0) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for name %s", postalCommunityName));
+    }
+    return LocalDate.ofEpochDay(nameLastUpdate[index]);
+  }
+
+  /**
+   * Postal communities are sorted by zip code: returns a view of the range between the binary
+   * searched bounds.
+   */
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    int start = postalStart(ModelKeys.checkedZipCode(fromZipCode));
+    int end = Math.max(start, postalStart(ModelKeys.checkedZipCode(toZipCode) + 1));
+    return new IndexSet<>(start, end, PostalView::new);
+  }
+
+  /**
+   * The districts of consecutive zip codes are contiguous in the zip index: returns a view of the
+   * distinct districts of the range.
+   */
+  @Override
+  public Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    int start = zipDistrictStart[ModelKeys.checkedZipCode(fromZipCode)];
+    int end = Math.max(start, zipDistrictStart[ModelKeys.checkedZipCode(toZipCode) + 1]);
+    return new DistinctSet<>(() -> IntStream.range(start, end)
+        .mapToObj(i -> strings[districtName[zipDistricts[i]]])
+        .iterator());
+  }
+
+  /**
+   * Resolves the zip codes in ascending order, so the zip index is read in a single forward pass
+   * and repeated zip codes are resolved once.
+   */
+  @Override
+  public String[] getDistrictsByZipCodes(String[] zipCodes) {
+    int[] zips = new int[zipCodes.length];
+    for (int i = 0; i < zipCodes.length; i++) {
+      zips[i] = ModelKeys.zipCode(zipCodes[i]);
+    }
+    String[] result = new String[zipCodes.length];
+    for (int position : ModelKeys.sortedPositions(zips)) {
+      int zip = zips[position];
+      if (zip != ModelKeys.NO_KEY && zipDistrictStart[zip] != zipDistrictStart[zip + 1]) {
+        result[position] = strings[districtName[zipDistricts[zipDistrictStart[zip]]]];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sorts the normalized names and merges them with the sorted name index: each binary search
+   * starts where the previous one ended, so the index is read in a single forward pass.
+   */
+  @Override
+  public LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    String[] keys = new String[postalCommunityNames.length];
+    Integer[] positions = new Integer[postalCommunityNames.length];
+    for (int i = 0; i < postalCommunityNames.length; i++) {
+      keys[i] = postalCommunityNames[i] == null ? null : ModelKeys.name(postalCommunityNames[i]);
+      positions[i] = i;
+    }
+    // null names first, left null
+    Arrays.sort(positions, Comparator.comparing(position -> keys[position],
+        Comparator.nullsFirst(Comparator.naturalOrder())));
+    LocalDate[] result = new LocalDate[postalCommunityNames.length];
+    int from = 0;
+    for (int position : positions) {
+      if (keys[position] == null) {
+        continue;
+      }
+      int index = Arrays.binarySearch(nameKeys, from, nameKeys.length, keys[position]);
+      if (index >= 0) {
+        result[position] = LocalDate.ofEpochDay(nameLastUpdate[index]);
+        from = index;
+      } else {
+        from = -index - 1;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity() {
+    return politicalCommunitiesWithoutPostalCommunity;
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByCanton(String cantonCode) {
+    int canton = canton(cantonCode);
+    return cantonCommunityStart[canton + 1] - cantonCommunityStart[canton];
+  }
+
+  @Override
+  public int countDistrictsByCanton(String cantonCode) {
+    int canton = canton(cantonCode);
+    return cantonDistrictStart[canton + 1] - cantonDistrictStart[canton];
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    int district = district(districtNumber);
+    return districtCommunityStart[district + 1] - districtCommunityStart[district];
+  }
+
+  /**
+   * The postal communities of a political community are a range of the community postal index.
+   */
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    int community = community(politicalCommunityNumber);
+    return new IndexSet<>(communityPostalStart[community], communityPostalStart[community + 1],
+        i -> new PostalView(communityPostals[i]));
+  }
+
+  @Override
+  public Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    int community = community(politicalCommunityNumber);
+    int start = communityPostalStart[community];
+    int end = communityPostalStart[community + 1];
+    return new DistinctSet<>(() -> IntStream.range(start, end)
+        .mapToObj(i -> zipCode(postalZipCode[communityPostals[i]]))
+        .iterator());
+  }
+
+  @Override
+  public District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    int community = community(politicalCommunityNumber);
+    return new DistrictView(districtByNumber[communityDistrict[community]]);
+  }
+
+  @Override
+  public Canton getCantonByDistrict(String districtNumber) {
+    return new CantonView(districtCanton[district(districtNumber)]);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    return new IndexSet<>(zipCommunityStart[zip], zipCommunityStart[zip + 1],
+        i -> new CommunityView(zipCommunities[i]));
+  }
+
+  @Override
+  public Set<Canton> getCantonsByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    int start = zipCommunityStart[zip];
+    int end = zipCommunityStart[zip + 1];
+    return new DistinctSet<>(() -> IntStream.range(start, end)
+        .mapToObj(i -> (Canton) new CantonView(communityCanton[zipCommunities[i]]))
+        .iterator());
+  }
+
+  private int canton(String cantonCode) {
+    int key = ModelKeys.cantonCode(cantonCode);
+    byte canton = key == ModelKeys.NO_KEY ? NO_CANTON : cantonByCode[key];
+    if (canton == NO_CANTON) {
+      throw new IllegalArgumentException(String.format("Can't find canton %s", cantonCode));
+    }
+    return canton;
+  }
+
+  private int district(String districtNumber) {
+    int number = ModelKeys.digits(districtNumber);
+    int district = number >= 0 && number < districtByNumber.length
+        ? districtByNumber[number] : NO_DISTRICT;
+    if (district == NO_DISTRICT) {
+      throw new IllegalArgumentException(
+          String.format("Can't find district %s", districtNumber));
+    }
+    return district;
+  }
+
+  private int community(String politicalCommunityNumber) {
+    int number = ModelKeys.digits(politicalCommunityNumber);
+    int community = number >= 0 && number < communityByNumber.length
+        ? communityByNumber[number] : -1;
+    if (community == -1) {
+      throw new IllegalArgumentException(
+          String.format("Can't find political community %s", politicalCommunityNumber));
+    }
+    return community;
+  }
+
+  private int zip(String zipCode) {
+    int zip = ModelKeys.zipCode(zipCode);
+    if (zip == ModelKeys.NO_KEY || zipDistrictStart[zip] == zipDistrictStart[zip + 1]) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return zip;
+  }
+
+  /**
+   * Returns the index of the first postal community whose zip code is greater than or equal to
+   * the given one.
+   */
+  private int postalStart(int zipCode) {
+    int low = 0;
+    int high = postalZipCode.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (postalZipCode[middle] < zipCode) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int id(String value, Map<String, Integer> ids, List<String> dictionary) {
+    return ids.computeIfAbsent(value, key -> {
+      dictionary.add(key);
+      return dictionary.size() - 1;
+    });
+  }
+
+  private static int checkedDigits(String value, String what) {
+    int result = ModelKeys.digits(value);
+    if (result == ModelKeys.NO_KEY || result > Short.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Unsupported %s %s", what, value));
+    }
+    return result;
+  }
+
+  /**
+   * Replaces the 0 start of empty ranges by the end of the preceding range.
+   */
+  private static void fillGaps(int[] starts) {
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] = Math.max(starts[i], starts[i - 1]);
+    }
+  }
+
+  private static int[] withoutPostal(BitSet withPostalCommunity, int communityCount) {
+    BitSet without = new BitSet(communityCount);
+    without.set(0, communityCount);
+    without.andNot(withPostalCommunity);
+    return without.stream().toArray();
+  }
+
+  private static String zipCode(short zip) {
+    String value = String.valueOf(zip);
+    return "0000".substring(value.length()) + value;
+  }
+
+  private final class CantonView extends CantonImp {
+
+    private final int canton;
+
+    private CantonView(int canton) {
+      this.canton = canton;
+    }
+
+    @Override
+    public String getCode() {
+      return strings[cantonCode[canton]];
+    }
+
+    @Override
+    public String getName() {
+      return strings[cantonName[canton]];
+    }
+
+    @Override
+    public String toString() {
+      return "Canton(code=" + getCode() + ", name=" + getName() + ")";
+    }
+  }
+
+  private final class DistrictView extends DistrictImp {
+
+    private final int district;
+
+    private DistrictView(int district) {
+      this.district = district;
+    }
+
+    @Override
+    public String getNumber() {
+      return String.valueOf(districtNumber[district]);
+    }
+
+    @Override
+    public String getName() {
+      return strings[districtName[district]];
+    }
+
+    @Override
+    public String toString() {
+      return "District(number=" + getNumber() + ", name=" + getName() + ")";
+    }
+  }
+
+  private final class CommunityView extends PoliticalCommunityImp {
+
+    private final int community;
+
+    private CommunityView(int community) {
+      this.community = community;
+    }
+
+    @Override
+    public String getNumber() {
+      return String.valueOf(communityNumber[community]);
+    }
+
+    @Override
+    public String getName() {
+      return strings[communityName[community]];
+    }
+
+    @Override
+    public String getShortName() {
+      return strings[communityShortName[community]];
+    }
+
+    @Override
+    public LocalDate getLastUpdate() {
+      return LocalDate.ofEpochDay(communityLastUpdate[community]);
+    }
+
+    @Override
+    public String toString() {
+      return "PoliticalCommunity(number=" + getNumber() + ", name=" + getName()
+          + ", shortName=" + getShortName() + ", lastUpdate=" + getLastUpdate() + ")";
+    }
+  }
+
+  private final class PostalView extends PostalCommunityImp {
+
+    private final int postal;
+
+    private PostalView(int postal) {
+      this.postal = postal;
+    }
+
+    @Override
+    public String getZipCode() {
+      return zipCode(postalZipCode[postal]);
+    }
+
+    @Override
+    public String getZipCodeAddition() {
+      return strings[postalZipCodeAddition[postal]];
+    }
+
+    @Override
+    public String getName() {
+      return strings[postalName[postal]];
+    }
+
+    @Override
+    public String getPoliticalCommunityNumber() {
+      return String.valueOf(communityNumber[postalCommunity[postal]]);
+    }
+
+    @Override
+    public String toString() {
+      return "PostalCommunity(zipCode=" + getZipCode() + ", zipCodeAddition="
+          + getZipCodeAddition() + ", name=" + getName() + ", politicalCommunityNumber="
+          + getPoliticalCommunityNumber() + ")";
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.BitSet;
+import java.util.function.Function;
+
+/**
+ * Predicate over the political communities of a model, evaluated by a
+ * {@link CommunityFilterIndex}. Predicates are combined with {@link #and(CommunityFilter)},
+ * {@link #or(CommunityFilter)} and {@link #not()}, e.g. the communities of ZH or BE updated after
+ * 2015 without a postal community:
+ *
+ * <pre>
+ * inCanton("ZH").or(inCanton("BE")).and(updatedAfter(2015)).and(withPostalCommunity().not())
+ * </pre>
+ *
+ * <p>Immutable, a filter can be evaluated by any index.
+ */
+public final class CommunityFilter {
+
+  // returns a bitmap of community positions the caller may modify
+  private final Function<CommunityFilterIndex, BitSet> bits;
+
+  private CommunityFilter(Function<CommunityFilterIndex, BitSet> bits) {
+    this.bits = bits;
+  }
+
+  /**
+   * Matches every political community.
+   */
+  public static CommunityFilter all() {
+    return new CommunityFilter(CommunityFilterIndex::all);
+  }
+
+  /**
+   * Matches the political communities of the canton, the index throws an
+   * {@link IllegalArgumentException} if the canton is unknown.
+   *
+   * @param cantonCode code of a canton (e.g. ZH)
+   */
+  public static CommunityFilter inCanton(String cantonCode) {
+    return new CommunityFilter(index -> index.canton(cantonCode));
+  }
+
+  /**
+   * Matches the political communities of the district, the index throws an
+   * {@link IllegalArgumentException} if the district is unknown.
+   *
+   * @param districtNumber number of a district (e.g. 101)
+   */
+  public static CommunityFilter inDistrict(String districtNumber) {
+    return new CommunityFilter(index -> index.district(districtNumber));
+  }
+
+  /**
+   * Matches the political communities last updated in a year of the range.
+   *
+   * @param fromYear first year of the range
+   * @param toYear last year of the range, included
+   */
+  public static CommunityFilter updatedBetween(int fromYear, int toYear) {
+    return new CommunityFilter(index -> index.updated(fromYear, toYear));
+  }
+
+  /**
+   * Matches the political communities last updated after the year.
+   *
+   * @param year last year not matched (e.g. 2015 for updates since 2016)
+   */
+  public static CommunityFilter updatedAfter(int year) {
+    return new CommunityFilter(index -> index.updatedAfter(year));
+  }
+
+  /**
+   * Matches the political communities having at least one postal community.
+   */
+  public static CommunityFilter withPostalCommunity() {
+    return new CommunityFilter(CommunityFilterIndex::withPostalCommunity);
+  }
+
+  /**
+   * Matches the political communities matched by both filters.
+   */
+  public CommunityFilter and(CommunityFilter other) {
+    return new CommunityFilter(index -> {
+      BitSet result = bits(index);
+      result.and(other.bits(index));
+      return result;
+    });
+  }
+
+  /**
+   * Matches the political communities matched by either filter.
+   */
+  public CommunityFilter or(CommunityFilter other) {
+    return new CommunityFilter(index -> {
+      BitSet result = bits(index);
+      result.or(other.bits(index));
+      return result;
+    });
+  }
+
+  /**
+   * Matches the political communities this filter doesn't match.
+   */
+  public CommunityFilter not() {
+    return new CommunityFilter(index -> {
+      BitSet result = bits(index);
+      result.flip(0, index.size());
+      return result;
+    });
+  }
+
+  /**
+   * Returns the positions in the index of the matched political communities, in a bitmap owned
+   * by the caller.
+   */
+  BitSet bits(CommunityFilterIndex index) {
+    return bits.apply(index);
+  }
+}
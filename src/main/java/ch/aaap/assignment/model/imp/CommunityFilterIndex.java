@@ -0,0 +1,197 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Evaluates {@link CommunityFilter}s over the political communities of a model.
+ *
+ * <p>The political communities are numbered by their position in ascending number order, and
+ * every canton, district, year of last update and the presence of a postal community has the
+ * bitmap of the positions it matches. A filter is evaluated by combining the bitmaps of its
+ * predicates word by word, 64 political communities at a time, so a report over combined
+ * predicates never reads a political community it doesn't return.
+ *
+ * <p>Immutable and thread safe, build a new index when the model changes.
+ */
+public final class CommunityFilterIndex {
+
+  private static final Comparator<String> BY_NUMBER =
+      Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+  private final PoliticalCommunity[] politicalCommunities;
+  private final Map<String, BitSet> byCanton;
+  private final Map<String, BitSet> byDistrict;
+  private final TreeMap<Integer, BitSet> byYear;
+  private final BitSet withPostalCommunity;
+
+  private CommunityFilterIndex(PoliticalCommunity[] politicalCommunities,
+      Map<String, BitSet> byCanton, Map<String, BitSet> byDistrict, TreeMap<Integer, BitSet> byYear,
+      BitSet withPostalCommunity) {
+    this.politicalCommunities = politicalCommunities;
+    this.byCanton = byCanton;
+    this.byDistrict = byDistrict;
+    this.byYear = byYear;
+    this.withPostalCommunity = withPostalCommunity;
+  }
+
+  /**
+   * Indexes the political communities of the model.
+   */
+  public static CommunityFilterIndex of(Model model) {
+    PoliticalCommunity[] politicalCommunities = model.getPoliticalCommunities().stream()
+        .sorted(Comparator.comparing(PoliticalCommunity::getNumber, BY_NUMBER))
+        .toArray(PoliticalCommunity[]::new);
+    Map<String, Integer> positions = new HashMap<>();
+    TreeMap<Integer, BitSet> byYear = new TreeMap<>();
+    for (int i = 0; i < politicalCommunities.length; i++) {
+      positions.put(politicalCommunities[i].getNumber(), i);
+      byYear.computeIfAbsent(politicalCommunities[i].getLastUpdate().getYear(),
+          year -> new BitSet(politicalCommunities.length)).set(i);
+    }
+    BitSet withPostalCommunity = new BitSet(politicalCommunities.length);
+    withPostalCommunity.set(0, politicalCommunities.length);
+    withPostalCommunity.andNot(
+        bits(model.getPoliticalCommunitiesWithoutPostalCommunity(), positions));
+    return new CommunityFilterIndex(politicalCommunities,
+        groups(model.getPoliticalCommunitiesByCanton(), positions),
+        groups(model.getPoliticalCommunitiesByDistrict(), positions), byYear,
+        withPostalCommunity);
+  }
+
+  /**
+   * Returns the amount of political communities matched by the filter.
+   *
+   * @throws IllegalArgumentException if the filter refers to an unknown canton or district
+   */
+  public int count(CommunityFilter filter) {
+    return filter.bits(this).cardinality();
+  }
+
+  /**
+   * Returns the political communities matched by the filter, iterated in ascending number order.
+   * The set is a view over the evaluated bitmap: iterating it creates no entity.
+   *
+   * @throws IllegalArgumentException if the filter refers to an unknown canton or district
+   */
+  public Set<PoliticalCommunity> filter(CommunityFilter filter) {
+    return new BitSetView(filter.bits(this));
+  }
+
+  /**
+   * Returns the amount of political communities indexed.
+   */
+  int size() {
+    return politicalCommunities.length;
+  }
+
+  BitSet all() {
+    BitSet result = new BitSet(politicalCommunities.length);
+    result.set(0, politicalCommunities.length);
+    return result;
+  }
+
+  BitSet canton(String cantonCode) {
+    BitSet canton = byCanton.get(cantonCode);
+    if (canton == null) {
+      throw new IllegalArgumentException(String.format("Can't find canton %s", cantonCode));
+    }
+    return (BitSet) canton.clone();
+  }
+
+  BitSet district(String districtNumber) {
+    BitSet district = byDistrict.get(districtNumber);
+    if (district == null) {
+      throw new IllegalArgumentException(String.format("Can't find district %s", districtNumber));
+    }
+    return (BitSet) district.clone();
+  }
+
+  BitSet updated(int fromYear, int toYear) {
+    BitSet result = new BitSet(politicalCommunities.length);
+    if (fromYear <= toYear) {
+      for (BitSet year : byYear.subMap(fromYear, true, toYear, true).values()) {
+        result.or(year);
+      }
+    }
+    return result;
+  }
+
+  BitSet updatedAfter(int year) {
+    BitSet result = new BitSet(politicalCommunities.length);
+    for (BitSet later : byYear.tailMap(year, false).values()) {
+      result.or(later);
+    }
+    return result;
+  }
+
+  BitSet withPostalCommunity() {
+    return (BitSet) withPostalCommunity.clone();
+  }
+
+  private static Map<String, BitSet> groups(Map<String, Set<PoliticalCommunity>> groups,
+      Map<String, Integer> positions) {
+    Map<String, BitSet> result = new HashMap<>();
+    groups.forEach((key, group) -> result.put(key, bits(group, positions)));
+    return Map.copyOf(result);
+  }
+
+  private static BitSet bits(Set<PoliticalCommunity> politicalCommunities,
+      Map<String, Integer> positions) {
+    BitSet result = new BitSet(positions.size());
+    for (PoliticalCommunity politicalCommunity : politicalCommunities) {
+      result.set(positions.get(politicalCommunity.getNumber()));
+    }
+    return result;
+  }
+
+  /**
+   * Immutable set view of the political communities at the positions of a bitmap.
+   */
+  private final class BitSetView extends AbstractSet<PoliticalCommunity> {
+
+    private final BitSet bits;
+    private final int size;
+
+    private BitSetView(BitSet bits) {
+      this.bits = bits;
+      this.size = bits.cardinality();
+    }
+
+    @Override
+    public Iterator<PoliticalCommunity> iterator() {
+      return new Iterator<>() {
+        private int next = bits.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public PoliticalCommunity next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          PoliticalCommunity politicalCommunity = politicalCommunities[next];
+          next = bits.nextSetBit(next + 1);
+          return politicalCommunity;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
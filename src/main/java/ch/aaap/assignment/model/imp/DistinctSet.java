@@ -0,0 +1,71 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Immutable set view of the distinct elements of a sequence of non-null elements, in the order
+ * they first appear. The sequence is read again on each iteration, the size is counted on first
+ * use.
+ */
+final class DistinctSet<T> extends AbstractSet<T> {
+
+  private final Supplier<Iterator<T>> elements;
+  // -1 until counted, an immutable sequence always counts the same
+  private int size = -1;
+
+  DistinctSet(Supplier<Iterator<T>> elements) {
+    this.elements = elements;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    Iterator<T> all = elements.get();
+    Set<T> seen = new HashSet<>();
+    return new Iterator<>() {
+      private T next = advance();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public T next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        T current = next;
+        next = advance();
+        return current;
+      }
+
+      private T advance() {
+        while (all.hasNext()) {
+          T element = all.next();
+          if (seen.add(element)) {
+            return element;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    int count = size;
+    if (count < 0) {
+      count = 0;
+      for (Iterator<T> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+        count++;
+      }
+      size = count;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,39 @@
+package ch.aaap.assignment.model.imp;
+
+import java.time.LocalDate;
+import java.util.SortedMap;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Aggregates of the political communities of a canton or a district, see
+ * {@link ModelStatistics}.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class GroupStatistics {
+
+  private int politicalCommunities;
+  private int postalCommunities;
+  // distinct zip codes of the postal communities
+  private int zipCodes;
+  private int politicalCommunitiesWithoutPostalCommunity;
+  // null if the group has no political community
+  private LocalDate oldestLastUpdate;
+  private LocalDate latestLastUpdate;
+  // amount of political communities by year of last update, years without any left out
+  private SortedMap<Integer, Integer> lastUpdatesByYear;
+
+  /**
+   * Returns the share of the political communities without a postal community, 0 if the group has
+   * no political community.
+   */
+  public double getShareWithoutPostalCommunity() {
+    return politicalCommunities == 0 ? 0
+        : (double) politicalCommunitiesWithoutPostalCommunity / politicalCommunities;
+  }
+}
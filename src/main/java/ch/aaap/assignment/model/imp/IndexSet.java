@@ -0,0 +1,47 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable set view of the elements at the indexes of a range, created on demand.
+ */
+final class IndexSet<T> extends AbstractSet<T> {
+
+  private final int start;
+  private final int end;
+  private final IntFunction<T> element;
+
+  IndexSet(int start, int end, IntFunction<T> element) {
+    this.start = start;
+    this.end = end;
+    this.element = element;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<>() {
+      private int next = start;
+
+      @Override
+      public boolean hasNext() {
+        return next < end;
+      }
+
+      @Override
+      public T next() {
+        if (next >= end) {
+          throw new NoSuchElementException();
+        }
+        return element.apply(next++);
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return end - start;
+  }
+}
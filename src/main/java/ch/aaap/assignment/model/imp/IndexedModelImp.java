@@ -0,0 +1,895 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Model that computes every grouping, entity and reverse map exactly once, in the constructor.
+ *
+ * <p>Contrary to {@link ModelImp}, which recomputes the relationships on every call, all the
+ * getters here return the same immutable instances, so a query never allocates. The returned
+ * collections are created with {@link Set#copyOf} / {@link Map#copyOf}, which are sized to their
+ * content, or are overlays of the changes of a delta over them. Zip code lookups go through the
+ * array-backed {@link ZipIndex}, zip code ranges through the sorted {@link ZipRangeIndex}, postal
+ * community names through the {@link PostalCommunityNameIndex}, which ignores case and
+ * diacritics. The links between cantons,
+ * districts, political communities and zip codes are followed through the {@link ModelGraph}.
+ *
+ * <p>The rows are kept grouped by key, so that {@link #apply(ModelDelta)} only computes again
+ * what a delta touches.
+ */
+public class IndexedModelImp implements Model {
+
+  private final Set<PoliticalCommunity> politicalCommunities;
+  private final Set<PostalCommunity> postalCommunities;
+  private final Set<Canton> cantons;
+  private final Set<District> districts;
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByCanton;
+  private final Map<String, Set<District>> districtsByCanton;
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict;
+  private final Set<PoliticalCommunity> politicalCommunitiesWithoutPostalCommunity;
+  private final ZipIndex zipIndex;
+  private final ZipRangeIndex zipRangeIndex;
+  private final PostalCommunityNameIndex postalCommunityNameIndex;
+  // counts indexed by canton code ordinal and by district number, 0 for unknown keys
+  private final int[] politicalCommunityCountByCanton;
+  private final int[] districtCountByCanton;
+  private final int[] politicalCommunityCountByDistrict;
+  // the rows and entities by key, kept to apply deltas
+  private final Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber;
+  private final Map<String, PoliticalCommunity> politicalCommunitiesByNumber;
+  private final Map<String, Canton> cantonsByCode;
+  private final Map<String, District> districtsByNumber;
+  private final PostalRows postalRows;
+  // patched by deltas, built again on first use once the patches outgrow it, a race builds it twice
+  private volatile ModelGraph graph;
+
+  /**
+   * Ctor. Builds all the indexes on the calling thread, the given sets are not retained (their
+   * rows are).
+   */
+  public IndexedModelImp(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    this(csvPoliticalCommunities, csvPostalCommunities, Runnable::run);
+  }
+
+  /**
+   * Ctor. Builds the indexes that don't depend on each other concurrently on the given executor
+   * and waits for all of them, the given sets are not retained (their rows are).
+   */
+  public IndexedModelImp(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities, Executor executor) {
+    final CompletableFuture<PoliticalTables> politicalTables = CompletableFuture
+        .supplyAsync(() -> new PoliticalTables(csvPoliticalCommunities), executor);
+    final CompletableFuture<Set<PostalCommunity>> postal = CompletableFuture
+        .supplyAsync(() -> postalCommunities(csvPostalCommunities), executor);
+    final CompletableFuture<ZipRangeIndex> zipRanges =
+        postal.thenApplyAsync(ZipRangeIndex::of, executor);
+    final CompletableFuture<PostalRows> rows = CompletableFuture
+        .supplyAsync(() -> PostalRows.of(csvPostalCommunities), executor);
+    // the postal indexes resolve the political communities of the postal rows
+    final CompletableFuture<ZipIndex> zip = politicalTables.thenApplyAsync(
+        tables -> zipIndex(csvPostalCommunities, tables.csvPoliticalCommunitiesByNumber),
+        executor);
+    final CompletableFuture<PostalCommunityNameIndex> names = politicalTables.thenApplyAsync(
+        tables -> nameIndex(csvPostalCommunities, tables.csvPoliticalCommunitiesByNumber),
+        executor);
+    final CompletableFuture<Set<PoliticalCommunity>> withoutPostal =
+        politicalTables.thenApplyAsync(tables -> withoutPostalCommunity(csvPostalCommunities,
+            tables.politicalCommunitiesByNumber), executor);
+    final CompletableFuture<ModelGraph> links = politicalTables.thenCombineAsync(postal,
+        (tables, postalSet) -> new ModelGraph(tables.csvPoliticalCommunitiesByNumber,
+            tables.politicalCommunitiesByNumber, tables.districtsByNumber, tables.cantonsByCode,
+            postalSet), executor);
+
+    PoliticalTables tables = join(politicalTables);
+    this.politicalCommunities = tables.politicalCommunities;
+    this.cantons = tables.cantons;
+    this.districts = tables.districts;
+    this.politicalCommunitiesByCanton = tables.politicalCommunitiesByCanton;
+    this.districtsByCanton = tables.districtsByCanton;
+    this.politicalCommunitiesByDistrict = tables.politicalCommunitiesByDistrict;
+    this.politicalCommunityCountByCanton = tables.politicalCommunityCountByCanton;
+    this.districtCountByCanton = tables.districtCountByCanton;
+    this.politicalCommunityCountByDistrict = tables.politicalCommunityCountByDistrict;
+    this.postalCommunities = join(postal);
+    this.zipRangeIndex = join(zipRanges);
+    this.zipIndex = join(zip);
+    this.postalCommunityNameIndex = join(names);
+    this.politicalCommunitiesWithoutPostalCommunity = join(withoutPostal);
+    this.csvPoliticalCommunitiesByNumber = tables.csvPoliticalCommunitiesByNumber;
+    this.politicalCommunitiesByNumber = tables.politicalCommunitiesByNumber;
+    this.cantonsByCode = tables.cantonsByCode;
+    this.districtsByNumber = tables.districtsByNumber;
+    this.postalRows = join(rows);
+    this.graph = join(links);
+  }
+
+  /**
+   * Ctor. Applies the delta to the rows of the base model, see {@link #apply(ModelDelta)}.
+   */
+  private IndexedModelImp(IndexedModelImp base, ModelDelta delta) {
+    OverlayMap.Editor<String, CSVPoliticalCommunity> csvEditor =
+        OverlayMap.edit(base.csvPoliticalCommunitiesByNumber);
+    // the changed political communities, with their rows before the change (null if added)
+    Map<String, CSVPoliticalCommunity> previousRows = new HashMap<>();
+    for (String number : delta.getRemovedPoliticalCommunityNumbers()) {
+      CSVPoliticalCommunity previous = csvEditor.get(number);
+      if (previous != null) {
+        previousRows.putIfAbsent(number, previous);
+        csvEditor.remove(number);
+      }
+    }
+    for (CSVPoliticalCommunity csvPoliticalCommunity : delta.getPoliticalCommunities()) {
+      String number = csvPoliticalCommunity.getNumber();
+      if (!previousRows.containsKey(number)) {
+        previousRows.put(number, csvEditor.get(number));
+      }
+      csvEditor.put(number, csvPoliticalCommunity);
+    }
+    Map<String, CSVPoliticalCommunity> csvByNumber = csvEditor.build();
+
+    // the changed political communities leave the groups of their previous row and join the ones
+    // of their new row
+    OverlayMap.Editor<String, PoliticalCommunity> byNumberEditor =
+        OverlayMap.edit(base.politicalCommunitiesByNumber);
+    Map<String, OverlaySet.Editor<PoliticalCommunity>> cantonGroups = new HashMap<>();
+    Map<String, OverlaySet.Editor<PoliticalCommunity>> districtGroups = new HashMap<>();
+    previousRows.forEach((number, previousRow) -> {
+      PoliticalCommunity previous = base.politicalCommunitiesByNumber.get(number);
+      if (previous != null) {
+        group(cantonGroups, base.politicalCommunitiesByCanton, previousRow.getCantonCode())
+            .remove(previous);
+        group(districtGroups, base.politicalCommunitiesByDistrict,
+            previousRow.getDistrictNumber()).remove(previous);
+      }
+      CSVPoliticalCommunity row = csvByNumber.get(number);
+      if (row == null) {
+        byNumberEditor.remove(number);
+        return;
+      }
+      PoliticalCommunity politicalCommunity = politicalCommunity(row);
+      byNumberEditor.put(number, politicalCommunity);
+      group(cantonGroups, base.politicalCommunitiesByCanton, row.getCantonCode())
+          .add(politicalCommunity);
+      group(districtGroups, base.politicalCommunitiesByDistrict, row.getDistrictNumber())
+          .add(politicalCommunity);
+    });
+    Map<String, PoliticalCommunity> byNumber = byNumberEditor.build();
+
+    this.csvPoliticalCommunitiesByNumber = csvByNumber;
+    this.politicalCommunitiesByNumber = byNumber;
+    this.politicalCommunities = values(base.politicalCommunities,
+        base.politicalCommunitiesByNumber, byNumber, previousRows.keySet());
+    this.politicalCommunitiesByCanton = regroup(base.politicalCommunitiesByCanton, cantonGroups);
+    this.politicalCommunitiesByDistrict =
+        regroup(base.politicalCommunitiesByDistrict, districtGroups);
+    Collection<CSVPoliticalCommunity> upserted = delta.getPoliticalCommunities();
+    Set<String> touchedCantons = cantonGroups.keySet();
+    Set<String> touchedDistricts = districtGroups.keySet();
+    this.cantonsByCode = entities(base.cantonsByCode, touchedCantons,
+        politicalCommunitiesByCanton, upserted, CSVPoliticalCommunity::getCantonCode,
+        IndexedModelImp::canton);
+    this.districtsByNumber = entities(base.districtsByNumber, touchedDistricts,
+        politicalCommunitiesByDistrict, upserted, CSVPoliticalCommunity::getDistrictNumber,
+        IndexedModelImp::district);
+    this.cantons = values(base.cantons, base.cantonsByCode, cantonsByCode, touchedCantons);
+    this.districts =
+        values(base.districts, base.districtsByNumber, districtsByNumber, touchedDistricts);
+    this.districtsByCanton = districtsByCanton(base.districtsByCanton, touchedCantons,
+        touchedDistricts, politicalCommunitiesByCanton, politicalCommunitiesByDistrict,
+        csvByNumber, base.districtsByNumber, districtsByNumber);
+
+    int[] communitiesByCanton = base.politicalCommunityCountByCanton.clone();
+    int[] districtsOfCanton = base.districtCountByCanton.clone();
+    for (String cantonCode : touchedCantons) {
+      int canton = ModelKeys.cantonCode(cantonCode);
+      if (canton != ModelKeys.NO_KEY) {
+        communitiesByCanton[canton] = size(politicalCommunitiesByCanton.get(cantonCode));
+        districtsOfCanton[canton] = size(districtsByCanton.get(cantonCode));
+      }
+    }
+    int[] communitiesByDistrict = Arrays.copyOf(base.politicalCommunityCountByDistrict,
+        Math.max(base.politicalCommunityCountByDistrict.length, touchedDistricts.stream()
+            .mapToInt(ModelKeys::digits).max().orElse(ModelKeys.NO_KEY) + 1));
+    for (String districtNumber : touchedDistricts) {
+      int district = ModelKeys.digits(districtNumber);
+      if (district != ModelKeys.NO_KEY) {
+        communitiesByDistrict[district] = size(politicalCommunitiesByDistrict.get(districtNumber));
+      }
+    }
+    this.politicalCommunityCountByCanton = communitiesByCanton;
+    this.districtCountByCanton = districtsOfCanton;
+    this.politicalCommunityCountByDistrict = communitiesByDistrict;
+
+    Set<CSVPostalCommunity> added = delta.getAddedPostalCommunities();
+    Set<CSVPostalCommunity> removed = delta.getRemovedPostalCommunities();
+    this.postalRows = base.postalRows.with(added, removed);
+    // a removed row only removes its postal community if no other row still holds it
+    OverlaySet.Editor<PostalCommunity> postal = OverlaySet.edit(base.postalCommunities);
+    Set<PostalCommunity> removedPostal = new HashSet<>();
+    for (CSVPostalCommunity csvPostalCommunity : removed) {
+      PostalCommunity postalCommunity = postalCommunity(csvPostalCommunity);
+      if (postal.contains(postalCommunity) && postalRows.ofPoliticalCommunity(
+          csvPostalCommunity.getPoliticalCommunityNumber()).stream()
+          .noneMatch(remaining -> postalCommunity(remaining).equals(postalCommunity))) {
+        postal.remove(postalCommunity);
+        removedPostal.add(postalCommunity);
+      }
+    }
+    List<PostalCommunity> addedPostal = new ArrayList<>();
+    for (CSVPostalCommunity csvPostalCommunity : added) {
+      PostalCommunity postalCommunity = postalCommunity(csvPostalCommunity);
+      if (!postal.contains(postalCommunity)) {
+        postal.add(postalCommunity);
+        addedPostal.add(postalCommunity);
+      }
+    }
+    this.postalCommunities = postal.build();
+    this.zipRangeIndex = base.zipRangeIndex.with(addedPostal, removedPostal);
+
+    // the postal rows whose zip code or name may resolve differently
+    Set<CSVPostalCommunity> touchedRows = new HashSet<>(added);
+    touchedRows.addAll(removed);
+    for (String number : previousRows.keySet()) {
+      touchedRows.addAll(postalRows.ofPoliticalCommunity(number));
+    }
+    Map<Integer, ZipDistribution> distributionsByZip = new HashMap<>();
+    Map<String, LocalDate> lastUpdateByNameKey = new HashMap<>();
+    for (CSVPostalCommunity touchedRow : touchedRows) {
+      int zip = ModelKeys.zipCode(touchedRow.getZipCode());
+      if (zip != ModelKeys.NO_KEY && !distributionsByZip.containsKey(zip)) {
+        // null once no resolvable row of the zip code is left
+        distributionsByZip.put(zip, ZipDistribution.of(postalRows.ofZipCode(zip), csvByNumber));
+      }
+      String nameKey = ModelKeys.name(touchedRow.getName());
+      if (!lastUpdateByNameKey.containsKey(nameKey)) {
+        // null once no row of the name is left
+        lastUpdateByNameKey.put(nameKey, lastUpdate(postalRows.ofName(nameKey), csvByNumber));
+      }
+    }
+    this.zipIndex = distributionsByZip.isEmpty() ? base.zipIndex
+        : base.zipIndex.with(distributionsByZip);
+    this.postalCommunityNameIndex = lastUpdateByNameKey.isEmpty() ? base.postalCommunityNameIndex
+        : base.postalCommunityNameIndex.with(lastUpdateByNameKey);
+
+    Set<String> touchedNumbers = new HashSet<>(previousRows.keySet());
+    touchedNumbers.addAll(keys(added, CSVPostalCommunity::getPoliticalCommunityNumber));
+    touchedNumbers.addAll(keys(removed, CSVPostalCommunity::getPoliticalCommunityNumber));
+    this.politicalCommunitiesWithoutPostalCommunity = withoutPostalCommunity(
+        base.politicalCommunitiesWithoutPostalCommunity, touchedNumbers,
+        base.politicalCommunitiesByNumber, byNumber, postalRows);
+
+    ModelGraph baseGraph = base.graph;
+    if (baseGraph == null || touchedNumbers.isEmpty() && touchedDistricts.isEmpty()) {
+      this.graph = baseGraph;
+    } else {
+      this.graph = baseGraph.with(csvByNumber, byNumber, districtsByNumber, cantonsByCode,
+          politicalCommunitiesByDistrict, postalRows, touchedNumbers, touchedDistricts,
+          distributionsByZip.keySet());
+    }
+  }
+
+  /**
+   * Returns the model of the rows of this model with the delta applied, equal to the model built
+   * from the updated rows. Only the groups, zip codes and names the delta touches are computed
+   * again, the others are shared with this model, which is left unchanged.
+   *
+   * <p>The maps and sets of the updated model are overlays of the changed entries over the ones
+   * of this model (see {@link OverlayMap}), and the links of the touched political communities,
+   * districts and zip codes are patched over the ones of this model (see {@link ModelGraph}). The
+   * cost is proportional to the size of the delta and the touched groups, plus the changes the
+   * overlays accumulated since they were last copied, at most an eighth of each map, so copying
+   * them is amortized over the deltas. Besides, the fixed-size count and zip code tables are
+   * cloned, and when postal rows change, the added postal communities are merged into the ones
+   * sorted by zip code in a single pass.
+   *
+   * @param delta changed rows
+   * @return the updated model
+   */
+  public IndexedModelImp apply(ModelDelta delta) {
+    return new IndexedModelImp(this, delta);
+  }
+
+  /**
+   * Returns the delta turning the rows of this model into the given rows.
+   */
+  ModelDelta deltaTo(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    ModelDelta.ModelDeltaBuilder delta = ModelDelta.builder();
+    Set<String> numbers = new HashSet<>(capacity(csvPoliticalCommunities.size()));
+    for (CSVPoliticalCommunity csvPoliticalCommunity : csvPoliticalCommunities) {
+      numbers.add(csvPoliticalCommunity.getNumber());
+      if (!csvPoliticalCommunity.equals(
+          csvPoliticalCommunitiesByNumber.get(csvPoliticalCommunity.getNumber()))) {
+        delta.politicalCommunity(csvPoliticalCommunity);
+      }
+    }
+    for (String number : csvPoliticalCommunitiesByNumber.keySet()) {
+      if (!numbers.contains(number)) {
+        delta.removedPoliticalCommunityNumber(number);
+      }
+    }
+    Set<CSVPostalCommunity> current = postalRows.all();
+    for (CSVPostalCommunity csvPostalCommunity : csvPostalCommunities) {
+      if (!current.remove(csvPostalCommunity)) {
+        delta.addedPostalCommunity(csvPostalCommunity);
+      }
+    }
+    return delta.removedPostalCommunities(current).build();
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunities() {
+    return politicalCommunities;
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunities() {
+    return postalCommunities;
+  }
+
+  @Override
+  public Set<Canton> getCantons() {
+    return cantons;
+  }
+
+  @Override
+  public Set<District> getDistricts() {
+    return districts;
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByCanton() {
+    return politicalCommunitiesByCanton;
+  }
+
+  @Override
+  public Map<String, Set<District>> getDistrictsByCanton() {
+    return districtsByCanton;
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByDistrict() {
+    return politicalCommunitiesByDistrict;
+  }
+
+  /**
+   * Returns the dominant district of the zip code, see {@link ZipDistribution}.
+   */
+  @Override
+  public String getDistrictByZipCode(String zipCode) {
+    String districtName = zipIndex.districtName(zipCode);
+    if (districtName == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return districtName;
+  }
+
+  @Override
+  public Set<String> getAllDistrictsByZipCode(String zipCode) {
+    Set<String> districtNames = zipIndex.districtNames(zipCode);
+    if (districtNames == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return districtNames;
+  }
+
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    return distribution(zipCode).districtShares();
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return politicalCommunitiesByNumber.get(distribution(zipCode).politicalCommunityNumber());
+  }
+
+  /**
+   * Binary searches the bounds in the postal communities sorted by zip code and returns a view of
+   * the postal communities between them.
+   */
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    return zipRangeIndex.postalCommunities(ModelKeys.checkedZipCode(fromZipCode),
+        ModelKeys.checkedZipCode(toZipCode));
+  }
+
+  /**
+   * Returns a view of the districts of the zip codes between the binary searched bounds, see
+   * {@link #getPostalCommunitiesByZipCodeRange(String, String)}.
+   */
+  @Override
+  public Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    return zipRangeIndex.districtNames(ModelKeys.checkedZipCode(fromZipCode),
+        ModelKeys.checkedZipCode(toZipCode), zipIndex);
+  }
+
+  /**
+   * Contrary to {@link ModelImp}, the name is matched ignoring case and diacritics.
+   */
+  @Override
+  public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
+    LocalDate lastUpdate = postalCommunityNameIndex.lastUpdate(postalCommunityName);
+    if (lastUpdate == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for name %s", postalCommunityName));
+    }
+    return lastUpdate;
+  }
+
+  /**
+   * Resolves the zip codes in ascending order, so the zip index is read in a single forward pass
+   * and repeated zip codes are resolved once.
+   */
+  @Override
+  public String[] getDistrictsByZipCodes(String[] zipCodes) {
+    int[] zips = new int[zipCodes.length];
+    for (int i = 0; i < zipCodes.length; i++) {
+      zips[i] = ModelKeys.zipCode(zipCodes[i]);
+    }
+    String[] districtNames = new String[zipCodes.length];
+    int previousZip = ModelKeys.NO_KEY;
+    String previousDistrictName = null;
+    for (int position : ModelKeys.sortedPositions(zips)) {
+      if (zips[position] != previousZip) {
+        previousZip = zips[position];
+        previousDistrictName = zipIndex.districtName(previousZip);
+      }
+      districtNames[position] = previousDistrictName;
+    }
+    return districtNames;
+  }
+
+  @Override
+  public LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    LocalDate[] lastUpdates = new LocalDate[postalCommunityNames.length];
+    for (int i = 0; i < postalCommunityNames.length; i++) {
+      if (postalCommunityNames[i] != null) {
+        lastUpdates[i] = postalCommunityNameIndex.lastUpdate(postalCommunityNames[i]);
+      }
+    }
+    return lastUpdates;
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity() {
+    return politicalCommunitiesWithoutPostalCommunity;
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByCanton(String cantonCode) {
+    return count(politicalCommunityCountByCanton, ModelKeys.cantonCode(cantonCode), "canton",
+        cantonCode);
+  }
+
+  @Override
+  public int countDistrictsByCanton(String cantonCode) {
+    return count(districtCountByCanton, ModelKeys.cantonCode(cantonCode), "canton", cantonCode);
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    return count(politicalCommunityCountByDistrict, ModelKeys.digits(districtNumber), "district",
+        districtNumber);
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    return graph().postalCommunities(politicalCommunityNumber);
+  }
+
+  @Override
+  public Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    return graph().zipCodes(politicalCommunityNumber);
+  }
+
+  @Override
+  public District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    return graph().district(politicalCommunityNumber);
+  }
+
+  @Override
+  public Canton getCantonByDistrict(String districtNumber) {
+    return graph().canton(districtNumber);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    return graph().politicalCommunities(zipCode);
+  }
+
+  @Override
+  public Set<Canton> getCantonsByZipCode(String zipCode) {
+    return graph().cantons(zipCode);
+  }
+
+  private ModelGraph graph() {
+    ModelGraph links = graph;
+    if (links == null) {
+      links = new ModelGraph(csvPoliticalCommunitiesByNumber, politicalCommunitiesByNumber,
+          districtsByNumber, cantonsByCode, postalCommunities);
+      graph = links;
+    }
+    return links;
+  }
+
+  private static Set<PostalCommunity> postalCommunities(
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    Set<PostalCommunity> postal = new HashSet<>(capacity(csvPostalCommunities.size()));
+    for (CSVPostalCommunity csvPostalCommunity : csvPostalCommunities) {
+      postal.add(postalCommunity(csvPostalCommunity));
+    }
+    return Set.copyOf(postal);
+  }
+
+  private static ZipIndex zipIndex(Set<CSVPostalCommunity> csvPostalCommunities,
+      Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber) {
+    // postal rows pointing to an unknown political community have nothing to resolve
+    return ZipIndex.of(
+        ZipDistribution.byZipCode(csvPostalCommunities, csvPoliticalCommunitiesByNumber));
+  }
+
+  private static PostalCommunityNameIndex nameIndex(Set<CSVPostalCommunity> csvPostalCommunities,
+      Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber) {
+    PostalCommunityNameIndex.Builder builder = PostalCommunityNameIndex.builder();
+    for (CSVPostalCommunity csvPostalCommunity : csvPostalCommunities) {
+      CSVPoliticalCommunity csvPoliticalCommunity =
+          csvPoliticalCommunitiesByNumber.get(csvPostalCommunity.getPoliticalCommunityNumber());
+      if (csvPoliticalCommunity != null) {
+        builder.add(csvPostalCommunity.getName(), csvPoliticalCommunity.getLastUpdate());
+      }
+    }
+    return builder.build();
+  }
+
+  private static Set<PoliticalCommunity> withoutPostalCommunity(
+      Set<CSVPostalCommunity> csvPostalCommunities,
+      Map<String, PoliticalCommunity> politicalCommunitiesByNumber) {
+    Set<String> politicalCommunityNumbersWithPostalCommunity = new HashSet<>();
+    for (CSVPostalCommunity csvPostalCommunity : csvPostalCommunities) {
+      politicalCommunityNumbersWithPostalCommunity
+          .add(csvPostalCommunity.getPoliticalCommunityNumber());
+    }
+    Set<PoliticalCommunity> withoutPostal = new HashSet<>();
+    politicalCommunitiesByNumber.forEach((number, politicalCommunity) -> {
+      if (!politicalCommunityNumbersWithPostalCommunity.contains(number)) {
+        withoutPostal.add(politicalCommunity);
+      }
+    });
+    return Set.copyOf(withoutPostal);
+  }
+
+  private static Set<PoliticalCommunity> withoutPostalCommunity(
+      Set<PoliticalCommunity> withoutPostalCommunity, Set<String> touchedNumbers,
+      Map<String, PoliticalCommunity> previousByNumber, Map<String, PoliticalCommunity> byNumber,
+      PostalRows postalRows) {
+    OverlaySet.Editor<PoliticalCommunity> updated = OverlaySet.edit(withoutPostalCommunity);
+    for (String number : touchedNumbers) {
+      PoliticalCommunity previous = previousByNumber.get(number);
+      if (previous != null) {
+        updated.remove(previous);
+      }
+      if (byNumber.containsKey(number) && postalRows.ofPoliticalCommunity(number).isEmpty()) {
+        updated.add(byNumber.get(number));
+      }
+    }
+    return updated.build();
+  }
+
+  /**
+   * Returns the entities with the ones of the touched keys replaced by the ones of the updated
+   * map.
+   */
+  private static <T> Set<T> values(Set<T> values, Map<String, T> previousByKey,
+      Map<String, T> byKey, Set<String> touchedKeys) {
+    OverlaySet.Editor<T> updated = OverlaySet.edit(values);
+    for (String touchedKey : touchedKeys) {
+      T previous = previousByKey.get(touchedKey);
+      T value = byKey.get(touchedKey);
+      if (!Objects.equals(previous, value)) {
+        if (previous != null) {
+          updated.remove(previous);
+        }
+        if (value != null) {
+          updated.add(value);
+        }
+      }
+    }
+    return updated.build();
+  }
+
+  /**
+   * Returns the edited group of the key, starting from the group of the base model.
+   */
+  private static <T> OverlaySet.Editor<T> group(Map<String, OverlaySet.Editor<T>> edited,
+      Map<String, Set<T>> groups, String key) {
+    return edited.computeIfAbsent(key, k -> OverlaySet.edit(groups.getOrDefault(k, Set.of())));
+  }
+
+  /**
+   * Returns the groups with the edited ones replaced, and removed once empty.
+   */
+  private static <T> Map<String, Set<T>> regroup(Map<String, Set<T>> groups,
+      Map<String, OverlaySet.Editor<T>> edited) {
+    OverlayMap.Editor<String, Set<T>> regrouped = OverlayMap.edit(groups);
+    edited.forEach((key, group) -> {
+      if (group.isEmpty()) {
+        regrouped.remove(key);
+      } else {
+        regrouped.put(key, group.build());
+      }
+    });
+    return regrouped.build();
+  }
+
+  /**
+   * Returns the cantons or districts with the touched ones removed if they have no political
+   * community left, and the ones of the changed rows taken from these rows.
+   */
+  private static <T> Map<String, T> entities(Map<String, T> entities, Set<String> touchedKeys,
+      Map<String, ?> groups, Collection<CSVPoliticalCommunity> upserted,
+      Function<CSVPoliticalCommunity, String> key, Function<CSVPoliticalCommunity, T> entity) {
+    OverlayMap.Editor<String, T> updated = OverlayMap.edit(entities);
+    for (String touchedKey : touchedKeys) {
+      if (!groups.containsKey(touchedKey)) {
+        updated.remove(touchedKey);
+      }
+    }
+    for (CSVPoliticalCommunity csvPoliticalCommunity : upserted) {
+      updated.put(key.apply(csvPoliticalCommunity), entity.apply(csvPoliticalCommunity));
+    }
+    return updated.build();
+  }
+
+  /**
+   * Returns the districts of the cantons with, in the touched cantons, the touched districts
+   * replaced: a district is in a canton if any of its political communities is.
+   */
+  private static Map<String, Set<District>> districtsByCanton(
+      Map<String, Set<District>> districtsByCanton, Set<String> touchedCantons,
+      Set<String> touchedDistricts,
+      Map<String, Set<PoliticalCommunity>> politicalCommunitiesByCanton,
+      Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict,
+      Map<String, CSVPoliticalCommunity> csvByNumber, Map<String, District> previousByNumber,
+      Map<String, District> districtsByNumber) {
+    OverlayMap.Editor<String, Set<District>> updated = OverlayMap.edit(districtsByCanton);
+    for (String cantonCode : touchedCantons) {
+      if (!politicalCommunitiesByCanton.containsKey(cantonCode)) {
+        updated.remove(cantonCode);
+        continue;
+      }
+      OverlaySet.Editor<District> districts =
+          OverlaySet.edit(districtsByCanton.getOrDefault(cantonCode, Set.of()));
+      for (String districtNumber : touchedDistricts) {
+        District previous = previousByNumber.get(districtNumber);
+        if (previous != null) {
+          districts.remove(previous);
+        }
+        if (politicalCommunitiesByDistrict.getOrDefault(districtNumber, Set.of()).stream()
+            .anyMatch(politicalCommunity -> cantonCode.equals(
+                csvByNumber.get(politicalCommunity.getNumber()).getCantonCode()))) {
+          districts.add(districtsByNumber.get(districtNumber));
+        }
+      }
+      updated.put(cantonCode, districts.build());
+    }
+    return updated.build();
+  }
+
+  private static LocalDate lastUpdate(Set<CSVPostalCommunity> csvPostalCommunities,
+      Map<String, CSVPoliticalCommunity> csvByNumber) {
+    LocalDate lastUpdate = null;
+    for (CSVPostalCommunity csvPostalCommunity : csvPostalCommunities) {
+      CSVPoliticalCommunity csvPoliticalCommunity =
+          csvByNumber.get(csvPostalCommunity.getPoliticalCommunityNumber());
+      if (csvPoliticalCommunity != null && (lastUpdate == null
+          || csvPoliticalCommunity.getLastUpdate().isAfter(lastUpdate))) {
+        lastUpdate = csvPoliticalCommunity.getLastUpdate();
+      }
+    }
+    return lastUpdate;
+  }
+
+  private static <T> Set<String> keys(Collection<T> rows, Function<T, String> key) {
+    Set<String> keys = new HashSet<>();
+    for (T row : rows) {
+      keys.add(key.apply(row));
+    }
+    return keys;
+  }
+
+  private static int size(Set<?> group) {
+    return group == null ? 0 : group.size();
+  }
+
+  /**
+   * Waits for the future, rethrowing the exception it failed with.
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private ZipDistribution distribution(String zipCode) {
+    ZipDistribution distribution = zipIndex.distribution(ModelKeys.zipCode(zipCode));
+    if (distribution == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return distribution;
+  }
+
+  private static int count(int[] counts, int index, String kind, String key) {
+    int count = index >= 0 && index < counts.length ? counts[index] : 0;
+    if (count == 0) {
+      throw new IllegalArgumentException(String.format("Can't find %s %s", kind, key));
+    }
+    return count;
+  }
+
+  private static int[] cantonCounts(Map<String, ? extends Set<?>> groupsByCanton) {
+    int[] counts = new int[ModelKeys.CANTON_CODES];
+    groupsByCanton.forEach((cantonCode, group) -> {
+      int canton = ModelKeys.cantonCode(cantonCode);
+      if (canton != ModelKeys.NO_KEY) {
+        counts[canton] = group.size();
+      }
+    });
+    return counts;
+  }
+
+  private static int[] districtCounts(Map<String, ? extends Set<?>> groupsByDistrict) {
+    int maxDistrict = groupsByDistrict.keySet().stream()
+        .mapToInt(ModelKeys::digits)
+        .max()
+        .orElse(ModelKeys.NO_KEY);
+    int[] counts = new int[maxDistrict + 1];
+    groupsByDistrict.forEach((districtNumber, group) -> {
+      int district = ModelKeys.digits(districtNumber);
+      if (district != ModelKeys.NO_KEY) {
+        counts[district] = group.size();
+      }
+    });
+    return counts;
+  }
+
+  private static <T> Map<String, Set<T>> immutableGroups(Map<String, Set<T>> groups) {
+    Map<String, Set<T>> copy = new HashMap<>(capacity(groups.size()));
+    groups.forEach((key, values) -> copy.put(key, Set.copyOf(values)));
+    return Map.copyOf(copy);
+  }
+
+  /**
+   * Initial capacity of a HashMap/HashSet holding the given amount of entries without rehashing.
+   */
+  private static int capacity(int expectedSize) {
+    return (int) (expectedSize / 0.75f) + 1;
+  }
+
+  private static District district(CSVPoliticalCommunity csvPoliticalCommunity) {
+    return DistrictImp.builder()
+        .name(csvPoliticalCommunity.getDistrictName())
+        .number(csvPoliticalCommunity.getDistrictNumber())
+        .build();
+  }
+
+  private static Canton canton(CSVPoliticalCommunity csvPoliticalCommunity) {
+    return CantonImp.builder()
+        .code(csvPoliticalCommunity.getCantonCode())
+        .name(csvPoliticalCommunity.getCantonName())
+        .build();
+  }
+
+  static PostalCommunity postalCommunity(CSVPostalCommunity csvPostalCommunity) {
+    return PostalCommunityImp.builder()
+        .name(csvPostalCommunity.getName())
+        .zipCode(csvPostalCommunity.getZipCode())
+        .zipCodeAddition(csvPostalCommunity.getZipCodeAddition())
+        .politicalCommunityNumber(csvPostalCommunity.getPoliticalCommunityNumber())
+        .build();
+  }
+
+  private static PoliticalCommunity politicalCommunity(
+      CSVPoliticalCommunity csvPoliticalCommunity) {
+    return PoliticalCommunityImp.builder()
+        .number(csvPoliticalCommunity.getNumber())
+        .name(csvPoliticalCommunity.getName())
+        .shortName(csvPoliticalCommunity.getShortName())
+        .lastUpdate(csvPoliticalCommunity.getLastUpdate())
+        .build();
+  }
+
+  /**
+   * Everything that can be computed from the political communities alone.
+   */
+  private static final class PoliticalTables {
+
+    private final Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber;
+    private final Map<String, PoliticalCommunity> politicalCommunitiesByNumber;
+    private final Map<String, Canton> cantonsByCode;
+    private final Map<String, District> districtsByNumber;
+    private final Set<PoliticalCommunity> politicalCommunities;
+    private final Set<Canton> cantons;
+    private final Set<District> districts;
+    private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByCanton;
+    private final Map<String, Set<District>> districtsByCanton;
+    private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict;
+    private final int[] politicalCommunityCountByCanton;
+    private final int[] districtCountByCanton;
+    private final int[] politicalCommunityCountByDistrict;
+
+    private PoliticalTables(Set<CSVPoliticalCommunity> csvPoliticalCommunities) {
+      Map<String, CSVPoliticalCommunity> csvByNumber =
+          new HashMap<>(capacity(csvPoliticalCommunities.size()));
+      Map<String, PoliticalCommunity> byNumber =
+          new HashMap<>(capacity(csvPoliticalCommunities.size()));
+      Map<String, Canton> cantonsByCode = new HashMap<>();
+      Map<String, District> districtsByNumber = new HashMap<>();
+      Map<String, Set<PoliticalCommunity>> byCanton = new HashMap<>();
+      Map<String, Set<District>> districtsOfCanton = new HashMap<>();
+      Map<String, Set<PoliticalCommunity>> byDistrict = new HashMap<>();
+
+      for (CSVPoliticalCommunity csvPoliticalCommunity : csvPoliticalCommunities) {
+        PoliticalCommunity politicalCommunity = politicalCommunity(csvPoliticalCommunity);
+        csvByNumber.put(csvPoliticalCommunity.getNumber(), csvPoliticalCommunity);
+        byNumber.put(politicalCommunity.getNumber(), politicalCommunity);
+        byCanton.computeIfAbsent(csvPoliticalCommunity.getCantonCode(), code -> new HashSet<>())
+            .add(politicalCommunity);
+
+        // the same canton and district appear on many rows: keep a single instance of each
+        cantonsByCode.computeIfAbsent(
+            csvPoliticalCommunity.getCantonCode(), code -> canton(csvPoliticalCommunity));
+        District district = districtsByNumber.computeIfAbsent(
+            csvPoliticalCommunity.getDistrictNumber(), number -> district(csvPoliticalCommunity));
+        districtsOfCanton.computeIfAbsent(csvPoliticalCommunity.getCantonCode(),
+            code -> new HashSet<>()).add(district);
+        byDistrict.computeIfAbsent(csvPoliticalCommunity.getDistrictNumber(),
+            number -> new HashSet<>()).add(politicalCommunity);
+      }
+
+      this.csvPoliticalCommunitiesByNumber = csvByNumber;
+      this.politicalCommunitiesByNumber = byNumber;
+      this.cantonsByCode = cantonsByCode;
+      this.districtsByNumber = districtsByNumber;
+      this.politicalCommunities = Set.copyOf(byNumber.values());
+      this.cantons = Set.copyOf(cantonsByCode.values());
+      this.districts = Set.copyOf(districtsByNumber.values());
+      this.politicalCommunitiesByCanton = immutableGroups(byCanton);
+      this.districtsByCanton = immutableGroups(districtsOfCanton);
+      this.politicalCommunitiesByDistrict = immutableGroups(byDistrict);
+      this.politicalCommunityCountByCanton = cantonCounts(politicalCommunitiesByCanton);
+      this.districtCountByCanton = cantonCounts(districtsByCanton);
+      this.politicalCommunityCountByDistrict = districtCounts(politicalCommunitiesByDistrict);
+    }
+  }
+}
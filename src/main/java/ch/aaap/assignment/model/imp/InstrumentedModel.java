@@ -0,0 +1,467 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Model decorator counting and timing the calls to each query of the model it wraps.
+ *
+ * <p>For each {@link Model} method it records the calls, the misses (an
+ * {@link IllegalArgumentException}, e.g. for an unknown zip code), the other exceptions, a
+ * {@link LatencyHistogram} of the durations and optionally the bytes allocated by the calling
+ * thread. Counters are striped ({@link java.util.concurrent.atomic.LongAdder}), so recording a call
+ * costs two {@code System.nanoTime()} calls and a few uncontended increments, without any lock.
+ *
+ * <p>The statistics are read with {@link #getStats(String)}, as a text table with {@link #dump()},
+ * or by JMX once {@link #register(String) registered}. Instrumentation is chosen with the system
+ * property {@value #PROPERTY} read by {@link #wrap(Model, String)}: when off, the default, the
+ * model is returned as it is and queries cost nothing more.
+ */
+public final class InstrumentedModel implements Model, InstrumentedModelMXBean {
+
+  /**
+   * System property enabling the instrumentation: {@code off} (the default), {@code on} or
+   * {@code allocations}, which also measures the bytes allocated by each query.
+   */
+  public static final String PROPERTY = "ch.aaap.assignment.instrumentation";
+
+  private static final String DOMAIN = "ch.aaap.assignment";
+
+  private final Model model;
+  private final boolean allocationTracking;
+  private final Map<String, QueryStats> stats = new LinkedHashMap<>();
+  private final List<ObjectName> registered = new ArrayList<>();
+
+  private final QueryStats politicalCommunities = stats("getPoliticalCommunities");
+  private final QueryStats postalCommunities = stats("getPostalCommunities");
+  private final QueryStats cantons = stats("getCantons");
+  private final QueryStats districts = stats("getDistricts");
+  private final QueryStats politicalCommunitiesByCanton = stats("getPoliticalCommunitiesByCanton");
+  private final QueryStats districtsByCanton = stats("getDistrictsByCanton");
+  private final QueryStats politicalCommunitiesByDistrict =
+      stats("getPoliticalCommunitiesByDistrict");
+  private final QueryStats districtByZipCode = stats("getDistrictByZipCode");
+  private final QueryStats lastUpdateByPostalCommunityName =
+      stats("getLastUpdateByPostalCommunityName");
+  private final QueryStats politicalCommunitiesWithoutPostalCommunity =
+      stats("getPoliticalCommunitiesWithoutPostalCommunity");
+  private final QueryStats allDistrictsByZipCode = stats("getAllDistrictsByZipCode");
+  private final QueryStats districtDistributionByZipCode =
+      stats("getDistrictDistributionByZipCode");
+  private final QueryStats politicalCommunityByZipCode = stats("getPoliticalCommunityByZipCode");
+  private final QueryStats countPoliticalCommunitiesByCanton =
+      stats("countPoliticalCommunitiesByCanton");
+  private final QueryStats countDistrictsByCanton = stats("countDistrictsByCanton");
+  private final QueryStats countPoliticalCommunitiesByDistrict =
+      stats("countPoliticalCommunitiesByDistrict");
+  private final QueryStats districtsByZipCodes = stats("getDistrictsByZipCodes");
+  private final QueryStats lastUpdatesByPostalCommunityNames =
+      stats("getLastUpdatesByPostalCommunityNames");
+  private final QueryStats postalCommunitiesByZipCodeRange =
+      stats("getPostalCommunitiesByZipCodeRange");
+  private final QueryStats postalCommunitiesByZipCodePrefix =
+      stats("getPostalCommunitiesByZipCodePrefix");
+  private final QueryStats districtsByZipCodeRange = stats("getDistrictsByZipCodeRange");
+  private final QueryStats districtsByZipCodePrefix = stats("getDistrictsByZipCodePrefix");
+  private final QueryStats postalCommunitiesByPoliticalCommunity =
+      stats("getPostalCommunitiesByPoliticalCommunity");
+  private final QueryStats zipCodesByPoliticalCommunity = stats("getZipCodesByPoliticalCommunity");
+  private final QueryStats districtByPoliticalCommunity = stats("getDistrictByPoliticalCommunity");
+  private final QueryStats cantonByDistrict = stats("getCantonByDistrict");
+  private final QueryStats politicalCommunitiesByZipCode =
+      stats("getPoliticalCommunitiesByZipCode");
+  private final QueryStats cantonsByZipCode = stats("getCantonsByZipCode");
+
+  /**
+   * Instruments the model.
+   *
+   * @param model model answering the queries
+   * @param allocationTracking whether to measure the bytes allocated by the queries, ignored if
+   *        the JVM can't measure them
+   */
+  public InstrumentedModel(Model model, boolean allocationTracking) {
+    this.model = model;
+    this.allocationTracking = allocationTracking && Allocations.THREADS != null;
+  }
+
+  /**
+   * Returns the model instrumented as set by the system property {@value #PROPERTY} and registered
+   * by JMX under the given name, or the model itself if instrumentation is off.
+   *
+   * @throws IllegalArgumentException if the property has another value
+   */
+  public static Model wrap(Model model, String name) {
+    String mode = System.getProperty(PROPERTY, "off");
+    switch (mode) {
+      case "off":
+        return model;
+      case "on":
+      case "allocations":
+        InstrumentedModel instrumented = new InstrumentedModel(model, "allocations".equals(mode));
+        instrumented.register(name);
+        return instrumented;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Unsupported %s %s", PROPERTY, mode));
+    }
+  }
+
+  /**
+   * Returns the wrapped model.
+   */
+  public Model getModel() {
+    return model;
+  }
+
+  /**
+   * Returns the statistics of a query.
+   *
+   * @param query name of the Model method, e.g. getDistrictByZipCode
+   * @throws IllegalArgumentException if the model has no such query
+   */
+  public QueryStats getStats(String query) {
+    QueryStats queryStats = stats.get(query);
+    if (queryStats == null) {
+      throw new IllegalArgumentException(String.format("Can't find query %s", query));
+    }
+    return queryStats;
+  }
+
+  /**
+   * Returns the statistics of every query, in the order of the Model methods.
+   */
+  public List<QueryStats> getStats() {
+    return Collections.unmodifiableList(new ArrayList<>(stats.values()));
+  }
+
+  @Override
+  public boolean isAllocationTracking() {
+    return allocationTracking;
+  }
+
+  @Override
+  public String dump() {
+    StringBuilder dump = new StringBuilder(String.format(
+        "%-46s %10s %8s %8s %10s %10s %10s %10s %12s%n", "query", "calls", "misses", "errors",
+        "mean us", "p50 us", "p99 us", "max us", "bytes/call"));
+    for (QueryStats queryStats : stats.values()) {
+      long calls = queryStats.getCalls();
+      if (calls > 0) {
+        dump.append(String.format("%-46s %10d %8d %8d %10.2f %10.2f %10.2f %10.2f %12s%n",
+            queryStats.getQuery(), calls, queryStats.getMisses(), queryStats.getErrors(),
+            queryStats.getMeanNanos() / 1_000, queryStats.getP50Nanos() / 1_000.0,
+            queryStats.getP99Nanos() / 1_000.0, queryStats.getMaxNanos() / 1_000.0,
+            allocationTracking ? String.valueOf(queryStats.getAllocatedBytes() / calls) : "-"));
+      }
+    }
+    return dump.toString();
+  }
+
+  @Override
+  public void reset() {
+    stats.values().forEach(QueryStats::reset);
+  }
+
+  /**
+   * Registers this model and the statistics of each query with the platform MBean server, as
+   * {@code ch.aaap.assignment:type=InstrumentedModel,name=<name>[,query=<query>]}. Beans already
+   * registered under these names are replaced.
+   *
+   * @throws IllegalArgumentException if the name is not valid in an ObjectName
+   */
+  public synchronized void register(String name) {
+    unregister();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String prefix = DOMAIN + ":type=InstrumentedModel,name=" + name;
+    try {
+      registerBean(server, new ObjectName(prefix), this);
+      for (QueryStats queryStats : stats.values()) {
+        registerBean(server, new ObjectName(prefix + ",query=" + queryStats.getQuery()),
+            queryStats);
+      }
+    } catch (JMException e) {
+      throw new IllegalArgumentException(String.format("Can't register %s", name), e);
+    }
+  }
+
+  /**
+   * Removes the beans of this model from the platform MBean server.
+   */
+  public synchronized void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName objectName : registered) {
+      try {
+        server.unregisterMBean(objectName);
+      } catch (JMException e) {
+        // already removed
+      }
+    }
+    registered.clear();
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunities() {
+    return call(politicalCommunities, () -> model.getPoliticalCommunities());
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunities() {
+    return call(postalCommunities, () -> model.getPostalCommunities());
+  }
+
+  @Override
+  public Set<Canton> getCantons() {
+    return call(cantons, () -> model.getCantons());
+  }
+
+  @Override
+  public Set<District> getDistricts() {
+    return call(districts, () -> model.getDistricts());
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByCanton() {
+    return call(politicalCommunitiesByCanton, () -> model.getPoliticalCommunitiesByCanton());
+  }
+
+  @Override
+  public Map<String, Set<District>> getDistrictsByCanton() {
+    return call(districtsByCanton, () -> model.getDistrictsByCanton());
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByDistrict() {
+    return call(politicalCommunitiesByDistrict, () -> model.getPoliticalCommunitiesByDistrict());
+  }
+
+  @Override
+  public String getDistrictByZipCode(String zipCode) {
+    return call(districtByZipCode, () -> model.getDistrictByZipCode(zipCode));
+  }
+
+  @Override
+  public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
+    return call(lastUpdateByPostalCommunityName,
+        () -> model.getLastUpdateByPostalCommunityName(postalCommunityName));
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity() {
+    return call(politicalCommunitiesWithoutPostalCommunity,
+        () -> model.getPoliticalCommunitiesWithoutPostalCommunity());
+  }
+
+  @Override
+  public Set<String> getAllDistrictsByZipCode(String zipCode) {
+    return call(allDistrictsByZipCode, () -> model.getAllDistrictsByZipCode(zipCode));
+  }
+
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    return call(districtDistributionByZipCode,
+        () -> model.getDistrictDistributionByZipCode(zipCode));
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return call(politicalCommunityByZipCode, () -> model.getPoliticalCommunityByZipCode(zipCode));
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByCanton(String cantonCode) {
+    return callInt(countPoliticalCommunitiesByCanton,
+        () -> model.countPoliticalCommunitiesByCanton(cantonCode));
+  }
+
+  @Override
+  public int countDistrictsByCanton(String cantonCode) {
+    return callInt(countDistrictsByCanton, () -> model.countDistrictsByCanton(cantonCode));
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    return callInt(countPoliticalCommunitiesByDistrict,
+        () -> model.countPoliticalCommunitiesByDistrict(districtNumber));
+  }
+
+  @Override
+  public String[] getDistrictsByZipCodes(String[] zipCodes) {
+    return call(districtsByZipCodes, () -> model.getDistrictsByZipCodes(zipCodes));
+  }
+
+  @Override
+  public LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    return call(lastUpdatesByPostalCommunityNames,
+        () -> model.getLastUpdatesByPostalCommunityNames(postalCommunityNames));
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    return call(postalCommunitiesByZipCodeRange,
+        () -> model.getPostalCommunitiesByZipCodeRange(fromZipCode, toZipCode));
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodePrefix(String zipCodePrefix) {
+    return call(postalCommunitiesByZipCodePrefix,
+        () -> model.getPostalCommunitiesByZipCodePrefix(zipCodePrefix));
+  }
+
+  @Override
+  public Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    return call(districtsByZipCodeRange,
+        () -> model.getDistrictsByZipCodeRange(fromZipCode, toZipCode));
+  }
+
+  @Override
+  public Set<String> getDistrictsByZipCodePrefix(String zipCodePrefix) {
+    return call(districtsByZipCodePrefix, () -> model.getDistrictsByZipCodePrefix(zipCodePrefix));
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    return call(postalCommunitiesByPoliticalCommunity,
+        () -> model.getPostalCommunitiesByPoliticalCommunity(politicalCommunityNumber));
+  }
+
+  @Override
+  public Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    return call(zipCodesByPoliticalCommunity,
+        () -> model.getZipCodesByPoliticalCommunity(politicalCommunityNumber));
+  }
+
+  @Override
+  public District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    return call(districtByPoliticalCommunity,
+        () -> model.getDistrictByPoliticalCommunity(politicalCommunityNumber));
+  }
+
+  @Override
+  public Canton getCantonByDistrict(String districtNumber) {
+    return call(cantonByDistrict, () -> model.getCantonByDistrict(districtNumber));
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    return call(politicalCommunitiesByZipCode,
+        () -> model.getPoliticalCommunitiesByZipCode(zipCode));
+  }
+
+  @Override
+  public Set<Canton> getCantonsByZipCode(String zipCode) {
+    return call(cantonsByZipCode, () -> model.getCantonsByZipCode(zipCode));
+  }
+
+  private QueryStats stats(String query) {
+    QueryStats queryStats = new QueryStats(query);
+    stats.put(query, queryStats);
+    return queryStats;
+  }
+
+  private <T> T call(QueryStats queryStats, Supplier<T> query) {
+    long bytes = allocationTracking ? Allocations.allocatedBytes() : 0;
+    long start = System.nanoTime();
+    try {
+      T result = query.get();
+      queryStats.record(System.nanoTime() - start, allocatedSince(bytes));
+      return result;
+    } catch (RuntimeException e) {
+      queryStats.record(System.nanoTime() - start, allocatedSince(bytes), e);
+      throw e;
+    }
+  }
+
+  private int callInt(QueryStats queryStats, IntSupplier query) {
+    long bytes = allocationTracking ? Allocations.allocatedBytes() : 0;
+    long start = System.nanoTime();
+    try {
+      int result = query.getAsInt();
+      queryStats.record(System.nanoTime() - start, allocatedSince(bytes));
+      return result;
+    } catch (RuntimeException e) {
+      queryStats.record(System.nanoTime() - start, allocatedSince(bytes), e);
+      throw e;
+    }
+  }
+
+  private long allocatedSince(long bytes) {
+    return allocationTracking ? Allocations.allocatedBytes() - bytes - Allocations.OVERHEAD : 0;
+  }
+
+  private void registerBean(MBeanServer server, ObjectName objectName, Object bean)
+      throws JMException {
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+    server.registerMBean(bean, objectName);
+    registered.add(objectName);
+  }
+
+  /**
+   * Measures the bytes allocated by the current thread. A holder initialized by the first
+   * instrumented model tracking allocations, so that the thread bean, the per thread allocation
+   * accounting and the calibration cost nothing while instrumentation is off.
+   */
+  private static final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    // bytes allocated by reading the allocated bytes, subtracted from each measure
+    private static final long OVERHEAD = allocationOverhead();
+
+    private static long allocatedBytes() {
+      return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the bean measuring the bytes allocated by each thread, null if the JVM can't.
+     */
+    private static com.sun.management.ThreadMXBean threads() {
+      try {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+          if (sunThreads.isThreadAllocatedMemorySupported()) {
+            sunThreads.setThreadAllocatedMemoryEnabled(true);
+            return sunThreads;
+          }
+        }
+      } catch (UnsupportedOperationException | SecurityException e) {
+        // not measured
+      }
+      return null;
+    }
+
+    /**
+     * Returns the bytes allocated by {@link #allocatedBytes()} itself, the least of a few tries.
+     */
+    private static long allocationOverhead() {
+      if (THREADS == null) {
+        return 0;
+      }
+      long overhead = Long.MAX_VALUE;
+      for (int i = 0; i < 16; i++) {
+        long before = allocatedBytes();
+        overhead = Math.min(overhead, allocatedBytes() - before);
+      }
+      return overhead;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package ch.aaap.assignment.model.imp;
+
+/**
+ * Operations of an {@link InstrumentedModel} exposed by JMX, next to the
+ * {@link QueryStatsMXBean} of each of its queries.
+ */
+public interface InstrumentedModelMXBean {
+
+  /**
+   * Tells whether the bytes allocated by the queries are measured.
+   */
+  boolean isAllocationTracking();
+
+  /**
+   * Returns a text table of the statistics of the queries called at least once.
+   */
+  String dump();
+
+  /**
+   * Forgets the calls recorded so far, for every query.
+   */
+  void reset();
+}
@@ -0,0 +1,121 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, with buckets of logarithmic size like an HDR histogram.
+ *
+ * <p>Each power of two is split into 8 buckets of equal width, so a percentile is known within
+ * 12.5%, from 1 ns up to about 2 hours, in a fixed amount of buckets. Recording a duration is a
+ * few bit operations and the increment of a {@link LongAdder}: concurrent recorders don't
+ * contend, and nothing is locked. Reading is not atomic: a percentile read while durations are
+ * recorded may miss the most recent ones.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // up to 2^43 ns
+  private static final int MAX_MAGNITUDE = 43;
+  static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a duration, negative ones as 0.
+   */
+  void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    buckets[bucket(value)].increment();
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the amount of durations recorded.
+   */
+  long count() {
+    long count = 0;
+    for (LongAdder bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the longest duration recorded, 0 if none.
+   */
+  long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns the duration the given percentage of the recorded durations are shorter than or equal
+   * to, as the upper bound of its bucket. 0 if none was recorded.
+   *
+   * @param percentile between 0 and 100
+   */
+  long percentile(double percentile) {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max());
+      }
+    }
+    return max();
+  }
+
+  /**
+   * Forgets the recorded durations.
+   */
+  void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    max.reset();
+  }
+
+  /**
+   * Returns the bucket of a duration: durations below 8 ns have a bucket each, the others the
+   * bucket of their highest bit and of the 3 bits following it.
+   */
+  static int bucket(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    int bucket = (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  /**
+   * Returns the longest duration of a bucket.
+   */
+  static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,729 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Model served directly off a {@link ModelSnapshot}, memory mapped from a file or held in a
+ * direct buffer.
+ *
+ * <p>Opening only reads the section sizes and the canton codes and district numbers keying the
+ * group maps, so startup doesn't depend on the amount of communities and processes mapping the
+ * same file share the page cache. Zip code, name and count lookups read the mapped indexes, and
+ * the navigation between entities follows the mapped links. Collections are immutable views over
+ * index ranges of the mapped tables, and their entities views over a record: a field is decoded
+ * when read. Strings stay UTF-8 encoded outside the heap: names are compared as bytes and only
+ * the ones a query reads are decoded. Only absolute reads are used, so the model can be queried
+ * concurrently.
+ */
+public class MappedModelImp implements Model {
+
+  private static final int INT = Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  // start of each section in the buffer
+  private final int stringCount;
+  private final int stringOffsets;
+  private final int stringData;
+  private final int cantonCount;
+  private final int cantons;
+  private final int districtCount;
+  private final int districts;
+  private final int communityCount;
+  private final int communities;
+  private final int postalCount;
+  private final int postal;
+  private final int zipOffsets;
+  private final int zipDistricts;
+  private final int zipDistrictShares;
+  private final int zipCommunities;
+  private final int nameCount;
+  private final int names;
+  private final int communityCountByCanton;
+  private final int districtCountByCanton;
+  private final int districtSlots;
+  private final int communityCountByDistrict;
+  private final int communityNumbers;
+  private final int communityIndexByNumber;
+  private final int districtNumbers;
+  private final int districtIndexByNumber;
+  // compressed sparse row links: offsets by source, then targets
+  private final int communityPostalOffsets;
+  private final int communityPostal;
+  private final int communityZipCodeOffsets;
+  private final int communityZipCodes;
+  private final int zipCommunityOffsets;
+  private final int zipCommunityIndexes;
+  private final int zipCantonOffsets;
+  private final int zipCantons;
+  private final int cantonCommunityOffsets;
+  private final int cantonCommunities;
+  private final int cantonDistrictOffsets;
+  private final int cantonDistricts;
+  private final int districtCommunityOffsets;
+  private final int districtCommunities;
+  private final int withoutPostalCommunity;
+  // keyed by the decoded canton codes and district numbers, the groups are views
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByCanton;
+  private final Map<String, Set<District>> districtsByCanton;
+  private final Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict;
+
+  /**
+   * Ctor. Reads the snapshot in the given buffer, which must not be modified afterwards.
+   */
+  MappedModelImp(ByteBuffer buffer) {
+    this.buffer = buffer;
+    if (buffer.getInt(0) != ModelSnapshot.MAGIC) {
+      throw new IllegalArgumentException("Not a model snapshot");
+    }
+    if (buffer.getInt(INT) != ModelSnapshot.VERSION) {
+      throw new IllegalArgumentException(
+          String.format("Unsupported model snapshot version %d", buffer.getInt(INT)));
+    }
+    int position = 2 * INT;
+    stringCount = buffer.getInt(position);
+    stringOffsets = position + INT;
+    stringData = stringOffsets + (stringCount + 1) * INT;
+    position = stringData + buffer.getInt(stringOffsets + stringCount * INT);
+
+    cantonCount = buffer.getInt(position);
+    cantons = position + INT;
+    position = cantons + cantonCount * ModelSnapshot.CANTON_RECORD_INTS * INT;
+
+    districtCount = buffer.getInt(position);
+    districts = position + INT;
+    position = districts + districtCount * ModelSnapshot.DISTRICT_RECORD_INTS * INT;
+
+    communityCount = buffer.getInt(position);
+    communities = position + INT;
+    position = communities + communityCount * ModelSnapshot.COMMUNITY_RECORD_INTS * INT;
+
+    postalCount = buffer.getInt(position);
+    postal = position + INT;
+    position = postal + postalCount * ModelSnapshot.POSTAL_RECORD_INTS * INT;
+
+    zipOffsets = position;
+    position = zipOffsets + (ModelKeys.ZIP_CODES + 1) * INT;
+    int zipDistrictCount = buffer.getInt(position);
+    zipDistricts = position + INT;
+    zipDistrictShares = zipDistricts + zipDistrictCount * INT;
+    zipCommunities = zipDistrictShares + zipDistrictCount * Double.BYTES;
+    position = zipCommunities + ModelKeys.ZIP_CODES * INT;
+
+    nameCount = buffer.getInt(position);
+    names = position + INT;
+    position = names + nameCount * ModelSnapshot.NAME_RECORD_INTS * INT;
+
+    communityCountByCanton = position;
+    districtCountByCanton = communityCountByCanton + ModelKeys.CANTON_CODES * INT;
+    position = districtCountByCanton + ModelKeys.CANTON_CODES * INT;
+    districtSlots = buffer.getInt(position);
+    communityCountByDistrict = position + INT;
+    position = communityCountByDistrict + districtSlots * INT;
+
+    communityNumbers = buffer.getInt(position);
+    communityIndexByNumber = position + INT;
+    position = communityIndexByNumber + communityNumbers * INT;
+    districtNumbers = buffer.getInt(position);
+    districtIndexByNumber = position + INT;
+    position = districtIndexByNumber + districtNumbers * INT;
+
+    communityPostalOffsets = position;
+    communityPostal = targets(communityPostalOffsets, communityCount);
+    communityZipCodeOffsets = end(communityPostal);
+    communityZipCodes = targets(communityZipCodeOffsets, communityCount);
+    zipCommunityOffsets = end(communityZipCodes);
+    zipCommunityIndexes = targets(zipCommunityOffsets, ModelKeys.ZIP_CODES);
+    zipCantonOffsets = end(zipCommunityIndexes);
+    zipCantons = targets(zipCantonOffsets, ModelKeys.ZIP_CODES);
+    cantonCommunityOffsets = end(zipCantons);
+    cantonCommunities = targets(cantonCommunityOffsets, cantonCount);
+    cantonDistrictOffsets = end(cantonCommunities);
+    cantonDistricts = targets(cantonDistrictOffsets, cantonCount);
+    districtCommunityOffsets = end(cantonDistricts);
+    districtCommunities = targets(districtCommunityOffsets, districtCount);
+    withoutPostalCommunity = end(districtCommunities) + INT;
+
+    Map<String, Set<PoliticalCommunity>> byCanton = new HashMap<>();
+    Map<String, Set<District>> districtsOfCanton = new HashMap<>();
+    for (int canton = 0; canton < cantonCount; canton++) {
+      String code = string(cantonField(canton, 0));
+      byCanton.put(code,
+          linked(cantonCommunityOffsets, cantonCommunities, canton, CommunityView::new));
+      districtsOfCanton.put(code,
+          linked(cantonDistrictOffsets, cantonDistricts, canton, DistrictView::new));
+    }
+    Map<String, Set<PoliticalCommunity>> byDistrict = new HashMap<>();
+    for (int district = 0; district < districtCount; district++) {
+      byDistrict.put(string(districtField(district, 0)),
+          linked(districtCommunityOffsets, districtCommunities, district, CommunityView::new));
+    }
+    politicalCommunitiesByCanton = Map.copyOf(byCanton);
+    districtsByCanton = Map.copyOf(districtsOfCanton);
+    politicalCommunitiesByDistrict = Map.copyOf(byDistrict);
+  }
+
+  /**
+   * Returns the start of the targets of a links section.
+   */
+  private static int targets(int offsets, int sources) {
+    return offsets + (sources + 1) * INT + INT;
+  }
+
+  /**
+   * Returns the end of the targets of a links section, preceded by their count.
+   */
+  private int end(int targets) {
+    return targets + buffer.getInt(targets - INT) * INT;
+  }
+
+  /**
+   * Maps the snapshot file read only.
+   */
+  public static MappedModelImp open(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid once the channel is closed
+      return new MappedModelImp(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Could not map snapshot %s", file), e);
+    }
+  }
+
+  /**
+   * Writes the snapshot of the model built from the given rows to a direct buffer: the tables,
+   * strings and indexes are held outside the heap, where the garbage collector neither scans nor
+   * copies them. The heap only holds this instance with its group maps, and the views the queries
+   * return.
+   */
+  public static MappedModelImp offHeap(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try {
+      ModelSnapshot.write(csvPoliticalCommunities, csvPostalCommunities, os);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write snapshot", e);
+    }
+    byte[] snapshot = os.toByteArray();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(snapshot.length);
+    buffer.put(snapshot);
+    return new MappedModelImp(buffer);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunities() {
+    return new IndexSet<>(0, communityCount, CommunityView::new);
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunities() {
+    return new IndexSet<>(0, postalCount, PostalView::new);
+  }
+
+  @Override
+  public Set<Canton> getCantons() {
+    return new IndexSet<>(0, cantonCount, CantonView::new);
+  }
+
+  @Override
+  public Set<District> getDistricts() {
+    return new IndexSet<>(0, districtCount, DistrictView::new);
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByCanton() {
+    return politicalCommunitiesByCanton;
+  }
+
+  @Override
+  public Map<String, Set<District>> getDistrictsByCanton() {
+    return districtsByCanton;
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByDistrict() {
+    return politicalCommunitiesByDistrict;
+  }
+
+  @Override
+  public String getDistrictByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    return string(buffer.getInt(zipDistricts + buffer.getInt(zipOffsets + zip * INT) * INT));
+  }
+
+  /**
+   * Reads the first district of each zip code off the zip index, without the exception an unknown
+   * zip code costs the single lookup.
+   */
+  @Override
+  public String[] getDistrictsByZipCodes(String[] zipCodes) {
+    String[] districts = new String[zipCodes.length];
+    for (int i = 0; i < zipCodes.length; i++) {
+      int zip = indexedZip(zipCodes[i]);
+      if (zip != ModelKeys.NO_KEY) {
+        districts[i] =
+            string(buffer.getInt(zipDistricts + buffer.getInt(zipOffsets + zip * INT) * INT));
+      }
+    }
+    return districts;
+  }
+
+  @Override
+  public Set<String> getAllDistrictsByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    int start = buffer.getInt(zipOffsets + zip * INT);
+    int end = buffer.getInt(zipOffsets + (zip + 1) * INT);
+    Set<String> districtNames = new HashSet<>();
+    for (int i = start; i < end; i++) {
+      districtNames.add(string(buffer.getInt(zipDistricts + i * INT)));
+    }
+    return districtNames;
+  }
+
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    int zip = zip(zipCode);
+    int start = buffer.getInt(zipOffsets + zip * INT);
+    int end = buffer.getInt(zipOffsets + (zip + 1) * INT);
+    Map<String, Double> shares = new LinkedHashMap<>();
+    for (int i = start; i < end; i++) {
+      shares.merge(string(buffer.getInt(zipDistricts + i * INT)),
+          buffer.getDouble(zipDistrictShares + i * Double.BYTES), Double::sum);
+    }
+    return shares;
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return new CommunityView(buffer.getInt(zipCommunities + zip(zipCode) * INT));
+  }
+
+  /**
+   * Binary search of the bounds in the postal table, which is sorted by zip code.
+   */
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    ModelKeys.checkedZipCode(fromZipCode);
+    ModelKeys.checkedZipCode(toZipCode);
+    int start = postalBound(fromZipCode.getBytes(StandardCharsets.US_ASCII), false);
+    int end = Math.max(start, postalBound(toZipCode.getBytes(StandardCharsets.US_ASCII), true));
+    return new IndexSet<>(start, end, PostalView::new);
+  }
+
+  /**
+   * The districts of consecutive zip codes are contiguous in the zip index.
+   */
+  @Override
+  public Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    int start = buffer.getInt(zipOffsets + ModelKeys.checkedZipCode(fromZipCode) * INT);
+    int end = buffer.getInt(zipOffsets + (ModelKeys.checkedZipCode(toZipCode) + 1) * INT);
+    Set<String> districtNames = new LinkedHashSet<>();
+    for (int i = start; i < end; i++) {
+      districtNames.add(string(buffer.getInt(zipDistricts + i * INT)));
+    }
+    return districtNames;
+  }
+
+  /**
+   * Binary search of the normalized name in the sorted name index, see
+   * {@link IndexedModelImp#getLastUpdateByPostalCommunityName(String)}.
+   */
+  @Override
+  public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
+    int record = nameRecord(postalCommunityName);
+    if (record == ModelKeys.NO_KEY) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for name %s", postalCommunityName));
+    }
+    return LocalDate.ofEpochDay(buffer.getInt(record + INT));
+  }
+
+  /**
+   * Searches the name index once per name, without the exception an unknown name costs the single
+   * lookup.
+   */
+  @Override
+  public LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    LocalDate[] lastUpdates = new LocalDate[postalCommunityNames.length];
+    for (int i = 0; i < postalCommunityNames.length; i++) {
+      int record = postalCommunityNames[i] == null
+          ? ModelKeys.NO_KEY : nameRecord(postalCommunityNames[i]);
+      if (record != ModelKeys.NO_KEY) {
+        lastUpdates[i] = LocalDate.ofEpochDay(buffer.getInt(record + INT));
+      }
+    }
+    return lastUpdates;
+  }
+
+  /**
+   * Binary search of the normalized name in the name index.
+   *
+   * @return the offset of the name record, or {@link ModelKeys#NO_KEY} for unknown names
+   */
+  private int nameRecord(String postalCommunityName) {
+    byte[] key = ModelKeys.name(postalCommunityName).getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = nameCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int record = names + middle * ModelSnapshot.NAME_RECORD_INTS * INT;
+      int comparison = compareString(buffer.getInt(record), key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return record;
+      }
+    }
+    return ModelKeys.NO_KEY;
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    return linked(communityPostalOffsets, communityPostal,
+        communityIndex(politicalCommunityNumber), PostalView::new);
+  }
+
+  @Override
+  public Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    return linked(communityZipCodeOffsets, communityZipCodes,
+        communityIndex(politicalCommunityNumber), this::string);
+  }
+
+  @Override
+  public District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    return new DistrictView(communityField(communityIndex(politicalCommunityNumber), 3));
+  }
+
+  @Override
+  public Canton getCantonByDistrict(String districtNumber) {
+    int district = numberIndex(districtIndexByNumber, districtNumbers, districtNumber);
+    if (district == ModelKeys.NO_KEY) {
+      throw new IllegalArgumentException(String.format("Can't find district %s", districtNumber));
+    }
+    return new CantonView(districtField(district, 2));
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    return linked(zipCommunityOffsets, zipCommunityIndexes, linkedZip(zipCode),
+        CommunityView::new);
+  }
+
+  @Override
+  public Set<Canton> getCantonsByZipCode(String zipCode) {
+    return linked(zipCantonOffsets, zipCantons, linkedZip(zipCode), CantonView::new);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity() {
+    return new IndexSet<>(0, buffer.getInt(withoutPostalCommunity - INT),
+        i -> new CommunityView(buffer.getInt(withoutPostalCommunity + i * INT)));
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByCanton(String cantonCode) {
+    return cantonCount(communityCountByCanton, cantonCode);
+  }
+
+  @Override
+  public int countDistrictsByCanton(String cantonCode) {
+    return cantonCount(districtCountByCanton, cantonCode);
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    int district = ModelKeys.digits(districtNumber);
+    int count = district != ModelKeys.NO_KEY && district < districtSlots
+        ? buffer.getInt(communityCountByDistrict + district * INT) : 0;
+    if (count == 0) {
+      throw new IllegalArgumentException(
+          String.format("Can't find district %s", districtNumber));
+    }
+    return count;
+  }
+
+  private int cantonCount(int section, String cantonCode) {
+    int canton = ModelKeys.cantonCode(cantonCode);
+    int count = canton == ModelKeys.NO_KEY ? 0 : buffer.getInt(section + canton * INT);
+    if (count == 0) {
+      throw new IllegalArgumentException(String.format("Can't find canton %s", cantonCode));
+    }
+    return count;
+  }
+
+  /**
+   * Returns the zip code as int, throws if it has no district.
+   */
+  private int zip(String zipCode) {
+    int zip = indexedZip(zipCode);
+    if (zip == ModelKeys.NO_KEY) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return zip;
+  }
+
+  /**
+   * Returns the key of a zip code with postal communities, or {@link ModelKeys#NO_KEY}.
+   */
+  private int indexedZip(String zipCode) {
+    int zip = ModelKeys.zipCode(zipCode);
+    if (zip == ModelKeys.NO_KEY
+        || buffer.getInt(zipOffsets + zip * INT) == buffer.getInt(zipOffsets + (zip + 1) * INT)) {
+      return ModelKeys.NO_KEY;
+    }
+    return zip;
+  }
+
+  private int communityIndex(String politicalCommunityNumber) {
+    int community =
+        numberIndex(communityIndexByNumber, communityNumbers, politicalCommunityNumber);
+    if (community == ModelKeys.NO_KEY) {
+      throw new IllegalArgumentException(
+          String.format("Can't find political community %s", politicalCommunityNumber));
+    }
+    return community;
+  }
+
+  /**
+   * Returns the index of the entity with the number in a number index, or
+   * {@link ModelKeys#NO_KEY}.
+   */
+  private int numberIndex(int section, int slots, String number) {
+    int key = ModelKeys.digits(number);
+    return key == ModelKeys.NO_KEY || key >= slots ? ModelKeys.NO_KEY
+        : buffer.getInt(section + key * INT);
+  }
+
+  /**
+   * Returns the key of a zip code linked to political communities.
+   */
+  private int linkedZip(String zipCode) {
+    int zip = ModelKeys.zipCode(zipCode);
+    if (zip == ModelKeys.NO_KEY || buffer.getInt(zipCommunityOffsets + zip * INT)
+        == buffer.getInt(zipCommunityOffsets + (zip + 1) * INT)) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return zip;
+  }
+
+  /**
+   * Returns a view of the targets linked to the source, decoded on iteration.
+   */
+  private <T> Set<T> linked(int offsets, int targets, int source, IntFunction<T> target) {
+    return new IndexSet<>(buffer.getInt(offsets + source * INT),
+        buffer.getInt(offsets + (source + 1) * INT),
+        i -> target.apply(buffer.getInt(targets + i * INT)));
+  }
+
+  private int cantonField(int canton, int field) {
+    return buffer.getInt(cantons + (canton * ModelSnapshot.CANTON_RECORD_INTS + field) * INT);
+  }
+
+  private int districtField(int district, int field) {
+    return buffer.getInt(districts + (district * ModelSnapshot.DISTRICT_RECORD_INTS + field) * INT);
+  }
+
+  private int communityField(int community, int field) {
+    return buffer.getInt(
+        communities + (community * ModelSnapshot.COMMUNITY_RECORD_INTS + field) * INT);
+  }
+
+  /**
+   * Returns the index of the first postal record whose zip code is greater than (or equal to, if
+   * not {@code after}) the given one.
+   */
+  private int postalBound(byte[] zipCode, boolean after) {
+    int low = 0;
+    int high = postalCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareString(
+          buffer.getInt(postal + middle * ModelSnapshot.POSTAL_RECORD_INTS * INT), zipCode);
+      if (comparison < 0 || (after && comparison == 0)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int postalField(int postalCommunity, int field) {
+    return buffer.getInt(
+        postal + (postalCommunity * ModelSnapshot.POSTAL_RECORD_INTS + field) * INT);
+  }
+
+  private String string(int id) {
+    int start = buffer.getInt(stringOffsets + id * INT);
+    int end = buffer.getInt(stringOffsets + (id + 1) * INT);
+    byte[] bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(stringData + start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Compares the UTF-8 bytes of the string table entry with the key, as unsigned bytes.
+   */
+  private int compareString(int id, byte[] key) {
+    int start = stringData + buffer.getInt(stringOffsets + id * INT);
+    int length = stringData + buffer.getInt(stringOffsets + (id + 1) * INT) - start;
+    int common = Math.min(length, key.length);
+    for (int i = 0; i < common; i++) {
+      int comparison = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return length - key.length;
+  }
+
+  /**
+   * Canton at an index of the canton table, its fields decoded when read.
+   */
+  private final class CantonView extends CantonImp {
+
+    private final int canton;
+
+    private CantonView(int canton) {
+      this.canton = canton;
+    }
+
+    @Override
+    public String getCode() {
+      return string(cantonField(canton, 0));
+    }
+
+    @Override
+    public String getName() {
+      return string(cantonField(canton, 1));
+    }
+
+    @Override
+    public String toString() {
+      return "Canton(code=" + getCode() + ", name=" + getName() + ")";
+    }
+  }
+
+  private final class DistrictView extends DistrictImp {
+
+    private final int district;
+
+    private DistrictView(int district) {
+      this.district = district;
+    }
+
+    @Override
+    public String getNumber() {
+      return string(districtField(district, 0));
+    }
+
+    @Override
+    public String getName() {
+      return string(districtField(district, 1));
+    }
+
+    @Override
+    public String toString() {
+      return "District(number=" + getNumber() + ", name=" + getName() + ")";
+    }
+  }
+
+  private final class CommunityView extends PoliticalCommunityImp {
+
+    private final int community;
+
+    private CommunityView(int community) {
+      this.community = community;
+    }
+
+    @Override
+    public String getNumber() {
+      return string(communityField(community, 0));
+    }
+
+    @Override
+    public String getName() {
+      return string(communityField(community, 1));
+    }
+
+    @Override
+    public String getShortName() {
+      return string(communityField(community, 2));
+    }
+
+    @Override
+    public LocalDate getLastUpdate() {
+      return LocalDate.ofEpochDay(communityField(community, 4));
+    }
+
+    @Override
+    public String toString() {
+      return "PoliticalCommunity(number=" + getNumber() + ", name=" + getName()
+          + ", shortName=" + getShortName() + ", lastUpdate=" + getLastUpdate() + ")";
+    }
+  }
+
+  private final class PostalView extends PostalCommunityImp {
+
+    private final int postalCommunity;
+
+    private PostalView(int postalCommunity) {
+      this.postalCommunity = postalCommunity;
+    }
+
+    @Override
+    public String getZipCode() {
+      return string(postalField(postalCommunity, 0));
+    }
+
+    @Override
+    public String getZipCodeAddition() {
+      return string(postalField(postalCommunity, 1));
+    }
+
+    @Override
+    public String getName() {
+      return string(postalField(postalCommunity, 2));
+    }
+
+    @Override
+    public String getPoliticalCommunityNumber() {
+      return string(postalField(postalCommunity, 3));
+    }
+
+    @Override
+    public String toString() {
+      return "PostalCommunity(zipCode=" + getZipCode() + ", zipCodeAddition="
+          + getZipCodeAddition() + ", name=" + getName() + ", politicalCommunityNumber="
+          + getPoliticalCommunityNumber() + ")";
+    }
+  }
+}
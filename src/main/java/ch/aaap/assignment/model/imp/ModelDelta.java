@@ -0,0 +1,34 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+/**
+ * Changes to the rows a model was built from, see {@link IndexedModelImp#apply(ModelDelta)}.
+ *
+ * <p>Political communities are identified by their number: a row replaces the political community
+ * of the same number, or adds it. Postal rows have no identity, a changed postal row is removed
+ * and added again.
+ */
+@Builder
+@Getter
+public class ModelDelta {
+
+  // added or changed political communities
+  @Singular
+  private final Set<CSVPoliticalCommunity> politicalCommunities;
+
+  // numbers of the removed political communities
+  @Singular
+  private final Set<String> removedPoliticalCommunityNumbers;
+
+  @Singular
+  private final Set<CSVPostalCommunity> addedPostalCommunities;
+
+  @Singular
+  private final Set<CSVPostalCommunity> removedPostalCommunities;
+}
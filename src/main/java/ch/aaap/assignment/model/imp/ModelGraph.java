@@ -0,0 +1,442 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Links between cantons, districts, political communities, postal communities and zip codes, in
+ * both directions.
+ *
+ * <p>The entities are stored in arrays indexed by their number (or zip code) itself, so following
+ * a link is an array access. The one to many links are stored in compressed sparse row form: the
+ * targets of all the sources in one array, sorted by source, and for each source the index its
+ * targets start at. The targets of a source are returned as a view over its range, so a traversal
+ * neither hashes a string nor allocates more than the view.
+ *
+ * <p>{@link #with} patches a graph for a model delta: the links of the touched political
+ * communities, districts and zip codes are computed again into small maps looked up before the
+ * arrays, which are shared. Once the patches outgrow an eighth of the political communities,
+ * the graph has to be built again.
+ */
+final class ModelGraph {
+
+  // by political community number
+  private final PoliticalCommunity[] politicalCommunities;
+  private final District[] districtOfPoliticalCommunity;
+  // by district number
+  private final Canton[] cantonOfDistrict;
+
+  // postal communities of each political community, by number then zip code
+  private final int[] postalCommunityStart;
+  private final PostalCommunity[] postalCommunities;
+  // distinct zip codes of each political community
+  private final int[] zipCodeStart;
+  private final String[] zipCodes;
+
+  // political communities and cantons of each zip code, by number
+  private final int[] politicalCommunityStart;
+  private final PoliticalCommunity[] zipPoliticalCommunities;
+  private final int[] cantonStart;
+  private final Canton[] zipCantons;
+
+  // the links patched since the arrays were built, by political community number, district number
+  // and zip code, and the districts and cantons replaced by a delta, by number and code
+  private final Map<Integer, CommunityLinks> patchedCommunities;
+  private final Map<Integer, Canton> patchedDistricts;
+  private final Map<Integer, ZipLinks> patchedZipCodes;
+  private final Map<String, District> replacedDistricts;
+  private final Map<String, Canton> replacedCantons;
+
+  /**
+   * Links the entities of a model. Postal communities of an unknown political community or with
+   * an invalid zip code are left out.
+   */
+  ModelGraph(Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber,
+      Map<String, PoliticalCommunity> politicalCommunitiesByNumber,
+      Map<String, District> districtsByNumber, Map<String, Canton> cantonsByCode,
+      Collection<PostalCommunity> postalCommunityCollection) {
+    int maxNumber = csvPoliticalCommunitiesByNumber.keySet().stream()
+        .mapToInt(ModelKeys::digits).max().orElse(ModelKeys.NO_KEY);
+    int maxDistrict = districtsByNumber.keySet().stream()
+        .mapToInt(ModelKeys::digits).max().orElse(ModelKeys.NO_KEY);
+    politicalCommunities = new PoliticalCommunity[maxNumber + 1];
+    districtOfPoliticalCommunity = new District[maxNumber + 1];
+    cantonOfDistrict = new Canton[maxDistrict + 1];
+    Canton[] cantonOfPoliticalCommunity = new Canton[maxNumber + 1];
+    for (CSVPoliticalCommunity row : csvPoliticalCommunitiesByNumber.values()) {
+      int number = ModelKeys.digits(row.getNumber());
+      int district = ModelKeys.digits(row.getDistrictNumber());
+      if (number == ModelKeys.NO_KEY || district == ModelKeys.NO_KEY) {
+        continue;
+      }
+      Canton canton = cantonsByCode.get(row.getCantonCode());
+      politicalCommunities[number] = politicalCommunitiesByNumber.get(row.getNumber());
+      districtOfPoliticalCommunity[number] =
+          districtsByNumber.get(row.getDistrictNumber());
+      cantonOfDistrict[district] = canton;
+      cantonOfPoliticalCommunity[number] = canton;
+    }
+
+    List<PostalCommunity> linked = new ArrayList<>();
+    for (PostalCommunity postalCommunity : postalCommunityCollection) {
+      int number = ModelKeys.digits(postalCommunity.getPoliticalCommunityNumber());
+      if (number != ModelKeys.NO_KEY && number <= maxNumber
+          && politicalCommunities[number] != null
+          && ModelKeys.zipCode(postalCommunity.getZipCode()) != ModelKeys.NO_KEY) {
+        linked.add(postalCommunity);
+      }
+    }
+
+    // political community -> postal communities and zip codes
+    linked.sort(Comparator
+        .comparingInt((PostalCommunity postalCommunity) ->
+            ModelKeys.digits(postalCommunity.getPoliticalCommunityNumber()))
+        .thenComparing(ZipRangeIndex.ORDER));
+    postalCommunities = linked.toArray(new PostalCommunity[0]);
+    postalCommunityStart = new int[maxNumber + 2];
+    zipCodeStart = new int[maxNumber + 2];
+    List<String> zipCodeList = new ArrayList<>();
+    for (int i = 0; i < postalCommunities.length; i++) {
+      PostalCommunity postalCommunity = postalCommunities[i];
+      int number = ModelKeys.digits(postalCommunity.getPoliticalCommunityNumber());
+      postalCommunityStart[number + 1] = i + 1;
+      if (i == 0 || !postalCommunity.getZipCode().equals(zipCodeList.get(zipCodeList.size() - 1))
+          || number != ModelKeys.digits(
+              postalCommunities[i - 1].getPoliticalCommunityNumber())) {
+        zipCodeList.add(postalCommunity.getZipCode());
+      }
+      zipCodeStart[number + 1] = zipCodeList.size();
+    }
+    fillGaps(postalCommunityStart);
+    fillGaps(zipCodeStart);
+    zipCodes = zipCodeList.toArray(new String[0]);
+
+    // zip code -> political communities and cantons
+    List<Set<PoliticalCommunity>> communitiesByZip = new ArrayList<>(ModelKeys.ZIP_CODES);
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      communitiesByZip.add(null);
+    }
+    // iterated by political community number: the communities of a zip code come sorted
+    for (PostalCommunity postalCommunity : postalCommunities) {
+      int zip = ModelKeys.zipCode(postalCommunity.getZipCode());
+      if (communitiesByZip.get(zip) == null) {
+        communitiesByZip.set(zip, new LinkedHashSet<>());
+      }
+      communitiesByZip.get(zip).add(politicalCommunities[
+          ModelKeys.digits(postalCommunity.getPoliticalCommunityNumber())]);
+    }
+    List<PoliticalCommunity> communityList = new ArrayList<>();
+    List<Canton> cantonList = new ArrayList<>();
+    politicalCommunityStart = new int[ModelKeys.ZIP_CODES + 1];
+    cantonStart = new int[ModelKeys.ZIP_CODES + 1];
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      politicalCommunityStart[zip] = communityList.size();
+      cantonStart[zip] = cantonList.size();
+      Set<PoliticalCommunity> communities = communitiesByZip.get(zip);
+      if (communities != null) {
+        Set<Canton> cantons = new LinkedHashSet<>();
+        for (PoliticalCommunity politicalCommunity : communities) {
+          communityList.add(politicalCommunity);
+          cantons.add(
+              cantonOfPoliticalCommunity[ModelKeys.digits(politicalCommunity.getNumber())]);
+        }
+        cantonList.addAll(cantons);
+      }
+    }
+    politicalCommunityStart[ModelKeys.ZIP_CODES] = communityList.size();
+    cantonStart[ModelKeys.ZIP_CODES] = cantonList.size();
+    zipPoliticalCommunities = communityList.toArray(new PoliticalCommunity[0]);
+    zipCantons = cantonList.toArray(new Canton[0]);
+    patchedCommunities = Map.of();
+    patchedDistricts = Map.of();
+    patchedZipCodes = Map.of();
+    replacedDistricts = Map.of();
+    replacedCantons = Map.of();
+  }
+
+  private ModelGraph(ModelGraph base, Map<Integer, CommunityLinks> patchedCommunities,
+      Map<Integer, Canton> patchedDistricts, Map<Integer, ZipLinks> patchedZipCodes,
+      Map<String, District> replacedDistricts, Map<String, Canton> replacedCantons) {
+    this.politicalCommunities = base.politicalCommunities;
+    this.districtOfPoliticalCommunity = base.districtOfPoliticalCommunity;
+    this.cantonOfDistrict = base.cantonOfDistrict;
+    this.postalCommunityStart = base.postalCommunityStart;
+    this.postalCommunities = base.postalCommunities;
+    this.zipCodeStart = base.zipCodeStart;
+    this.zipCodes = base.zipCodes;
+    this.politicalCommunityStart = base.politicalCommunityStart;
+    this.zipPoliticalCommunities = base.zipPoliticalCommunities;
+    this.cantonStart = base.cantonStart;
+    this.zipCantons = base.zipCantons;
+    this.patchedCommunities = patchedCommunities;
+    this.patchedDistricts = patchedDistricts;
+    this.patchedZipCodes = patchedZipCodes;
+    this.replacedDistricts = replacedDistricts;
+    this.replacedCantons = replacedCantons;
+  }
+
+  /**
+   * Returns the graph of the given model, which differs from the model of this graph only on the
+   * given political communities, districts and zip codes. Their links are computed again from the
+   * rows, the others are shared with this graph.
+   *
+   * @return the patched graph, null once the patches outgrow an eighth of the political
+   *     communities, the graph then has to be built again
+   */
+  ModelGraph with(Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber,
+      Map<String, PoliticalCommunity> politicalCommunitiesByNumber,
+      Map<String, District> districtsByNumber, Map<String, Canton> cantonsByCode,
+      Map<String, Set<PoliticalCommunity>> politicalCommunitiesByDistrict, PostalRows postalRows,
+      Set<String> politicalCommunityNumbers, Set<String> districtNumbers, Set<Integer> zips) {
+    if (patchedCommunities.size() + patchedDistricts.size() + patchedZipCodes.size()
+        + politicalCommunityNumbers.size() + districtNumbers.size() + zips.size()
+        > politicalCommunities.length / 8) {
+      return null;
+    }
+    Map<Integer, CommunityLinks> communities = new HashMap<>(patchedCommunities);
+    Map<String, District> districts = new HashMap<>(replacedDistricts);
+    Map<String, Canton> cantons = new HashMap<>(replacedCantons);
+    for (String politicalCommunityNumber : politicalCommunityNumbers) {
+      int number = ModelKeys.digits(politicalCommunityNumber);
+      if (number == ModelKeys.NO_KEY) {
+        continue;
+      }
+      CSVPoliticalCommunity row = csvPoliticalCommunitiesByNumber.get(politicalCommunityNumber);
+      if (row == null || ModelKeys.digits(row.getDistrictNumber()) == ModelKeys.NO_KEY) {
+        communities.put(number, CommunityLinks.NONE);
+        continue;
+      }
+      District district = districtsByNumber.get(row.getDistrictNumber());
+      // the entities of a row replace the ones the untouched links of the arrays point to
+      districts.put(row.getDistrictNumber(), district);
+      cantons.put(row.getCantonCode(), cantonsByCode.get(row.getCantonCode()));
+      PostalCommunity[] postal =
+          postalRows.ofPoliticalCommunity(politicalCommunityNumber).stream()
+              .filter(csvPostalCommunity ->
+                  ModelKeys.zipCode(csvPostalCommunity.getZipCode()) != ModelKeys.NO_KEY)
+              .map(IndexedModelImp::postalCommunity)
+              .distinct()
+              .sorted(ZipRangeIndex.ORDER)
+              .toArray(PostalCommunity[]::new);
+      communities.put(number, new CommunityLinks(
+          politicalCommunitiesByNumber.get(politicalCommunityNumber), district, postal,
+          Arrays.stream(postal).map(PostalCommunity::getZipCode).distinct()
+              .toArray(String[]::new)));
+    }
+    Map<Integer, Canton> districtCantons = new HashMap<>(patchedDistricts);
+    for (String districtNumber : districtNumbers) {
+      int number = ModelKeys.digits(districtNumber);
+      if (number == ModelKeys.NO_KEY) {
+        continue;
+      }
+      // the canton of any political community of the district, null once it has none left
+      Set<PoliticalCommunity> group = politicalCommunitiesByDistrict.get(districtNumber);
+      districtCantons.put(number, group == null ? null : cantonsByCode.get(
+          csvPoliticalCommunitiesByNumber.get(group.iterator().next().getNumber())
+              .getCantonCode()));
+    }
+    Map<Integer, ZipLinks> zipLinks = new HashMap<>(patchedZipCodes);
+    for (int zip : zips) {
+      PoliticalCommunity[] zipCommunities = postalRows.ofZipCode(zip).stream()
+          .map(CSVPostalCommunity::getPoliticalCommunityNumber)
+          .filter(number -> ModelKeys.digits(number) != ModelKeys.NO_KEY
+              && csvPoliticalCommunitiesByNumber.containsKey(number) && ModelKeys.digits(
+                  csvPoliticalCommunitiesByNumber.get(number).getDistrictNumber())
+              != ModelKeys.NO_KEY)
+          .distinct()
+          .sorted(Comparator.comparingInt(ModelKeys::digits))
+          .map(politicalCommunitiesByNumber::get)
+          .toArray(PoliticalCommunity[]::new);
+      zipLinks.put(zip, new ZipLinks(zipCommunities, Arrays.stream(zipCommunities)
+          .map(politicalCommunity -> cantonsByCode.get(csvPoliticalCommunitiesByNumber
+              .get(politicalCommunity.getNumber()).getCantonCode()))
+          .distinct()
+          .toArray(Canton[]::new)));
+    }
+    return new ModelGraph(this, communities, districtCantons, zipLinks, districts, cantons);
+  }
+
+  /**
+   * Returns the postal communities of the political community, by zip code.
+   *
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  Set<PostalCommunity> postalCommunities(String politicalCommunityNumber) {
+    int number = politicalCommunity(politicalCommunityNumber);
+    CommunityLinks patched = patchedCommunities.get(number);
+    if (patched != null) {
+      return patched.postalCommunities();
+    }
+    return new IndexSet<>(postalCommunityStart[number], postalCommunityStart[number + 1],
+        i -> postalCommunities[i]);
+  }
+
+  /**
+   * Returns the zip codes of the political community, in ascending order.
+   *
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  Set<String> zipCodes(String politicalCommunityNumber) {
+    int number = politicalCommunity(politicalCommunityNumber);
+    CommunityLinks patched = patchedCommunities.get(number);
+    if (patched != null) {
+      return patched.zipCodes();
+    }
+    return new IndexSet<>(zipCodeStart[number], zipCodeStart[number + 1], i -> zipCodes[i]);
+  }
+
+  /**
+   * Returns the district of the political community.
+   *
+   * @throws IllegalArgumentException if the political community is unknown
+   */
+  District district(String politicalCommunityNumber) {
+    int number = politicalCommunity(politicalCommunityNumber);
+    CommunityLinks patched = patchedCommunities.get(number);
+    if (patched != null) {
+      return patched.district;
+    }
+    District district = districtOfPoliticalCommunity[number];
+    return replacedDistricts.getOrDefault(district.getNumber(), district);
+  }
+
+  /**
+   * Returns the canton of the district.
+   *
+   * @throws IllegalArgumentException if the district is unknown
+   */
+  Canton canton(String districtNumber) {
+    int number = ModelKeys.digits(districtNumber);
+    Canton canton = patchedDistricts.containsKey(number) ? patchedDistricts.get(number)
+        : number == ModelKeys.NO_KEY || number >= cantonOfDistrict.length ? null
+        : replaced(cantonOfDistrict[number]);
+    if (canton == null) {
+      throw new IllegalArgumentException(String.format("Can't find district %s", districtNumber));
+    }
+    return canton;
+  }
+
+  /**
+   * Returns the political communities of the zip code, by number.
+   *
+   * @throws IllegalArgumentException if the zip code is unknown
+   */
+  Set<PoliticalCommunity> politicalCommunities(String zipCode) {
+    int zip = zip(zipCode);
+    ZipLinks patched = patchedZipCodes.get(zip);
+    if (patched != null) {
+      return new IndexSet<>(0, patched.politicalCommunities.length,
+          i -> patched.politicalCommunities[i]);
+    }
+    return new IndexSet<>(politicalCommunityStart[zip], politicalCommunityStart[zip + 1],
+        i -> zipPoliticalCommunities[i]);
+  }
+
+  /**
+   * Returns the cantons of the zip code.
+   *
+   * @throws IllegalArgumentException if the zip code is unknown
+   */
+  Set<Canton> cantons(String zipCode) {
+    int zip = zip(zipCode);
+    ZipLinks patched = patchedZipCodes.get(zip);
+    if (patched != null) {
+      return new IndexSet<>(0, patched.cantons.length, i -> patched.cantons[i]);
+    }
+    return new IndexSet<>(cantonStart[zip], cantonStart[zip + 1],
+        i -> replaced(zipCantons[i]));
+  }
+
+  private int politicalCommunity(String politicalCommunityNumber) {
+    int number = ModelKeys.digits(politicalCommunityNumber);
+    CommunityLinks patched = patchedCommunities.get(number);
+    if (patched != null ? patched.politicalCommunity == null
+        : number == ModelKeys.NO_KEY || number >= politicalCommunities.length
+            || politicalCommunities[number] == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find political community %s", politicalCommunityNumber));
+    }
+    return number;
+  }
+
+  private int zip(String zipCode) {
+    int zip = ModelKeys.zipCode(zipCode);
+    ZipLinks patched = patchedZipCodes.get(zip);
+    if (zip == ModelKeys.NO_KEY || (patched != null ? patched.politicalCommunities.length == 0
+        : politicalCommunityStart[zip] == politicalCommunityStart[zip + 1])) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return zip;
+  }
+
+  private Canton replaced(Canton canton) {
+    return canton == null ? null : replacedCantons.getOrDefault(canton.getCode(), canton);
+  }
+
+  /**
+   * Replaces the 0 start of empty ranges by the end of the preceding range.
+   */
+  private static void fillGaps(int[] starts) {
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] = Math.max(starts[i], starts[i - 1]);
+    }
+  }
+
+  /**
+   * Links of a patched political community, no political community once it is removed.
+   */
+  private static final class CommunityLinks {
+
+    private static final CommunityLinks NONE =
+        new CommunityLinks(null, null, new PostalCommunity[0], new String[0]);
+
+    private final PoliticalCommunity politicalCommunity;
+    private final District district;
+    private final PostalCommunity[] postalCommunities;
+    private final String[] zipCodes;
+
+    private CommunityLinks(PoliticalCommunity politicalCommunity, District district,
+        PostalCommunity[] postalCommunities, String[] zipCodes) {
+      this.politicalCommunity = politicalCommunity;
+      this.district = district;
+      this.postalCommunities = postalCommunities;
+      this.zipCodes = zipCodes;
+    }
+
+    private Set<PostalCommunity> postalCommunities() {
+      return new IndexSet<>(0, postalCommunities.length, i -> postalCommunities[i]);
+    }
+
+    private Set<String> zipCodes() {
+      return new IndexSet<>(0, zipCodes.length, i -> zipCodes[i]);
+    }
+  }
+
+  /**
+   * Links of a patched zip code, no political community once it has none left.
+   */
+  private static final class ZipLinks {
+
+    private final PoliticalCommunity[] politicalCommunities;
+    private final Canton[] cantons;
+
+    private ZipLinks(PoliticalCommunity[] politicalCommunities, Canton[] cantons) {
+      this.politicalCommunities = politicalCommunities;
+      this.cantons = cantons;
+    }
+  }
+}
@@ -9,6 +9,7 @@ import ch.aaap.assignment.raw.CSVPoliticalCommunity;
 import ch.aaap.assignment.raw.CSVPostalCommunity;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -85,13 +86,12 @@ public class ModelImp implements Model {
   /**
    * There is 1:n correspondence between zip code and postal community number. For example PLZ4 1008
    * corresponds to GDENR 5589 (Prilly), GDENR 5591	(Renens) and GDENR 5585	(Jouxtens-Mézery). Even
-   * adding PLZZ to PLZ4 doesn't help. Here we are just returning one element (we are sure there is
-   * one or there would be an IllegalArgumentException).
+   * adding PLZZ to PLZ4 doesn't help. Here we return the district holding the largest share of the
+   * zip code, see {@link ZipDistribution}.
    */
   @Override
   public String getDistrictByZipCode(String zipCode) {
-    return this.getAllDistrictsByZipCode(zipCode)
-        .iterator().next();
+    return zipDistribution(zipCode).districtName();
   }
 
   /**
@@ -120,6 +120,17 @@ public class ModelImp implements Model {
     return districts;
   }
 
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    return zipDistribution(zipCode).districtShares();
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return politicalCommunity(csvPoliticalCommunitiesByNumber
+        .get(zipDistribution(zipCode).politicalCommunityNumber()));
+  }
+
   @Override
   public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
     // a postal community name can correspond to multiple political community numbers
@@ -160,6 +171,19 @@ public class ModelImp implements Model {
   }
 
 
+  private ZipDistribution zipDistribution(String zipCode) {
+    List<CSVPostalCommunity> postalCommunitiesOfZip = csvPostalCommunities.stream()
+        .filter(csvPostalCommunity -> zipCode.equals(csvPostalCommunity.getZipCode()))
+        .collect(Collectors.toList());
+    ZipDistribution zipDistribution =
+        ZipDistribution.of(postalCommunitiesOfZip, csvPoliticalCommunitiesByNumber);
+    if (zipDistribution == null) {
+      throw new IllegalArgumentException(
+          String.format("Can't find postalCommunities for zip code %s", zipCode));
+    }
+    return zipDistribution;
+  }
+
   private District districtFromPoliticalCommunities(CSVPoliticalCommunity csvPoliticalCommunity) {
     return DistrictImp.builder()
         .name(csvPoliticalCommunity.getDistrictName())
@@ -187,7 +211,7 @@ public class ModelImp implements Model {
   private PoliticalCommunity politicalCommunity(CSVPoliticalCommunity csvPoliticalCommunity) {
     return PoliticalCommunityImp.builder()
         .number(csvPoliticalCommunity.getNumber())
-        .name(csvPoliticalCommunity.getShortName())
+        .name(csvPoliticalCommunity.getName())
         .shortName(csvPoliticalCommunity.getShortName())
         .lastUpdate(csvPoliticalCommunity.getLastUpdate())
         .build();
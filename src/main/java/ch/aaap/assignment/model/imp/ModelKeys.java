@@ -0,0 +1,144 @@
+package ch.aaap.assignment.model.imp;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Conversion of the textual keys of the data set into small ints, used to address the
+ * array-backed indexes without hashing strings.
+ */
+final class ModelKeys {
+
+  /**
+   * Amount of possible 4 digit zip codes, i.e. size of an array indexed by zip code.
+   */
+  static final int ZIP_CODES = 10_000;
+
+  /**
+   * Amount of possible 2 letter canton codes, i.e. size of an array indexed by canton code.
+   */
+  static final int CANTON_CODES = 26 * 26;
+
+  static final int NO_KEY = -1;
+
+  private ModelKeys() {
+
+  }
+
+  /**
+   * Returns the 4 digit zip code as int, {@link #NO_KEY} if it's not a 4 digit zip code.
+   */
+  static int zipCode(String zipCode) {
+    if (zipCode == null || zipCode.length() != 4) {
+      return NO_KEY;
+    }
+    int result = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = zipCode.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NO_KEY;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the 4 digit zip code as int.
+   *
+   * @throws IllegalArgumentException if it's not a 4 digit zip code
+   */
+  static int checkedZipCode(String zipCode) {
+    int zip = zipCode(zipCode);
+    if (zip == NO_KEY) {
+      throw new IllegalArgumentException(String.format("Unsupported zip code %s", zipCode));
+    }
+    return zip;
+  }
+
+  /**
+   * Returns the ordinal of a 2 letter upper case canton code (e.g. ZH), {@link #NO_KEY} if it's
+   * not a canton code.
+   */
+  static int cantonCode(String cantonCode) {
+    if (cantonCode == null || cantonCode.length() != 2) {
+      return NO_KEY;
+    }
+    int first = cantonCode.charAt(0) - 'A';
+    int second = cantonCode.charAt(1) - 'A';
+    if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+      return NO_KEY;
+    }
+    return first * 26 + second;
+  }
+
+  /**
+   * Parses a non-negative decimal number without allocating, {@link #NO_KEY} if the string
+   * contains anything else than (at most 9) digits or has a leading zero.
+   */
+  static int digits(String value) {
+    if (value == null) {
+      return NO_KEY;
+    }
+    int length = value.length();
+    if (length == 0 || length > 9 || (length > 1 && value.charAt(0) == '0')) {
+      return NO_KEY;
+    }
+    int result = 0;
+    for (int i = 0; i < length; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NO_KEY;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the positions of the keys, ordered by key. Positions with equal keys are adjacent and
+   * in ascending order, {@link #NO_KEY} keys come first.
+   */
+  static int[] sortedPositions(int[] keys) {
+    long[] packed = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      packed[i] = ((long) keys[i] << 32) | i;
+    }
+    Arrays.sort(packed);
+    int[] positions = new int[keys.length];
+    for (int i = 0; i < packed.length; i++) {
+      positions[i] = (int) packed[i];
+    }
+    return positions;
+  }
+
+  /**
+   * Returns the lookup key of a name: lower case and without diacritics, so that "Zurich",
+   * "Zürich" and "ZÜRICH" share the same key.
+   */
+  static String name(String name) {
+    if (isLowerCaseAscii(name)) {
+      return name;
+    }
+    String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+    StringBuilder key = new StringBuilder(decomposed.length());
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) != Character.NON_SPACING_MARK) {
+        key.append(c);
+      }
+    }
+    return key.toString().toLowerCase(Locale.ROOT);
+  }
+
+  private static boolean isLowerCaseAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c > 0x7f || (c >= 'A' && c <= 'Z')) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,390 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes the indexed model to a compact binary file, read back by {@link MappedModelImp}.
+ *
+ * <p>All numbers are big endian ints, strings are referenced by their index in the string table.
+ * The file is made of these sections, in this order:
+ * <pre>
+ * header          MAGIC, VERSION
+ * string table    count, count + 1 offsets into the data, UTF-8 data
+ * cantons         count, (code, name) per canton
+ * districts       count, (number, name, canton index) per district
+ * communities     count, (number, name, short name, district index, last update epoch day,
+ *                 has postal community) per political community
+ * postal          count, (zip code, zip code addition, name, community number) per row
+ * zip index       10000 + 1 offsets into the district names, count, district names by
+ *                 descending share (the first of each zip code is the one returned by
+ *                 getDistrictByZipCode), the share of each as a double, 10000 indexes of the
+ *                 dominant political community of each zip code (-1 for unknown zip codes)
+ * name index      count, (normalized name, last update epoch day) per name, sorted by the
+ *                 unsigned UTF-8 bytes of the normalized name
+ * counts          676 community counts by canton ordinal, 676 district counts by canton ordinal,
+ *                 count, community counts by district number
+ * number index    count, community index by community number, count, district index by district
+ *                 number (-1 for unknown numbers)
+ * links           community count + 1 offsets, count, postal row indexes by zip code of each
+ *                 community; community count + 1 offsets, count, distinct zip codes of each
+ *                 community; 10000 + 1 offsets, count, community indexes by number of each zip
+ *                 code; 10000 + 1 offsets, count, canton indexes of each zip code; canton count
+ *                 + 1 offsets, count, community indexes of each canton; canton count + 1
+ *                 offsets, count, district indexes of each canton; district count + 1 offsets,
+ *                 count, community indexes of each district
+ * without postal  count, indexes of the communities without postal community
+ * </pre>
+ *
+ * <p>The links are in compressed sparse row form, like in {@link ModelGraph}: the targets of all
+ * the sources in one array, and for each source the offset its targets start at. They only link
+ * postal rows of a known community with a valid zip code.
+ */
+public final class ModelSnapshot {
+
+  static final int MAGIC = 0x43484d44; // CHMD
+  static final int VERSION = 3;
+
+  static final int CANTON_RECORD_INTS = 2;
+  static final int DISTRICT_RECORD_INTS = 3;
+  static final int COMMUNITY_RECORD_INTS = 6;
+  static final int POSTAL_RECORD_INTS = 4;
+  static final int NAME_RECORD_INTS = 2;
+
+  private ModelSnapshot() {
+
+  }
+
+  /**
+   * Writes the snapshot of the model built from the given rows. The file is written next to the
+   * target and moved in place, so readers never map a partially written file.
+   */
+  public static void write(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities, Path file) {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (OutputStream os = Files.newOutputStream(temp)) {
+        write(csvPoliticalCommunities, csvPostalCommunities, os);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Could not write snapshot %s", file), e);
+    }
+  }
+
+  /**
+   * Writes the snapshot of the model built from the given rows to the stream, without closing it.
+   */
+  public static void write(Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities, OutputStream os) throws IOException {
+    // sorted for a reproducible output
+    List<CSVPoliticalCommunity> communities = new ArrayList<>(csvPoliticalCommunities);
+    communities.sort(Comparator.comparingInt(row -> ModelKeys.digits(row.getNumber())));
+    List<CSVPostalCommunity> postal = new ArrayList<>(csvPostalCommunities);
+    postal.sort(Comparator.comparing(CSVPostalCommunity::getZipCode)
+        .thenComparing(CSVPostalCommunity::getZipCodeAddition)
+        .thenComparing(CSVPostalCommunity::getPoliticalCommunityNumber)
+        .thenComparing(CSVPostalCommunity::getName));
+
+    StringTable strings = new StringTable();
+    Map<String, Integer> cantonIndexByCode = new HashMap<>();
+    List<int[]> cantons = new ArrayList<>();
+    Map<String, Integer> districtIndexByNumber = new HashMap<>();
+    List<int[]> districts = new ArrayList<>();
+    Map<String, CSVPoliticalCommunity> communitiesByNumber = new HashMap<>();
+    Map<String, Integer> communityIndexByNumber = new HashMap<>();
+    int[] communityCountByCanton = new int[ModelKeys.CANTON_CODES];
+    int[] districtCountByCanton = new int[ModelKeys.CANTON_CODES];
+    TreeMap<Integer, Integer> communityCountByDistrict = new TreeMap<>();
+
+    for (CSVPoliticalCommunity community : communities) {
+      communitiesByNumber.put(community.getNumber(), community);
+      communityIndexByNumber.put(community.getNumber(), communityIndexByNumber.size());
+      int cantonIndex = cantonIndexByCode.computeIfAbsent(community.getCantonCode(), code -> {
+        cantons.add(new int[] {strings.id(code), strings.id(community.getCantonName())});
+        return cantons.size() - 1;
+      });
+      int canton = ModelKeys.cantonCode(community.getCantonCode());
+      districtIndexByNumber.computeIfAbsent(community.getDistrictNumber(), number -> {
+        districts.add(new int[] {strings.id(number), strings.id(community.getDistrictName()),
+            cantonIndex});
+        if (canton != ModelKeys.NO_KEY) {
+          districtCountByCanton[canton]++;
+        }
+        return districts.size() - 1;
+      });
+      if (canton != ModelKeys.NO_KEY) {
+        communityCountByCanton[canton]++;
+      }
+      int district = ModelKeys.digits(community.getDistrictNumber());
+      if (district != ModelKeys.NO_KEY) {
+        communityCountByDistrict.merge(district, 1, Integer::sum);
+      }
+    }
+
+    Set<String> numbersWithPostalCommunity = new HashSet<>();
+    Map<String, Integer> lastUpdateByName = new HashMap<>();
+    for (CSVPostalCommunity row : postal) {
+      numbersWithPostalCommunity.add(row.getPoliticalCommunityNumber());
+      CSVPoliticalCommunity community = communitiesByNumber.get(row.getPoliticalCommunityNumber());
+      if (community == null) {
+        continue;
+      }
+      lastUpdateByName.merge(ModelKeys.name(row.getName()),
+          (int) community.getLastUpdate().toEpochDay(), Math::max);
+    }
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+
+    // every string is registered before the table is written
+    int[][] communityRecords = new int[communities.size()][];
+    for (int i = 0; i < communities.size(); i++) {
+      CSVPoliticalCommunity community = communities.get(i);
+      communityRecords[i] = new int[] {
+          strings.id(community.getNumber()),
+          strings.id(community.getName()),
+          strings.id(community.getShortName()),
+          districtIndexByNumber.get(community.getDistrictNumber()),
+          (int) community.getLastUpdate().toEpochDay(),
+          numbersWithPostalCommunity.contains(community.getNumber()) ? 1 : 0};
+    }
+    int[][] postalRecords = new int[postal.size()][];
+    for (int i = 0; i < postal.size(); i++) {
+      CSVPostalCommunity row = postal.get(i);
+      postalRecords[i] = new int[] {
+          strings.id(row.getZipCode()),
+          strings.id(row.getZipCodeAddition()),
+          strings.id(row.getName()),
+          strings.id(row.getPoliticalCommunityNumber())};
+    }
+    Map<Integer, ZipDistribution> distributionsByZip =
+        ZipDistribution.byZipCode(postal, communitiesByNumber);
+    int[] zipOffsets = new int[ModelKeys.ZIP_CODES + 1];
+    List<Integer> zipDistricts = new ArrayList<>();
+    List<Double> zipDistrictShares = new ArrayList<>();
+    int[] zipCommunities = new int[ModelKeys.ZIP_CODES];
+    Arrays.fill(zipCommunities, -1);
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      zipOffsets[zip] = zipDistricts.size();
+      ZipDistribution distribution = distributionsByZip.get(zip);
+      if (distribution != null) {
+        for (int i = 0; i < distribution.size(); i++) {
+          zipDistricts.add(strings.id(distribution.districtName(i)));
+          zipDistrictShares.add(distribution.districtShare(i));
+        }
+        zipCommunities[zip] = communityIndexByNumber.get(distribution.politicalCommunityNumber());
+      }
+    }
+    zipOffsets[ModelKeys.ZIP_CODES] = zipDistricts.size();
+    byte[][] nameKeys = lastUpdateByName.keySet().stream()
+        .map(key -> key.getBytes(StandardCharsets.UTF_8))
+        .sorted(Arrays::compareUnsigned)
+        .toArray(byte[][]::new);
+    int[][] nameRecords = new int[nameKeys.length][];
+    for (int i = 0; i < nameKeys.length; i++) {
+      String key = new String(nameKeys[i], StandardCharsets.UTF_8);
+      nameRecords[i] = new int[] {strings.id(key), lastUpdateByName.get(key)};
+    }
+
+    strings.writeTo(out);
+    writeRecords(out, cantons.toArray(new int[0][]));
+    writeRecords(out, districts.toArray(new int[0][]));
+    writeRecords(out, communityRecords);
+    writeRecords(out, postalRecords);
+    for (int offset : zipOffsets) {
+      out.writeInt(offset);
+    }
+    out.writeInt(zipDistricts.size());
+    for (int districtName : zipDistricts) {
+      out.writeInt(districtName);
+    }
+    for (double share : zipDistrictShares) {
+      out.writeDouble(share);
+    }
+    writeInts(out, zipCommunities);
+    writeRecords(out, nameRecords);
+    writeInts(out, communityCountByCanton);
+    writeInts(out, districtCountByCanton);
+    int districtSlots = communityCountByDistrict.isEmpty() ? 0
+        : communityCountByDistrict.lastKey() + 1;
+    int[] countByDistrict = new int[districtSlots];
+    communityCountByDistrict.forEach((district, count) -> countByDistrict[district] = count);
+    out.writeInt(districtSlots);
+    writeInts(out, countByDistrict);
+
+    writeNumberIndex(out, communityIndexByNumber);
+    writeNumberIndex(out, districtIndexByNumber);
+    int[][] postalByCommunity = new int[communities.size()][];
+    int[][] zipCodesByCommunity = new int[communities.size()][];
+    List<List<Integer>> linkedPostal = new ArrayList<>();
+    for (int i = 0; i < communities.size(); i++) {
+      linkedPostal.add(new ArrayList<>());
+    }
+    List<Set<Integer>> communitiesByZip = new ArrayList<>();
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      communitiesByZip.add(new TreeSet<>());
+    }
+    for (int i = 0; i < postal.size(); i++) {
+      Integer community = communityIndexByNumber.get(postal.get(i).getPoliticalCommunityNumber());
+      int zip = ModelKeys.zipCode(postal.get(i).getZipCode());
+      if (community != null && zip != ModelKeys.NO_KEY) {
+        // sorted by zip code, addition and name within a community
+        linkedPostal.get(community).add(i);
+        communitiesByZip.get(zip).add(community);
+      }
+    }
+    for (int i = 0; i < communities.size(); i++) {
+      postalByCommunity[i] = linkedPostal.get(i).stream().mapToInt(Integer::intValue).toArray();
+      zipCodesByCommunity[i] = Arrays.stream(postalByCommunity[i])
+          .map(row -> postalRecords[row][0])
+          .distinct()
+          .toArray();
+    }
+    int[][] communitiesOfZip = new int[ModelKeys.ZIP_CODES][];
+    int[][] cantonsOfZip = new int[ModelKeys.ZIP_CODES][];
+    for (int zip = 0; zip < ModelKeys.ZIP_CODES; zip++) {
+      communitiesOfZip[zip] = communitiesByZip.get(zip).stream()
+          .mapToInt(Integer::intValue)
+          .toArray();
+      cantonsOfZip[zip] = Arrays.stream(communitiesOfZip[zip])
+          .map(community -> districts.get(communityRecords[community][3])[2])
+          .distinct()
+          .toArray();
+    }
+    writeLinks(out, postalByCommunity);
+    writeLinks(out, zipCodesByCommunity);
+    writeLinks(out, communitiesOfZip);
+    writeLinks(out, cantonsOfZip);
+    List<List<Integer>> communitiesOfCanton = new ArrayList<>();
+    List<List<Integer>> districtsOfCanton = new ArrayList<>();
+    for (int i = 0; i < cantons.size(); i++) {
+      communitiesOfCanton.add(new ArrayList<>());
+      districtsOfCanton.add(new ArrayList<>());
+    }
+    List<List<Integer>> communitiesOfDistrict = new ArrayList<>();
+    for (int i = 0; i < districts.size(); i++) {
+      communitiesOfDistrict.add(new ArrayList<>());
+      districtsOfCanton.get(districts.get(i)[2]).add(i);
+    }
+    List<Integer> withoutPostalCommunity = new ArrayList<>();
+    for (int i = 0; i < communities.size(); i++) {
+      int district = communityRecords[i][3];
+      communitiesOfDistrict.get(district).add(i);
+      communitiesOfCanton.get(districts.get(district)[2]).add(i);
+      if (communityRecords[i][5] == 0) {
+        withoutPostalCommunity.add(i);
+      }
+    }
+    writeLinks(out, toArrays(communitiesOfCanton));
+    writeLinks(out, toArrays(districtsOfCanton));
+    writeLinks(out, toArrays(communitiesOfDistrict));
+    out.writeInt(withoutPostalCommunity.size());
+    writeInts(out, withoutPostalCommunity.stream().mapToInt(Integer::intValue).toArray());
+    out.flush();
+  }
+
+  /**
+   * Writes the indexes of the numbered entities in a table by number.
+   */
+  private static void writeNumberIndex(DataOutputStream out, Map<String, Integer> indexByNumber)
+      throws IOException {
+    int[] index = new int[indexByNumber.keySet().stream()
+        .mapToInt(ModelKeys::digits)
+        .max()
+        .orElse(ModelKeys.NO_KEY) + 1];
+    Arrays.fill(index, ModelKeys.NO_KEY);
+    indexByNumber.forEach((number, i) -> {
+      if (ModelKeys.digits(number) != ModelKeys.NO_KEY) {
+        index[ModelKeys.digits(number)] = i;
+      }
+    });
+    out.writeInt(index.length);
+    writeInts(out, index);
+  }
+
+  private static int[][] toArrays(List<List<Integer>> lists) {
+    return lists.stream()
+        .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+        .toArray(int[][]::new);
+  }
+
+  /**
+   * Writes the targets of each source in compressed sparse row form.
+   */
+  private static void writeLinks(DataOutputStream out, int[][] targets) throws IOException {
+    int offset = 0;
+    for (int[] row : targets) {
+      out.writeInt(offset);
+      offset += row.length;
+    }
+    out.writeInt(offset);
+    out.writeInt(offset);
+    for (int[] row : targets) {
+      writeInts(out, row);
+    }
+  }
+
+  private static void writeRecords(DataOutputStream out, int[][] records) throws IOException {
+    out.writeInt(records.length);
+    for (int[] record : records) {
+      writeInts(out, record);
+    }
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  /**
+   * Assigns an id to each distinct string, in order of registration.
+   */
+  private static final class StringTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<byte[]> data = new ArrayList<>();
+
+    int id(String value) {
+      return ids.computeIfAbsent(value, key -> {
+        data.add(key.getBytes(StandardCharsets.UTF_8));
+        return data.size() - 1;
+      });
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(data.size());
+      int offset = 0;
+      for (byte[] bytes : data) {
+        out.writeInt(offset);
+        offset += bytes.length;
+      }
+      out.writeInt(offset);
+      for (byte[] bytes : data) {
+        out.write(bytes);
+      }
+    }
+  }
+}
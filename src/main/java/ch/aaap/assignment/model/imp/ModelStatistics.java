@@ -0,0 +1,328 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates of the political communities of every canton and district of a model: amounts of
+ * political communities, postal communities and zip codes, oldest and latest update, updates by
+ * year and political communities without a postal community.
+ *
+ * <p>All the aggregates are computed at once, by a fork-join pass over the political communities:
+ * each task aggregates a range of them into its own tables, which are then merged pairwise. The
+ * results are kept in primitive tables with a row per canton and per district, read by
+ * {@link #ofCanton(String)} and {@link #ofDistrict(String)} without recomputing anything.
+ *
+ * <p>Immutable and thread safe, a snapshot of the model it was computed from: compute new
+ * statistics when the model changes.
+ */
+public final class ModelStatistics {
+
+  private static final Comparator<String> BY_NUMBER =
+      Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+  // entries of the input aggregated by a single task
+  private static final int THRESHOLD = 256;
+
+  // rows: the cantons by code, then the districts by number
+  private final String[] cantonCodes;
+  private final String[] districtNumbers;
+  private final int firstYear;
+  private final int years;
+  private final Tables tables;
+  private final int[] zipCodes;
+
+  private ModelStatistics(String[] cantonCodes, String[] districtNumbers, int firstYear,
+      int years, Tables tables) {
+    this.cantonCodes = cantonCodes;
+    this.districtNumbers = districtNumbers;
+    this.firstYear = firstYear;
+    this.years = years;
+    this.tables = tables;
+    this.zipCodes = Arrays.stream(tables.zipCodes)
+        .mapToInt(zips -> zips == null ? 0 : zips.cardinality())
+        .toArray();
+  }
+
+  /**
+   * Computes the statistics of the model on the common fork-join pool.
+   */
+  public static ModelStatistics of(Model model) {
+    return of(model, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Computes the statistics of the model on the given fork-join pool.
+   */
+  public static ModelStatistics of(Model model, ForkJoinPool pool) {
+    Map<String, Set<PoliticalCommunity>> byCanton = model.getPoliticalCommunitiesByCanton();
+    Map<String, Set<PoliticalCommunity>> byDistrict = model.getPoliticalCommunitiesByDistrict();
+    String[] cantonCodes = byCanton.keySet().stream()
+        .sorted()
+        .toArray(String[]::new);
+    String[] districtNumbers = byDistrict.keySet().stream()
+        .sorted(BY_NUMBER)
+        .toArray(String[]::new);
+    Map<String, List<PostalCommunity>> postalCommunitiesByNumber = new HashMap<>();
+    for (PostalCommunity postalCommunity : model.getPostalCommunities()) {
+      postalCommunitiesByNumber.computeIfAbsent(postalCommunity.getPoliticalCommunityNumber(),
+          number -> new ArrayList<>()).add(postalCommunity);
+    }
+
+    // the input of the pass: each political community once in its canton row and once in its
+    // district row, only gathering references, the pass extracts the attributes
+    Input input = new Input(
+        byCanton.values().stream().mapToInt(Set::size).sum()
+            + byDistrict.values().stream().mapToInt(Set::size).sum(),
+        cantonCodes.length + districtNumbers.length, postalCommunitiesByNumber);
+    int i = 0;
+    for (int row = 0; row < cantonCodes.length; row++) {
+      i = input.add(i, row, byCanton.get(cantonCodes[row]));
+    }
+    for (int row = 0; row < districtNumbers.length; row++) {
+      i = input.add(i, cantonCodes.length + row, byDistrict.get(districtNumbers[row]));
+    }
+
+    Tables tables = pool.invoke(new Pass(input, 0, input.row.length));
+    return new ModelStatistics(cantonCodes, districtNumbers, tables.firstYear, tables.years,
+        tables);
+  }
+
+  /**
+   * Returns the codes of the cantons, in alphabetical order.
+   */
+  public List<String> getCantonCodes() {
+    return List.of(cantonCodes);
+  }
+
+  /**
+   * Returns the numbers of the districts, in ascending order.
+   */
+  public List<String> getDistrictNumbers() {
+    return List.of(districtNumbers);
+  }
+
+  /**
+   * Returns the statistics of the canton.
+   *
+   * @param cantonCode code of a canton (e.g. ZH)
+   * @throws IllegalArgumentException if the canton is unknown
+   */
+  public GroupStatistics ofCanton(String cantonCode) {
+    int row = Arrays.binarySearch(cantonCodes, cantonCode);
+    if (row < 0) {
+      throw new IllegalArgumentException(String.format("Can't find canton %s", cantonCode));
+    }
+    return statistics(row);
+  }
+
+  /**
+   * Returns the statistics of the district.
+   *
+   * @param districtNumber number of a district (e.g. 101)
+   * @throws IllegalArgumentException if the district is unknown
+   */
+  public GroupStatistics ofDistrict(String districtNumber) {
+    int row = Arrays.binarySearch(districtNumbers, districtNumber, BY_NUMBER);
+    if (row < 0) {
+      throw new IllegalArgumentException(String.format("Can't find district %s", districtNumber));
+    }
+    return statistics(cantonCodes.length + row);
+  }
+
+  private GroupStatistics statistics(int row) {
+    SortedMap<Integer, Integer> lastUpdatesByYear = new TreeMap<>();
+    for (int year = 0; year < years; year++) {
+      int count = tables.lastUpdatesByYear[row * years + year];
+      if (count > 0) {
+        lastUpdatesByYear.put(firstYear + year, count);
+      }
+    }
+    int communities = tables.politicalCommunities[row];
+    return new GroupStatistics(communities, tables.postalCommunities[row], zipCodes[row],
+        tables.withoutPostalCommunity[row],
+        communities == 0 ? null : LocalDate.ofEpochDay(tables.oldestLastUpdate[row]),
+        communities == 0 ? null : LocalDate.ofEpochDay(tables.latestLastUpdate[row]),
+        Collections.unmodifiableSortedMap(lastUpdatesByYear));
+  }
+
+  /**
+   * The political communities to aggregate and the row each one is aggregated into.
+   */
+  private static final class Input {
+
+    private final int rows;
+    private final PoliticalCommunity[] politicalCommunity;
+    private final int[] row;
+    private final Map<String, List<PostalCommunity>> postalCommunitiesByNumber;
+
+    private Input(int entries, int rows,
+        Map<String, List<PostalCommunity>> postalCommunitiesByNumber) {
+      this.rows = rows;
+      this.politicalCommunity = new PoliticalCommunity[entries];
+      this.row = new int[entries];
+      this.postalCommunitiesByNumber = postalCommunitiesByNumber;
+    }
+
+    /**
+     * Adds the political communities of a row from the given entry on.
+     *
+     * @return the entry following the last one added
+     */
+    private int add(int entry, int row, Set<PoliticalCommunity> politicalCommunities) {
+      for (PoliticalCommunity politicalCommunity : politicalCommunities) {
+        this.politicalCommunity[entry] = politicalCommunity;
+        this.row[entry] = row;
+        entry++;
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * The aggregates of a range of political communities, a row per canton and district.
+   */
+  private static final class Tables {
+
+    private final int[] politicalCommunities;
+    private final int[] postalCommunities;
+    private final int[] withoutPostalCommunity;
+    private final int[] oldestLastUpdate;
+    private final int[] latestLastUpdate;
+    private final BitSet[] zipCodes; // created on the first zip code of the row
+    // years entries per row from firstYear on, widened to the years seen
+    private int firstYear;
+    private int years;
+    private int[] lastUpdatesByYear;
+
+    private Tables(int rows) {
+      this.politicalCommunities = new int[rows];
+      this.postalCommunities = new int[rows];
+      this.withoutPostalCommunity = new int[rows];
+      this.oldestLastUpdate = new int[rows];
+      this.latestLastUpdate = new int[rows];
+      this.zipCodes = new BitSet[rows];
+      this.lastUpdatesByYear = new int[0];
+      Arrays.fill(oldestLastUpdate, Integer.MAX_VALUE);
+      Arrays.fill(latestLastUpdate, Integer.MIN_VALUE);
+    }
+
+    private void add(int row, PoliticalCommunity politicalCommunity,
+        List<PostalCommunity> postalCommunities) {
+      politicalCommunities[row]++;
+      this.postalCommunities[row] += postalCommunities.size();
+      if (postalCommunities.isEmpty()) {
+        withoutPostalCommunity[row]++;
+      }
+      LocalDate lastUpdate = politicalCommunity.getLastUpdate();
+      int epochDay = (int) lastUpdate.toEpochDay();
+      oldestLastUpdate[row] = Math.min(oldestLastUpdate[row], epochDay);
+      latestLastUpdate[row] = Math.max(latestLastUpdate[row], epochDay);
+      widen(lastUpdate.getYear(), lastUpdate.getYear());
+      lastUpdatesByYear[row * years + lastUpdate.getYear() - firstYear]++;
+      for (PostalCommunity postalCommunity : postalCommunities) {
+        int zip = ModelKeys.zipCode(postalCommunity.getZipCode());
+        if (zip != ModelKeys.NO_KEY) {
+          if (zipCodes[row] == null) {
+            zipCodes[row] = new BitSet(ModelKeys.ZIP_CODES);
+          }
+          zipCodes[row].set(zip);
+        }
+      }
+    }
+
+    /**
+     * Widens the years of the table to include the given ones.
+     */
+    private void widen(int fromYear, int toYear) {
+      int first = years == 0 ? fromYear : Math.min(firstYear, fromYear);
+      int count = Math.max(years == 0 ? toYear : firstYear + years - 1, toYear) - first + 1;
+      if (first == firstYear && count == years) {
+        return;
+      }
+      int[] widened = new int[politicalCommunities.length * count];
+      for (int row = 0; years > 0 && row < politicalCommunities.length; row++) {
+        System.arraycopy(lastUpdatesByYear, row * years, widened,
+            row * count + firstYear - first, years);
+      }
+      firstYear = first;
+      years = count;
+      lastUpdatesByYear = widened;
+    }
+
+    private Tables merge(Tables other) {
+      for (int row = 0; row < politicalCommunities.length; row++) {
+        politicalCommunities[row] += other.politicalCommunities[row];
+        postalCommunities[row] += other.postalCommunities[row];
+        withoutPostalCommunity[row] += other.withoutPostalCommunity[row];
+        oldestLastUpdate[row] = Math.min(oldestLastUpdate[row], other.oldestLastUpdate[row]);
+        latestLastUpdate[row] = Math.max(latestLastUpdate[row], other.latestLastUpdate[row]);
+        if (zipCodes[row] == null) {
+          zipCodes[row] = other.zipCodes[row];
+        } else if (other.zipCodes[row] != null) {
+          zipCodes[row].or(other.zipCodes[row]);
+        }
+      }
+      if (other.years > 0) {
+        widen(other.firstYear, other.firstYear + other.years - 1);
+        for (int row = 0; row < politicalCommunities.length; row++) {
+          for (int year = 0; year < other.years; year++) {
+            lastUpdatesByYear[row * years + other.firstYear - firstYear + year] +=
+                other.lastUpdatesByYear[row * other.years + year];
+          }
+        }
+      }
+      return this;
+    }
+  }
+
+  /**
+   * Aggregates a range of the input, splitting it in halves down to {@link #THRESHOLD} political
+   * communities. The leaves extract the attributes of their political communities: their last
+   * update and the zip codes of their postal communities.
+   */
+  private static final class Pass extends RecursiveTask<Tables> {
+
+    private final Input input;
+    private final int from;
+    private final int to;
+
+    private Pass(Input input, int from, int to) {
+      this.input = input;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Tables compute() {
+      if (to - from <= THRESHOLD) {
+        Tables tables = new Tables(input.rows);
+        for (int i = from; i < to; i++) {
+          tables.add(input.row[i], input.politicalCommunity[i],
+              input.postalCommunitiesByNumber.getOrDefault(
+                  input.politicalCommunity[i].getNumber(), List.of()));
+        }
+        return tables;
+      }
+      int middle = (from + to) >>> 1;
+      Pass left = new Pass(input, from, middle);
+      left.fork();
+      Tables right = new Pass(input, middle, to).compute();
+      return left.join().merge(right);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.model.imp.NameSuggestion.Kind;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Autocompletion of the political community names and short names and of the postal community
+ * names of a model.
+ *
+ * <p>The names are stored under their {@link ModelKeys#name(String) normalized key} in a sorted
+ * array: the names starting with a query are a range of the array, found by binary search, so
+ * "zur" proposes "Zürich". When fewer names than requested start with the query, the names whose
+ * beginning is within a small edit distance of the query are added ("zrich" proposes "Zürich").
+ * That search walks the sorted keys like a trie: the edit distance rows of the prefix shared with
+ * the previous key are reused, and all the keys below a prefix already too distant are skipped.
+ *
+ * <p>Immutable and thread safe, build a new index when the model changes.
+ */
+public final class NameAutocomplete {
+
+  private final String[] keys;
+  private final NameSuggestion[][] names;
+
+  private NameAutocomplete(String[] keys, NameSuggestion[][] names) {
+    this.keys = keys;
+    this.names = names;
+  }
+
+  /**
+   * Indexes the names of the model.
+   */
+  public static NameAutocomplete of(Model model) {
+    TreeMap<String, Map<String, Kind>> namesByKey = new TreeMap<>();
+    for (PoliticalCommunity politicalCommunity : model.getPoliticalCommunities()) {
+      add(namesByKey, politicalCommunity.getName(), Kind.POLITICAL_COMMUNITY);
+      add(namesByKey, politicalCommunity.getShortName(), Kind.POLITICAL_COMMUNITY_SHORT_NAME);
+    }
+    for (PostalCommunity postalCommunity : model.getPostalCommunities()) {
+      add(namesByKey, postalCommunity.getName(), Kind.POSTAL_COMMUNITY);
+    }
+    String[] keys = namesByKey.keySet().toArray(new String[0]);
+    NameSuggestion[][] names = new NameSuggestion[keys.length][];
+    for (int i = 0; i < keys.length; i++) {
+      names[i] = namesByKey.get(keys[i]).entrySet().stream()
+          .map(entry -> new NameSuggestion(entry.getKey(), entry.getValue(), 0))
+          .toArray(NameSuggestion[]::new);
+    }
+    return new NameAutocomplete(keys, names);
+  }
+
+  /**
+   * Returns the names starting with the query, ignoring case and diacritics, in alphabetical
+   * order. If there are less than {@code limit} of them, the names whose beginning is closest to
+   * the query follow: within 1 edit (insertion, deletion or substitution) for queries of 3 to 5
+   * characters, 2 for longer ones.
+   *
+   * @param query beginning of a name
+   * @param limit maximum amount of names returned
+   * @return the names, each with the kind of name it is
+   */
+  public List<NameSuggestion> complete(String query, int limit) {
+    String key = ModelKeys.name(query);
+    List<NameSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+    int from = lowerBound(key);
+    int to = prefixEnd(key, from);
+    for (int i = from; i < to && suggestions.size() < limit; i++) {
+      addAll(suggestions, names[i], limit);
+    }
+    int maxDistance = key.length() < 3 ? 0 : key.length() <= 5 ? 1 : 2;
+    if (suggestions.size() < limit && maxDistance > 0) {
+      addFuzzy(suggestions, key, maxDistance, limit);
+    }
+    return suggestions;
+  }
+
+  private void addFuzzy(List<NameSuggestion> suggestions, String query, int maxDistance,
+      int limit) {
+    // the closest keys, by distance, each distance in key order
+    List<List<Integer>> matches = new ArrayList<>();
+    for (int distance = 0; distance <= maxDistance; distance++) {
+      matches.add(new ArrayList<>(Math.min(limit, 16)));
+    }
+    int maxDepth = query.length() + maxDistance;
+    // rows[d][j]: edit distance between the first d characters of the key and of the query
+    int[][] rows = new int[maxDepth + 1][query.length() + 1];
+    for (int j = 0; j <= query.length(); j++) {
+      rows[0][j] = j;
+    }
+    // best[d]: smallest distance between the query and a prefix of the key of at most d chars
+    int[] best = new int[maxDepth + 1];
+    best[0] = query.length();
+    String previous = "";
+    int validDepth = 0;
+    int i = 0;
+    while (i < keys.length) {
+      String key = keys[i];
+      int depth = Math.min(commonPrefix(previous, key), validDepth);
+      int limitDepth = Math.min(key.length(), maxDepth);
+      boolean pruned = false;
+      while (depth < limitDepth) {
+        int[] above = rows[depth];
+        int[] row = rows[depth + 1];
+        char c = key.charAt(depth);
+        row[0] = depth + 1;
+        int rowMin = row[0];
+        for (int j = 1; j <= query.length(); j++) {
+          int cost = query.charAt(j - 1) == c ? 0 : 1;
+          row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+          rowMin = Math.min(rowMin, row[j]);
+        }
+        depth++;
+        best[depth] = Math.min(best[depth - 1], row[query.length()]);
+        if (rowMin > maxDistance) {
+          pruned = true;
+          break;
+        }
+      }
+      previous = key;
+      validDepth = depth;
+      // the keys sharing a prefix already too distant can't get closer: they all have the
+      // distance of this key
+      int end = pruned ? prefixEnd(key.substring(0, depth), i + 1) : i + 1;
+      int distance = best[depth];
+      if (distance > 0 && distance <= maxDistance) {
+        List<Integer> keysAtDistance = matches.get(distance);
+        for (int k = i; k < end && keysAtDistance.size() < limit; k++) {
+          keysAtDistance.add(k);
+        }
+      }
+      i = end;
+    }
+    for (int distance = 1; distance <= maxDistance; distance++) {
+      for (int index : matches.get(distance)) {
+        for (NameSuggestion name : names[index]) {
+          if (suggestions.size() >= limit) {
+            return;
+          }
+          suggestions.add(new NameSuggestion(name.getName(), name.getKind(), distance));
+        }
+      }
+    }
+  }
+
+  private static void add(Map<String, Map<String, Kind>> namesByKey, String name, Kind kind) {
+    // a name is proposed once, as the first kind it was added with
+    namesByKey.computeIfAbsent(ModelKeys.name(name), key -> new LinkedHashMap<>())
+        .putIfAbsent(name, kind);
+  }
+
+  private static void addAll(List<NameSuggestion> suggestions, NameSuggestion[] names,
+      int limit) {
+    for (int i = 0; i < names.length && suggestions.size() < limit; i++) {
+      suggestions.add(names[i]);
+    }
+  }
+
+  private int lowerBound(String key) {
+    int index = Arrays.binarySearch(keys, key);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  /**
+   * Returns the index of the first key from {@code from} on that doesn't start with the prefix.
+   */
+  private int prefixEnd(String prefix, int from) {
+    int low = from;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle].startsWith(prefix)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int commonPrefix(String left, String right) {
+    int length = Math.min(left.length(), right.length());
+    int i = 0;
+    while (i < length && left.charAt(i) == right.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+}
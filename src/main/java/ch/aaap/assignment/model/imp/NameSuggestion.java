@@ -0,0 +1,31 @@
+package ch.aaap.assignment.model.imp;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A name proposed by {@link NameAutocomplete}.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class NameSuggestion {
+
+  /**
+   * What the name is the name of.
+   */
+  public enum Kind {
+    POLITICAL_COMMUNITY,
+    POLITICAL_COMMUNITY_SHORT_NAME,
+    POSTAL_COMMUNITY
+  }
+
+  private String name;
+  private Kind kind;
+  // 0 for names starting with the query, else the edit distance to the closest prefix of the name
+  private int distance;
+
+}
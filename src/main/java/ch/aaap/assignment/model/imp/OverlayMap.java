@@ -0,0 +1,138 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable map made of a base map and the entries changed since, so that changing a few entries
+ * of a large map neither copies nor rehashes it.
+ *
+ * <p>Editing an overlay edits a copy of its changes over the same base, so overlays never stack:
+ * a lookup is at most two hash probes. Once the changes outgrow an eighth of the base, the edit
+ * returns a plain copy instead, so an edit costs the changes accumulated since the last copy,
+ * which is amortized over the edits.
+ */
+final class OverlayMap<K, V> extends AbstractMap<K, V> {
+
+  private final Map<K, V> base;
+  // the changed entries, a null value for the entries of the base removed
+  private final Map<K, V> changes;
+  private final int size;
+
+  private OverlayMap(Map<K, V> base, Map<K, V> changes, int size) {
+    this.base = base;
+    this.changes = changes;
+    this.size = size;
+  }
+
+  /**
+   * Returns an editor of the entries of the map, which is left unchanged.
+   */
+  static <K, V> Editor<K, V> edit(Map<K, V> map) {
+    return new Editor<>(map);
+  }
+
+  @Override
+  public V get(Object key) {
+    return changes.containsKey(key) ? changes.get(key) : base.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return changes.containsKey(key) ? changes.get(key) != null : base.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        // copied entries: the entries of the maps could be set
+        return Stream.concat(
+            base.entrySet().stream().filter(entry -> !changes.containsKey(entry.getKey())),
+            changes.entrySet().stream().filter(entry -> entry.getValue() != null))
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+            .iterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Collects the changes of a map, values and keys must not be null.
+   */
+  static final class Editor<K, V> {
+
+    private final Map<K, V> map;
+    private final Map<K, V> base;
+    private final Map<K, V> changes;
+    private int size;
+    private boolean edited;
+
+    private Editor(Map<K, V> map) {
+      this.map = map;
+      if (map instanceof OverlayMap) {
+        OverlayMap<K, V> overlay = (OverlayMap<K, V>) map;
+        this.base = overlay.base;
+        this.changes = new HashMap<>(overlay.changes);
+      } else {
+        this.base = map;
+        this.changes = new HashMap<>();
+      }
+      this.size = map.size();
+    }
+
+    V get(K key) {
+      return changes.containsKey(key) ? changes.get(key) : base.get(key);
+    }
+
+    void put(K key, V value) {
+      if (get(key) == null) {
+        size++;
+      }
+      changes.put(key, value);
+      edited = true;
+    }
+
+    void remove(K key) {
+      if (get(key) == null) {
+        return;
+      }
+      size--;
+      edited = true;
+      if (base.containsKey(key)) {
+        changes.put(key, null);
+      } else {
+        changes.remove(key);
+      }
+    }
+
+    /**
+     * Returns the edited map: the map itself if nothing changed.
+     */
+    Map<K, V> build() {
+      if (!edited) {
+        return map;
+      }
+      if (changes.isEmpty()) {
+        return base;
+      }
+      Map<K, V> overlay = new OverlayMap<>(base, changes, size);
+      return changes.size() > base.size() / 8 ? Map.copyOf(overlay) : overlay;
+    }
+  }
+}
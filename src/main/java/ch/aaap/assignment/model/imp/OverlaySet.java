@@ -0,0 +1,104 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable set made of a base set and the elements added and removed since, the set counterpart
+ * of {@link OverlayMap}.
+ */
+final class OverlaySet<E> extends AbstractSet<E> {
+
+  private final Set<E> base;
+  // the elements not in the base added, and the elements of the base removed
+  private final Set<E> added;
+  private final Set<E> removed;
+
+  private OverlaySet(Set<E> base, Set<E> added, Set<E> removed) {
+    this.base = base;
+    this.added = added;
+    this.removed = removed;
+  }
+
+  /**
+   * Returns an editor of the elements of the set, which is left unchanged.
+   */
+  static <E> Editor<E> edit(Set<E> set) {
+    return new Editor<>(set);
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return added.contains(element) || base.contains(element) && !removed.contains(element);
+  }
+
+  @Override
+  public int size() {
+    return base.size() + added.size() - removed.size();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return Stream.concat(base.stream().filter(element -> !removed.contains(element)),
+        added.stream()).iterator();
+  }
+
+  /**
+   * Collects the changes of a set, elements must not be null.
+   */
+  static final class Editor<E> {
+
+    private final Set<E> set;
+    private final Set<E> base;
+    private final Set<E> added;
+    private final Set<E> removed;
+    private boolean edited;
+
+    private Editor(Set<E> set) {
+      this.set = set;
+      if (set instanceof OverlaySet) {
+        OverlaySet<E> overlay = (OverlaySet<E>) set;
+        this.base = overlay.base;
+        this.added = new HashSet<>(overlay.added);
+        this.removed = new HashSet<>(overlay.removed);
+      } else {
+        this.base = set;
+        this.added = new HashSet<>();
+        this.removed = new HashSet<>();
+      }
+    }
+
+    boolean contains(E element) {
+      return added.contains(element) || base.contains(element) && !removed.contains(element);
+    }
+
+    void add(E element) {
+      edited |= base.contains(element) ? removed.remove(element) : added.add(element);
+    }
+
+    void remove(E element) {
+      edited |= added.remove(element) || base.contains(element) && removed.add(element);
+    }
+
+    boolean isEmpty() {
+      return base.size() + added.size() - removed.size() == 0;
+    }
+
+    /**
+     * Returns the edited set: the set itself if nothing changed.
+     */
+    Set<E> build() {
+      if (!edited) {
+        return set;
+      }
+      if (added.isEmpty() && removed.isEmpty()) {
+        return base;
+      }
+      Set<E> overlay = new OverlaySet<>(base, added, removed);
+      return added.size() + removed.size() > base.size() / 8 ? Set.copyOf(overlay) : overlay;
+    }
+  }
+}
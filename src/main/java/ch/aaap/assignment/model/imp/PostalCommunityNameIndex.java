@@ -0,0 +1,72 @@
+package ch.aaap.assignment.model.imp;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Most recent update of the political communities of a postal community name.
+ *
+ * <p>The names are stored under their {@link ModelKeys#name(String) normalized key} and the
+ * date is resolved when the index is built, so a lookup is a single hash probe.
+ */
+final class PostalCommunityNameIndex {
+
+  private final Map<String, LocalDate> lastUpdateByName;
+
+  private PostalCommunityNameIndex(Map<String, LocalDate> lastUpdateByName) {
+    this.lastUpdateByName = lastUpdateByName;
+  }
+
+  /**
+   * Returns the most recent update of the political communities of the postal community name,
+   * null if the name is unknown.
+   */
+  LocalDate lastUpdate(String postalCommunityName) {
+    return lastUpdateByName.get(ModelKeys.name(postalCommunityName));
+  }
+
+  /**
+   * Returns an index with the last update of the given normalized names replaced, a null date
+   * removing the name.
+   */
+  PostalCommunityNameIndex with(Map<String, LocalDate> lastUpdateByNameKey) {
+    OverlayMap.Editor<String, LocalDate> lastUpdates = OverlayMap.edit(lastUpdateByName);
+    lastUpdateByNameKey.forEach((key, lastUpdate) -> {
+      if (lastUpdate == null) {
+        lastUpdates.remove(key);
+      } else {
+        lastUpdates.put(key, lastUpdate);
+      }
+    });
+    return new PostalCommunityNameIndex(lastUpdates.build());
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  static final class Builder {
+
+    private final Map<String, LocalDate> lastUpdateByName = new HashMap<>();
+
+    private Builder() {
+
+    }
+
+    /**
+     * Adds the last update of a political community of the postal community name.
+     */
+    Builder add(String postalCommunityName, LocalDate lastUpdate) {
+      // a postal community name can correspond to multiple political communities, we keep the
+      // most recent update (same rule as ModelImp#getLastUpdateByPostalCommunityName)
+      lastUpdateByName.merge(ModelKeys.name(postalCommunityName), lastUpdate,
+          (left, right) -> left.isAfter(right) ? left : right);
+      return this;
+    }
+
+    PostalCommunityNameIndex build() {
+      return new PostalCommunityNameIndex(Map.copyOf(lastUpdateByName));
+    }
+  }
+}
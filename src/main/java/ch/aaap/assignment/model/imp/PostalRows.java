@@ -0,0 +1,117 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The postal rows of a model grouped by zip code, by normalized name and by political community
+ * number: the rows an incremental update has to look at again.
+ *
+ * <p>Immutable: {@link #with(Set, Set)} returns new groupings sharing the groups it doesn't touch,
+ * see {@link OverlayMap}.
+ */
+final class PostalRows {
+
+  private final Map<Integer, Set<CSVPostalCommunity>> byZipCode;
+  private final Map<String, Set<CSVPostalCommunity>> byName;
+  private final Map<String, Set<CSVPostalCommunity>> byPoliticalCommunityNumber;
+
+  private PostalRows(Map<Integer, Set<CSVPostalCommunity>> byZipCode,
+      Map<String, Set<CSVPostalCommunity>> byName,
+      Map<String, Set<CSVPostalCommunity>> byPoliticalCommunityNumber) {
+    this.byZipCode = byZipCode;
+    this.byName = byName;
+    this.byPoliticalCommunityNumber = byPoliticalCommunityNumber;
+  }
+
+  static PostalRows of(Set<CSVPostalCommunity> csvPostalCommunities) {
+    return new PostalRows(Map.of(), Map.of(), Map.of()).with(csvPostalCommunities, Set.of());
+  }
+
+  /**
+   * Returns the rows of the 4 digit zip code, rows of invalid zip codes are not grouped.
+   */
+  Set<CSVPostalCommunity> ofZipCode(int zipCode) {
+    return byZipCode.getOrDefault(zipCode, Set.of());
+  }
+
+  /**
+   * Returns the rows of the {@link ModelKeys#name(String) normalized name}.
+   */
+  Set<CSVPostalCommunity> ofName(String nameKey) {
+    return byName.getOrDefault(nameKey, Set.of());
+  }
+
+  Set<CSVPostalCommunity> ofPoliticalCommunity(String number) {
+    return byPoliticalCommunityNumber.getOrDefault(number, Set.of());
+  }
+
+  /**
+   * Returns all the rows.
+   */
+  Set<CSVPostalCommunity> all() {
+    Set<CSVPostalCommunity> all = new HashSet<>();
+    byPoliticalCommunityNumber.values().forEach(all::addAll);
+    return all;
+  }
+
+  /**
+   * Returns the groupings with the given rows added and removed.
+   */
+  PostalRows with(Set<CSVPostalCommunity> added, Set<CSVPostalCommunity> removed) {
+    if (added.isEmpty() && removed.isEmpty()) {
+      return this;
+    }
+    return new PostalRows(
+        regroup(byZipCode, added, removed, PostalRows::zipCode),
+        regroup(byName, added, removed, row -> ModelKeys.name(row.getName())),
+        regroup(byPoliticalCommunityNumber, added, removed,
+            CSVPostalCommunity::getPoliticalCommunityNumber));
+  }
+
+  /**
+   * Returns the groupings as an overlay of the groups the rows change over the given ones.
+   */
+  private static <K> Map<K, Set<CSVPostalCommunity>> regroup(
+      Map<K, Set<CSVPostalCommunity>> groups, Set<CSVPostalCommunity> added,
+      Set<CSVPostalCommunity> removed, Function<CSVPostalCommunity, K> key) {
+    Map<K, OverlaySet.Editor<CSVPostalCommunity>> changed = new HashMap<>();
+    // rows without key are not grouped
+    for (CSVPostalCommunity row : removed) {
+      K k = key.apply(row);
+      if (k != null) {
+        group(changed, groups, k).remove(row);
+      }
+    }
+    for (CSVPostalCommunity row : added) {
+      K k = key.apply(row);
+      if (k != null) {
+        group(changed, groups, k).add(row);
+      }
+    }
+    OverlayMap.Editor<K, Set<CSVPostalCommunity>> regrouped = OverlayMap.edit(groups);
+    changed.forEach((k, group) -> {
+      if (group.isEmpty()) {
+        regrouped.remove(k);
+      } else {
+        regrouped.put(k, group.build());
+      }
+    });
+    return regrouped.build();
+  }
+
+  private static <K> OverlaySet.Editor<CSVPostalCommunity> group(
+      Map<K, OverlaySet.Editor<CSVPostalCommunity>> changed,
+      Map<K, Set<CSVPostalCommunity>> groups, K key) {
+    return changed.computeIfAbsent(key, k -> OverlaySet.edit(groups.getOrDefault(k, Set.of())));
+  }
+
+  private static Integer zipCode(CSVPostalCommunity row) {
+    int zipCode = ModelKeys.zipCode(row.getZipCode());
+    return zipCode == ModelKeys.NO_KEY ? null : zipCode;
+  }
+}
@@ -0,0 +1,101 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the calls to one query of an {@link InstrumentedModel}.
+ *
+ * <p>The counters are {@link LongAdder}s and the durations go to a {@link LatencyHistogram}:
+ * recording a call takes no lock, and threads recording concurrently don't contend.
+ */
+public final class QueryStats implements QueryStatsMXBean {
+
+  private final String query;
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  QueryStats(String query) {
+    this.query = query;
+  }
+
+  /**
+   * Records a call that returned.
+   */
+  void record(long nanos, long bytes) {
+    latencies.record(nanos);
+    totalNanos.add(nanos);
+    if (bytes > 0) {
+      allocatedBytes.add(bytes);
+    }
+  }
+
+  /**
+   * Records a call that threw the exception.
+   */
+  void record(long nanos, long bytes, RuntimeException exception) {
+    record(nanos, bytes);
+    if (exception instanceof IllegalArgumentException) {
+      misses.increment();
+    } else {
+      errors.increment();
+    }
+  }
+
+  @Override
+  public String getQuery() {
+    return query;
+  }
+
+  @Override
+  public long getCalls() {
+    return latencies.count();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public double getMeanNanos() {
+    long calls = getCalls();
+    return calls == 0 ? 0 : (double) totalNanos.sum() / calls;
+  }
+
+  @Override
+  public long getP50Nanos() {
+    return latencies.percentile(50);
+  }
+
+  @Override
+  public long getP99Nanos() {
+    return latencies.percentile(99);
+  }
+
+  @Override
+  public long getMaxNanos() {
+    return latencies.max();
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  @Override
+  public void reset() {
+    latencies.reset();
+    misses.reset();
+    errors.reset();
+    totalNanos.reset();
+    allocatedBytes.reset();
+  }
+}
@@ -0,0 +1,58 @@
+package ch.aaap.assignment.model.imp;
+
+/**
+ * Statistics of the calls to one {@link ch.aaap.assignment.model.Model} query, as exposed by JMX.
+ */
+public interface QueryStatsMXBean {
+
+  /**
+   * Returns the name of the query, the name of the Model method.
+   */
+  String getQuery();
+
+  /**
+   * Returns the amount of calls, failed ones included.
+   */
+  long getCalls();
+
+  /**
+   * Returns the amount of calls that threw an {@link IllegalArgumentException}, e.g. for an
+   * unknown zip code.
+   */
+  long getMisses();
+
+  /**
+   * Returns the amount of calls that threw any other exception.
+   */
+  long getErrors();
+
+  /**
+   * Returns the mean duration of the calls, in nanoseconds.
+   */
+  double getMeanNanos();
+
+  /**
+   * Returns the median duration of the calls, in nanoseconds, within 12.5%.
+   */
+  long getP50Nanos();
+
+  /**
+   * Returns the 99th percentile of the durations of the calls, in nanoseconds, within 12.5%.
+   */
+  long getP99Nanos();
+
+  /**
+   * Returns the longest call, in nanoseconds.
+   */
+  long getMaxNanos();
+
+  /**
+   * Returns the bytes allocated by the calls, 0 if allocations are not tracked.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Forgets the calls recorded so far.
+   */
+  void reset();
+}
@@ -0,0 +1,311 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.District;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import ch.aaap.assignment.raw.StringPool;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Model whose data can be replaced while it is being queried.
+ *
+ * <p>Every query is delegated to the current model, held by a volatile reference. A reload reads
+ * the new csv files and builds a complete {@link IndexedModelImp} in the background, then swaps
+ * the reference: queries never block and never see a half built model, a query started before
+ * the swap completes on the previous model. Models are immutable, so callers needing several
+ * consistent answers query the model returned by {@link #getModel()}.
+ *
+ * <p>It can also compute the {@link ModelStatistics} of every model before swapping it in, so the
+ * statistics are published with the model they describe and never computed on a query.
+ */
+public final class ReloadableModel implements Model {
+
+  private final AtomicLong reloads = new AtomicLong();
+  private final boolean statistics;
+  private volatile Version current;
+
+  /**
+   * Serves the given model until the first reload.
+   */
+  public ReloadableModel(Model model) {
+    this(model, false);
+  }
+
+  /**
+   * Serves the given model until the first reload.
+   *
+   * @param statistics whether to compute the statistics of every model served
+   */
+  public ReloadableModel(Model model, boolean statistics) {
+    this.statistics = statistics;
+    this.current = new Version(model, statistics(model), 0, 0);
+  }
+
+  /**
+   * Returns the model currently served.
+   */
+  public Model getModel() {
+    return current.model;
+  }
+
+  /**
+   * Returns the version of the model currently served, incremented by every swap.
+   */
+  public long getVersion() {
+    return current.version;
+  }
+
+  /**
+   * Returns the statistics of the model currently served.
+   *
+   * @throws IllegalStateException if the statistics are not computed
+   */
+  public ModelStatistics getStatistics() {
+    if (!statistics) {
+      throw new IllegalStateException("Can't find statistics, they are not computed");
+    }
+    return current.statistics;
+  }
+
+  /**
+   * Reads the csv files and builds the new model on the executor, then swaps it in. If reloads
+   * overlap, the model of the most recently started one is kept.
+   *
+   * @param politicalCommunitiesCsv GDE csv file
+   * @param postalCommunitiesCsv PLZ6 csv file
+   * @param executor executor running the loading and indexing
+   * @return the version of the new model, completed exceptionally if the files can't be read, in
+   *     which case the current model is kept
+   */
+  public CompletableFuture<Long> reload(Path politicalCommunitiesCsv, Path postalCommunitiesCsv,
+      Executor executor) {
+    long reload = reloads.incrementAndGet();
+    return CompletableFuture.supplyAsync(
+        () -> load(politicalCommunitiesCsv, postalCommunitiesCsv), executor)
+        .thenApply(model -> swap(model, statistics(model), reload));
+  }
+
+  /**
+   * Swaps in an already built model.
+   *
+   * @return the version of the given model
+   */
+  public long replace(Model model) {
+    return swap(model, statistics(model), reloads.incrementAndGet());
+  }
+
+  /**
+   * Applies the delta to the current model and swaps the result in, see
+   * {@link IndexedModelImp#apply(ModelDelta)}. A reload started before and completing after is
+   * discarded.
+   *
+   * @return the version of the updated model
+   * @throws IllegalStateException if the current model is not an {@link IndexedModelImp}
+   */
+  public synchronized long apply(ModelDelta delta) {
+    Model model = current.model;
+    if (!(model instanceof IndexedModelImp)) {
+      throw new IllegalStateException(
+          String.format("Can't apply a delta to %s", model.getClass().getSimpleName()));
+    }
+    Model updated = ((IndexedModelImp) model).apply(delta);
+    return swap(updated, statistics(updated), reloads.incrementAndGet());
+  }
+
+  /**
+   * Reads the csv files and builds a model of them.
+   */
+  static Model load(Path politicalCommunitiesCsv, Path postalCommunitiesCsv) {
+    StringPool pool = new StringPool();
+    Set<CSVPoliticalCommunity> csvPoliticalCommunities =
+        CSVFastLoader.getPoliticalCommunities(politicalCommunitiesCsv, pool);
+    Set<CSVPostalCommunity> csvPostalCommunities =
+        CSVFastLoader.getPostalCommunities(postalCommunitiesCsv, pool);
+    return new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities);
+  }
+
+  private ModelStatistics statistics(Model model) {
+    return statistics ? ModelStatistics.of(model) : null;
+  }
+
+  private synchronized long swap(Model model, ModelStatistics statistics, long reload) {
+    Version previous = current;
+    if (reload < previous.reload) {
+      // a more recent reload already completed
+      return previous.version;
+    }
+    current = new Version(model, statistics, previous.version + 1, reload);
+    return current.version;
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunities() {
+    return current.model.getPoliticalCommunities();
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunities() {
+    return current.model.getPostalCommunities();
+  }
+
+  @Override
+  public Set<Canton> getCantons() {
+    return current.model.getCantons();
+  }
+
+  @Override
+  public Set<District> getDistricts() {
+    return current.model.getDistricts();
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByCanton() {
+    return current.model.getPoliticalCommunitiesByCanton();
+  }
+
+  @Override
+  public Map<String, Set<District>> getDistrictsByCanton() {
+    return current.model.getDistrictsByCanton();
+  }
+
+  @Override
+  public Map<String, Set<PoliticalCommunity>> getPoliticalCommunitiesByDistrict() {
+    return current.model.getPoliticalCommunitiesByDistrict();
+  }
+
+  @Override
+  public String getDistrictByZipCode(String zipCode) {
+    return current.model.getDistrictByZipCode(zipCode);
+  }
+
+  @Override
+  public LocalDate getLastUpdateByPostalCommunityName(String postalCommunityName) {
+    return current.model.getLastUpdateByPostalCommunityName(postalCommunityName);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesWithoutPostalCommunity() {
+    return current.model.getPoliticalCommunitiesWithoutPostalCommunity();
+  }
+
+  @Override
+  public Set<String> getAllDistrictsByZipCode(String zipCode) {
+    return current.model.getAllDistrictsByZipCode(zipCode);
+  }
+
+  @Override
+  public Map<String, Double> getDistrictDistributionByZipCode(String zipCode) {
+    return current.model.getDistrictDistributionByZipCode(zipCode);
+  }
+
+  @Override
+  public PoliticalCommunity getPoliticalCommunityByZipCode(String zipCode) {
+    return current.model.getPoliticalCommunityByZipCode(zipCode);
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByCanton(String cantonCode) {
+    return current.model.countPoliticalCommunitiesByCanton(cantonCode);
+  }
+
+  @Override
+  public int countDistrictsByCanton(String cantonCode) {
+    return current.model.countDistrictsByCanton(cantonCode);
+  }
+
+  @Override
+  public int countPoliticalCommunitiesByDistrict(String districtNumber) {
+    return current.model.countPoliticalCommunitiesByDistrict(districtNumber);
+  }
+
+  @Override
+  public String[] getDistrictsByZipCodes(String[] zipCodes) {
+    return current.model.getDistrictsByZipCodes(zipCodes);
+  }
+
+  @Override
+  public LocalDate[] getLastUpdatesByPostalCommunityNames(String[] postalCommunityNames) {
+    return current.model.getLastUpdatesByPostalCommunityNames(postalCommunityNames);
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodeRange(String fromZipCode,
+      String toZipCode) {
+    return current.model.getPostalCommunitiesByZipCodeRange(fromZipCode, toZipCode);
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByZipCodePrefix(String zipCodePrefix) {
+    return current.model.getPostalCommunitiesByZipCodePrefix(zipCodePrefix);
+  }
+
+  @Override
+  public Set<String> getDistrictsByZipCodeRange(String fromZipCode, String toZipCode) {
+    return current.model.getDistrictsByZipCodeRange(fromZipCode, toZipCode);
+  }
+
+  @Override
+  public Set<String> getDistrictsByZipCodePrefix(String zipCodePrefix) {
+    return current.model.getDistrictsByZipCodePrefix(zipCodePrefix);
+  }
+
+  @Override
+  public Set<PostalCommunity> getPostalCommunitiesByPoliticalCommunity(
+      String politicalCommunityNumber) {
+    return current.model.getPostalCommunitiesByPoliticalCommunity(politicalCommunityNumber);
+  }
+
+  @Override
+  public Set<String> getZipCodesByPoliticalCommunity(String politicalCommunityNumber) {
+    return current.model.getZipCodesByPoliticalCommunity(politicalCommunityNumber);
+  }
+
+  @Override
+  public District getDistrictByPoliticalCommunity(String politicalCommunityNumber) {
+    return current.model.getDistrictByPoliticalCommunity(politicalCommunityNumber);
+  }
+
+  @Override
+  public Canton getCantonByDistrict(String districtNumber) {
+    return current.model.getCantonByDistrict(districtNumber);
+  }
+
+  @Override
+  public Set<PoliticalCommunity> getPoliticalCommunitiesByZipCode(String zipCode) {
+    return current.model.getPoliticalCommunitiesByZipCode(zipCode);
+  }
+
+  @Override
+  public Set<Canton> getCantonsByZipCode(String zipCode) {
+    return current.model.getCantonsByZipCode(zipCode);
+  }
+
+  /**
+   * A served model, its statistics, its version and the reload it comes from.
+   */
+  private static final class Version {
+
+    private final Model model;
+    private final ModelStatistics statistics;
+    private final long version;
+    private final long reload;
+
+    private Version(Model model, ModelStatistics statistics, long version, long reload) {
+      this.model = model;
+      this.statistics = statistics;
+      this.version = version;
+      this.reload = reload;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import ch.aaap.assignment.raw.StringPool;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Successive versions of the model, each valid from a date until the next one, to answer the
+ * queries as of a past date (e.g. the district of a zip code before a community merger).
+ *
+ * <p>A version is stored as the delta from the version in effect before it, applied with
+ * {@link IndexedModelImp#apply(ModelDelta)}: the communities, groups and index entries a new
+ * version doesn't change are shared with the previous one instead of being duplicated. Finding
+ * the version of a date is a lookup in a sorted map, logarithmic in the number of versions, and
+ * the version then answers as fast as any {@link IndexedModelImp}.
+ *
+ * <p>Versions can be added while the model is queried: the versions are held by a volatile
+ * reference to an immutable map, replaced on each addition.
+ */
+public final class VersionedModel {
+
+  private volatile NavigableMap<LocalDate, IndexedModelImp> versions =
+      Collections.emptyNavigableMap();
+
+  /**
+   * Adds the version built from the given rows, valid from the given date, replacing a version of
+   * the same date. It is stored as the delta from the version in effect at that date, or from the
+   * first version if it becomes the first one.
+   *
+   * @return the model of the version
+   */
+  public synchronized Model addVersion(LocalDate validFrom,
+      Set<CSVPoliticalCommunity> csvPoliticalCommunities,
+      Set<CSVPostalCommunity> csvPostalCommunities) {
+    Map.Entry<LocalDate, IndexedModelImp> base = versions.floorEntry(validFrom);
+    if (base == null) {
+      base = versions.ceilingEntry(validFrom);
+    }
+    IndexedModelImp version = base == null
+        ? new IndexedModelImp(csvPoliticalCommunities, csvPostalCommunities)
+        : base.getValue().apply(
+            base.getValue().deltaTo(csvPoliticalCommunities, csvPostalCommunities));
+    return put(validFrom, version);
+  }
+
+  /**
+   * Adds the version read from the given GDE and PLZ6 csv files, see
+   * {@link #addVersion(LocalDate, Set, Set)}.
+   *
+   * @return the model of the version
+   */
+  public Model addVersion(LocalDate validFrom, Path politicalCommunitiesCsv,
+      Path postalCommunitiesCsv) {
+    StringPool pool = new StringPool();
+    Set<CSVPoliticalCommunity> csvPoliticalCommunities =
+        CSVFastLoader.getPoliticalCommunities(politicalCommunitiesCsv, pool);
+    Set<CSVPostalCommunity> csvPostalCommunities =
+        CSVFastLoader.getPostalCommunities(postalCommunitiesCsv, pool);
+    return addVersion(validFrom, csvPoliticalCommunities, csvPostalCommunities);
+  }
+
+  /**
+   * Adds a version valid from the given date, after the last one, made of the last version with
+   * the delta applied.
+   *
+   * @return the model of the version
+   * @throws IllegalArgumentException if there is no version yet, or a version from a later date
+   */
+  public synchronized Model addVersion(LocalDate validFrom, ModelDelta delta) {
+    if (versions.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format("Can't find a version to apply the delta of %s to", validFrom));
+    }
+    if (!validFrom.isAfter(versions.lastKey())) {
+      throw new IllegalArgumentException(String.format(
+          "Can't apply the delta of %s before the last version of %s", validFrom,
+          versions.lastKey()));
+    }
+    return put(validFrom, versions.lastEntry().getValue().apply(delta));
+  }
+
+  /**
+   * Returns the model as of the given date, the version with the latest date before or on it.
+   *
+   * @throws IllegalArgumentException if the date is before the first version
+   */
+  public Model asOf(LocalDate date) {
+    Map.Entry<LocalDate, IndexedModelImp> version = versions.floorEntry(date);
+    if (version == null) {
+      throw new IllegalArgumentException(String.format("Can't find version as of %s", date));
+    }
+    return version.getValue();
+  }
+
+  /**
+   * Returns the dates the versions are valid from, in ascending order.
+   */
+  public NavigableSet<LocalDate> getValidFromDates() {
+    return versions.navigableKeySet();
+  }
+
+  private Model put(LocalDate validFrom, IndexedModelImp version) {
+    TreeMap<LocalDate, IndexedModelImp> updated = new TreeMap<>(versions);
+    updated.put(validFrom, version);
+    versions = Collections.unmodifiableNavigableMap(updated);
+    return version;
+  }
+}
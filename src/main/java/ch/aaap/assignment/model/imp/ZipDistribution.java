@@ -0,0 +1,182 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a zip code is shared between districts, weighted by the {@code %_IN_GDE} column of its
+ * postal rows.
+ *
+ * <p>The weight of a political community in a zip code is the sum of the percentages of the rows
+ * of the zip code lying in it, the weight of a district the sum of the weights of its political
+ * communities. The dominant district is the heaviest, ties going to the lowest district number;
+ * the dominant political community is the heaviest of the dominant district, ties going to the
+ * lowest number. Neither depends on the order the rows are read in.
+ */
+final class ZipDistribution {
+
+  private static final Comparator<CSVPostalCommunity> ROW_ORDER = Comparator
+      .comparing(CSVPostalCommunity::getZipCodeAddition, Comparator.nullsFirst(String::compareTo))
+      .thenComparing(CSVPostalCommunity::getPoliticalCommunityNumber,
+          Comparator.nullsFirst(String::compareTo))
+      .thenComparing(CSVPostalCommunity::getName, Comparator.nullsFirst(String::compareTo))
+      .thenComparingDouble(CSVPostalCommunity::getPercentageInPoliticalCommunity);
+
+  // by descending weight, the dominant district first
+  private final String[] districtNumbers;
+  private final String[] districtNames;
+  // share of each district in the weight of the zip code, summing to 1
+  private final double[] districtShares;
+  private final String politicalCommunityNumber;
+  private final Map<String, Double> districtSharesByName;
+
+  private ZipDistribution(String[] districtNumbers, String[] districtNames,
+      double[] districtShares, String politicalCommunityNumber) {
+    this.districtNumbers = districtNumbers;
+    this.districtNames = districtNames;
+    this.districtShares = districtShares;
+    this.politicalCommunityNumber = politicalCommunityNumber;
+    Map<String, Double> sharesByName = new LinkedHashMap<>();
+    for (int i = 0; i < districtNames.length; i++) {
+      sharesByName.merge(districtNames[i], districtShares[i], Double::sum);
+    }
+    this.districtSharesByName = Collections.unmodifiableMap(sharesByName);
+  }
+
+  /**
+   * Returns the distribution of each 4 digit zip code of the rows, rows of invalid zip codes or of
+   * unknown political communities are left out.
+   */
+  static Map<Integer, ZipDistribution> byZipCode(Collection<CSVPostalCommunity> rows,
+      Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber) {
+    Map<Integer, List<CSVPostalCommunity>> rowsByZip = new HashMap<>();
+    for (CSVPostalCommunity row : rows) {
+      int zip = ModelKeys.zipCode(row.getZipCode());
+      if (zip != ModelKeys.NO_KEY) {
+        rowsByZip.computeIfAbsent(zip, key -> new ArrayList<>()).add(row);
+      }
+    }
+    Map<Integer, ZipDistribution> distributions = new HashMap<>();
+    rowsByZip.forEach((zip, rowsOfZip) -> {
+      ZipDistribution distribution = of(rowsOfZip, csvPoliticalCommunitiesByNumber);
+      if (distribution != null) {
+        distributions.put(zip, distribution);
+      }
+    });
+    return distributions;
+  }
+
+  /**
+   * Returns the distribution of the rows of a zip code, null if none of them has a known
+   * political community.
+   */
+  static ZipDistribution of(Collection<CSVPostalCommunity> rowsOfZip,
+      Map<String, CSVPoliticalCommunity> csvPoliticalCommunitiesByNumber) {
+    Map<String, Double> communityWeights = new HashMap<>();
+    Map<String, Double> districtWeights = new HashMap<>();
+    Map<String, CSVPoliticalCommunity> districts = new HashMap<>();
+    // summed in a fixed order, so the shares are the same whatever order the rows come in
+    List<CSVPostalCommunity> rows = new ArrayList<>(rowsOfZip);
+    rows.sort(ROW_ORDER);
+    for (CSVPostalCommunity row : rows) {
+      CSVPoliticalCommunity csvPoliticalCommunity =
+          csvPoliticalCommunitiesByNumber.get(row.getPoliticalCommunityNumber());
+      if (csvPoliticalCommunity != null) {
+        double weight = row.getPercentageInPoliticalCommunity();
+        communityWeights.merge(csvPoliticalCommunity.getNumber(), weight, Double::sum);
+        districtWeights.merge(csvPoliticalCommunity.getDistrictNumber(), weight, Double::sum);
+        districts.putIfAbsent(csvPoliticalCommunity.getDistrictNumber(), csvPoliticalCommunity);
+      }
+    }
+    if (districts.isEmpty()) {
+      return null;
+    }
+    List<String> numbers = new ArrayList<>(districts.keySet());
+    numbers.sort(heaviestFirst(districtWeights));
+    String dominantDistrict = numbers.get(0);
+    String politicalCommunityNumber = communityWeights.keySet().stream()
+        .filter(number -> dominantDistrict.equals(
+            csvPoliticalCommunitiesByNumber.get(number).getDistrictNumber()))
+        .min(heaviestFirst(communityWeights))
+        .orElseThrow();
+
+    double total = districtWeights.values().stream().mapToDouble(Double::doubleValue).sum();
+    String[] districtNumbers = numbers.toArray(new String[0]);
+    String[] districtNames = new String[districtNumbers.length];
+    double[] districtShares = new double[districtNumbers.length];
+    for (int i = 0; i < districtNumbers.length; i++) {
+      districtNames[i] = districts.get(districtNumbers[i]).getDistrictName();
+      // without any weight, the districts share the zip code evenly
+      districtShares[i] = total > 0 ? districtWeights.get(districtNumbers[i]) / total
+          : 1.0 / districtNumbers.length;
+    }
+    return new ZipDistribution(districtNumbers, districtNames, districtShares,
+        politicalCommunityNumber);
+  }
+
+  /**
+   * Returns the name of the dominant district.
+   */
+  String districtName() {
+    return districtNames[0];
+  }
+
+  /**
+   * Returns the name of a district, by descending weight.
+   */
+  String districtName(int district) {
+    return districtNames[district];
+  }
+
+  /**
+   * Returns the number of the dominant political community.
+   */
+  String politicalCommunityNumber() {
+    return politicalCommunityNumber;
+  }
+
+  /**
+   * Returns the share of each district name, the dominant one first.
+   */
+  Map<String, Double> districtShares() {
+    return districtSharesByName;
+  }
+
+  /**
+   * Returns the amount of districts.
+   */
+  int size() {
+    return districtNumbers.length;
+  }
+
+  /**
+   * Returns the number of a district, by descending weight.
+   */
+  String districtNumber(int district) {
+    return districtNumbers[district];
+  }
+
+  /**
+   * Returns the share of a district, by descending weight.
+   */
+  double districtShare(int district) {
+    return districtShares[district];
+  }
+
+  /**
+   * Orders the numbers by descending weight, then ascending number.
+   */
+  private static Comparator<String> heaviestFirst(Map<String, Double> weights) {
+    return Comparator.comparing((String number) -> weights.get(number), Comparator.reverseOrder())
+        .thenComparingInt(ModelKeys::digits)
+        .thenComparing(Comparator.naturalOrder());
+  }
+}
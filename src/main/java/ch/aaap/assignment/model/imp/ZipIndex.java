@@ -0,0 +1,95 @@
+package ch.aaap.assignment.model.imp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * District names by zip code, stored in arrays indexed by the 4 digit zip code itself.
+ *
+ * <p>A lookup is an array access: no string hashing and no allocation. The district names are
+ * interned and zip codes having the same districts share the same immutable set, so the index
+ * holds roughly one set per district plus the few sets of zip codes spanning several districts.
+ * The {@link ZipDistribution} of each zip code gives its dominant district and political
+ * community.
+ */
+final class ZipIndex {
+
+  private final Set<String>[] districtNames;
+  private final ZipDistribution[] distributions;
+
+  private ZipIndex(Set<String>[] districtNames, ZipDistribution[] distributions) {
+    this.districtNames = districtNames;
+    this.distributions = distributions;
+  }
+
+  /**
+   * Indexes the distributions of the zip codes.
+   */
+  @SuppressWarnings("unchecked")
+  static ZipIndex of(Map<Integer, ZipDistribution> distributionsByZip) {
+    return new ZipIndex(new Set[ModelKeys.ZIP_CODES],
+        new ZipDistribution[ModelKeys.ZIP_CODES]).with(distributionsByZip);
+  }
+
+  /**
+   * Returns the district names of the zip code, null if the zip code is unknown.
+   */
+  Set<String> districtNames(String zipCode) {
+    return districtNames(ModelKeys.zipCode(zipCode));
+  }
+
+  /**
+   * Returns the district names of the 4 digit zip code, null if the zip code is unknown.
+   */
+  Set<String> districtNames(int zipCode) {
+    return zipCode == ModelKeys.NO_KEY ? null : districtNames[zipCode];
+  }
+
+  /**
+   * Returns the dominant district name of the zip code, null if the zip code is unknown.
+   */
+  String districtName(String zipCode) {
+    return districtName(ModelKeys.zipCode(zipCode));
+  }
+
+  /**
+   * Returns the dominant district name of the 4 digit zip code, null if the zip code is unknown.
+   */
+  String districtName(int zipCode) {
+    ZipDistribution distribution = distribution(zipCode);
+    return distribution == null ? null : distribution.districtName();
+  }
+
+  /**
+   * Returns the distribution of the 4 digit zip code, null if the zip code is unknown.
+   */
+  ZipDistribution distribution(int zipCode) {
+    return zipCode == ModelKeys.NO_KEY ? null : distributions[zipCode];
+  }
+
+  /**
+   * Returns an index with the distributions of the given zip codes replaced, a null distribution
+   * removing the zip code. The entries of the other zip codes are shared.
+   */
+  ZipIndex with(Map<Integer, ZipDistribution> distributionsByZip) {
+    Set<String>[] names = districtNames.clone();
+    ZipDistribution[] distribution = distributions.clone();
+    Map<Set<String>, Set<String>> sharedSets = new HashMap<>();
+    Map<String, String> sharedNames = new HashMap<>();
+    distributionsByZip.forEach((zip, zipDistribution) -> {
+      distribution[zip] = zipDistribution;
+      if (zipDistribution == null) {
+        names[zip] = null;
+      } else {
+        String[] interned = new String[zipDistribution.size()];
+        for (int i = 0; i < interned.length; i++) {
+          interned[i] = sharedNames.computeIfAbsent(zipDistribution.districtName(i), n -> n);
+        }
+        names[zip] = sharedSets.computeIfAbsent(Set.copyOf(Arrays.asList(interned)), set -> set);
+      }
+    });
+    return new ZipIndex(names, distribution);
+  }
+}
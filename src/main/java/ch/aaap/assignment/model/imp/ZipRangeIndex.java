@@ -0,0 +1,133 @@
+package ch.aaap.assignment.model.imp;
+
+import ch.aaap.assignment.model.PostalCommunity;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Postal communities sorted by zip code, next to a primitive array of their zip codes.
+ *
+ * <p>The postal communities of a zip code range are the range of the array between the binary
+ * searched positions of its bounds, so a range or prefix query costs two binary searches and
+ * returns a view over that range: nothing is copied, however large the range.
+ */
+final class ZipRangeIndex {
+
+  /**
+   * Order of the postal communities of a zip code range: by zip code, addition, then name.
+   */
+  static final Comparator<PostalCommunity> ORDER = Comparator
+      .comparing(PostalCommunity::getZipCode)
+      .thenComparing(PostalCommunity::getZipCodeAddition,
+          Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(PostalCommunity::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final int[] zipCodes;
+  private final PostalCommunity[] postalCommunities;
+
+  private ZipRangeIndex(PostalCommunity[] sorted) {
+    this.zipCodes = new int[sorted.length];
+    for (int i = 0; i < sorted.length; i++) {
+      zipCodes[i] = ModelKeys.zipCode(sorted[i].getZipCode());
+    }
+    this.postalCommunities = sorted;
+  }
+
+  /**
+   * Indexes the postal communities, the ones without a 4 digit zip code are left out.
+   */
+  static ZipRangeIndex of(Collection<PostalCommunity> postalCommunities) {
+    return new ZipRangeIndex(sorted(postalCommunities));
+  }
+
+  /**
+   * Returns the index with the given postal communities added and removed. Only the added ones
+   * are sorted, then merged into the sorted ones in a single pass that skips the removed ones.
+   */
+  ZipRangeIndex with(Collection<PostalCommunity> added, Set<PostalCommunity> removed) {
+    if (added.isEmpty() && removed.isEmpty()) {
+      return this;
+    }
+    PostalCommunity[] sortedAdded = sorted(added);
+    PostalCommunity[] merged = new PostalCommunity[postalCommunities.length + sortedAdded.length];
+    int size = 0;
+    int next = 0;
+    for (PostalCommunity postalCommunity : postalCommunities) {
+      if (removed.contains(postalCommunity)) {
+        continue;
+      }
+      while (next < sortedAdded.length && ORDER.compare(sortedAdded[next], postalCommunity) < 0) {
+        merged[size++] = sortedAdded[next++];
+      }
+      merged[size++] = postalCommunity;
+    }
+    while (next < sortedAdded.length) {
+      merged[size++] = sortedAdded[next++];
+    }
+    return new ZipRangeIndex(Arrays.copyOf(merged, size));
+  }
+
+  /**
+   * Returns a view of the postal communities of the zip codes from {@code from} to {@code to}
+   * included, in ascending zip code order.
+   */
+  Set<PostalCommunity> postalCommunities(int from, int to) {
+    int start = start(from);
+    return new IndexSet<>(start, end(start, to), i -> postalCommunities[i]);
+  }
+
+  /**
+   * Returns a view of the district names of the zip codes from {@code from} to {@code to}
+   * included, in ascending zip code order, as resolved by the zip index.
+   */
+  Set<String> districtNames(int from, int to, ZipIndex zipIndex) {
+    int start = start(from);
+    int end = end(start, to);
+    return new DistinctSet<>(() -> IntStream.range(start, end)
+        .filter(i -> i == start || zipCodes[i] != zipCodes[i - 1])
+        .mapToObj(i -> zipIndex.districtNames(zipCodes[i]))
+        .filter(Objects::nonNull)
+        .flatMap(Set::stream)
+        .iterator());
+  }
+
+  /**
+   * Returns the postal communities with a 4 digit zip code, sorted.
+   */
+  private static PostalCommunity[] sorted(Collection<PostalCommunity> postalCommunities) {
+    return postalCommunities.stream()
+        .filter(postalCommunity ->
+            ModelKeys.zipCode(postalCommunity.getZipCode()) != ModelKeys.NO_KEY)
+        .sorted(ORDER)
+        .toArray(PostalCommunity[]::new);
+  }
+
+  /**
+   * Returns the position after the last zip code less than or equal to {@code to}, not before
+   * {@code start} for empty ranges.
+   */
+  private int end(int start, int to) {
+    return Math.max(start, start(to + 1));
+  }
+
+  /**
+   * Returns the position of the first zip code greater than or equal to the given one.
+   */
+  private int start(int zipCode) {
+    int low = 0;
+    int high = zipCodes.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (zipCodes[middle] < zipCode) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
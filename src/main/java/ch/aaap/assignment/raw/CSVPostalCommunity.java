@@ -16,6 +16,9 @@ public class CSVPostalCommunity {
   // PLZNAMK
   private String name;
 
+  // %_IN_GDE, share of the postal community lying in the political community, in percent
+  private double percentageInPoliticalCommunity;
+
   // KTKZ
   private String cantonCode;
 
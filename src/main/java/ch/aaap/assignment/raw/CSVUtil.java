@@ -77,6 +77,7 @@ public class CSVUtil {
                 .zipCode(record.get("PLZ4"))
                 .zipCodeAddition(record.get("PLZZ"))
                 .name(record.get("PLZNAMK"))
+                .percentageInPoliticalCommunity(Double.parseDouble(record.get("%_IN_GDE")))
                 .cantonCode(record.get("KTKZ"))
                 .politicalCommunityShortName(record.get("GDENAMK"))
                 .politicalCommunityNumber(record.get("GDENR"))
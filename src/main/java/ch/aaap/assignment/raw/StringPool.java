@@ -0,0 +1,98 @@
+package ch.aaap.assignment.raw;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary of the strings read from the csv files, so that values repeated on many rows (canton
+ * codes and names, district numbers and names, community numbers and short names, zip codes...)
+ * are held by a single String instance.
+ *
+ * <p>Values are looked up by their UTF-8 bytes, a repeated value is therefore neither decoded nor
+ * allocated again. A pool is only needed while loading: once the rows are built it can be
+ * dropped, the rows keep referencing the shared instances. Not thread safe.
+ */
+public class StringPool {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private byte[][] keys = new byte[INITIAL_CAPACITY][];
+  private String[] values = new String[INITIAL_CAPACITY];
+  private int[] hashes = new int[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Returns the pooled string of the UTF-8 bytes in the given range.
+   */
+  public String get(byte[] data, int offset, int length) {
+    int hash = hash(data, offset, length);
+    int mask = keys.length - 1;
+    int slot = hash & mask;
+    while (keys[slot] != null) {
+      if (hashes[slot] == hash
+          && Arrays.equals(keys[slot], 0, keys[slot].length, data, offset, offset + length)) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    String value = new String(data, offset, length, StandardCharsets.UTF_8);
+    add(slot, hash, Arrays.copyOfRange(data, offset, offset + length), value);
+    return value;
+  }
+
+  /**
+   * Returns the pooled instance equal to the given string.
+   */
+  public String get(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return get(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Returns the amount of distinct strings in the pool.
+   */
+  public int size() {
+    return size;
+  }
+
+  private void add(int slot, int hash, byte[] key, String value) {
+    keys[slot] = key;
+    values[slot] = value;
+    hashes[slot] = hash;
+    size++;
+    // keep the table at most half full
+    if (size * 2 > keys.length) {
+      resize();
+    }
+  }
+
+  private void resize() {
+    byte[][] oldKeys = keys;
+    String[] oldValues = values;
+    int[] oldHashes = hashes;
+    keys = new byte[oldKeys.length * 2][];
+    values = new String[oldKeys.length * 2];
+    hashes = new int[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = oldHashes[i] & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+        hashes[slot] = oldHashes[i];
+      }
+    }
+  }
+
+  private static int hash(byte[] data, int offset, int length) {
+    int hash = 1;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + data[i];
+    }
+    // spread the low bits used to address the table
+    return hash ^ (hash >>> 16);
+  }
+}
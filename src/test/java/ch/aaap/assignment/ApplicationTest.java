@@ -1,9 +1,14 @@
 package ch.aaap.assignment;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.ModelStatistics;
+import ch.aaap.assignment.raw.CSVFastLoader;
 import org.junit.jupiter.api.Test;
 
 public class ApplicationTest {
@@ -117,4 +122,19 @@ public class ApplicationTest {
         sut.getAmountOfPoliticalCommunityWithoutPostalCommunities(),
         "Correct amount of political communities without postal communities");
   }
+
+  @Test
+  public void returnsStatisticsOfCurrentModel() {
+    assertEquals(162, sut.getStatistics().ofCanton("ZH").getPoliticalCommunities());
+    assertSame(sut.getStatistics(), sut.getStatistics());
+    assertEquals(3, sut.getStatistics().getCantonCodes().stream()
+        .mapToInt(cantonCode -> sut.getStatistics().ofCanton(cantonCode)
+            .getPoliticalCommunitiesWithoutPostalCommunity())
+        .sum());
+
+    ModelStatistics before = sut.getStatistics();
+    sut.getModel().replace(new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+        CSVFastLoader.getPostalCommunities()));
+    assertNotSame(before, sut.getStatistics());
+  }
 }
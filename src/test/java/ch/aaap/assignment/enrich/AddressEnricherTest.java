@@ -0,0 +1,97 @@
+package ch.aaap.assignment.enrich;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class AddressEnricherTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void appendsDistrictCantonAndPoliticalCommunityOfZipCode() throws IOException {
+    String input = "name,PLZ,street\n"
+        + "Anna,8305,Bahnhofstrasse 1\n"
+        + "\"Muster, Hans\",\"8001\",\"Line 1\nLine 2\"\n"
+        + "Bob,9999,Nowhere\n"
+        + "Eve\n";
+    StringWriter output = new StringWriter();
+
+    long rows = new AddressEnricher(MODEL, executor, 1, 2)
+        .enrich(new StringReader(input), output, "plz");
+
+    assertEquals(4, rows);
+    String[] lines = output.toString().split("\n", -1);
+    assertEquals("name,PLZ,street,district_number,district_name,canton_code,"
+        + "political_community_number,political_community_name", lines[0]);
+    assertEquals("Anna,8305,Bahnhofstrasse 1,"
+        + district("8305") + ",ZH,54,Dietlikon", lines[1]);
+    assertEquals("\"Muster, Hans\",\"8001\",\"Line 1", lines[2]);
+    assertEquals("Line 2\"," + district("8001") + ",ZH,261,Zürich", lines[3]);
+    assertEquals("Bob,9999,Nowhere,,,,,", lines[4]);
+    assertEquals("Eve,,,,,", lines[5]);
+    assertEquals("", lines[6]);
+  }
+
+  @Test
+  public void preservesInputOrderAcrossChunks() throws IOException {
+    String[] zipCodes = {"8305", "1008", "3000", "9999", "6500", "1200"};
+    StringBuilder input = new StringBuilder("id,zip\n");
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      String zipCode = zipCodes[i % zipCodes.length];
+      input.append(i).append(',').append(zipCode).append('\n');
+      expected.append(i).append(',').append(zipCode).append(',');
+      String districtName = MODEL.getDistrictsByZipCodes(new String[] {zipCode})[0];
+      expected.append(districtName == null ? "" : districtName).append('\n');
+    }
+    StringWriter output = new StringWriter();
+
+    new AddressEnricher(MODEL, executor, 7, 3).enrich(new StringReader(input.toString()), output,
+        "zip");
+
+    StringBuilder actual = new StringBuilder();
+    String[] lines = output.toString().split("\n");
+    for (int i = 1; i < lines.length; i++) {
+      String[] fields = lines[i].split(",", -1);
+      actual.append(fields[0]).append(',').append(fields[1]).append(',').append(fields[3])
+          .append('\n');
+    }
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void rejectsUnknownZipColumn() {
+    AddressEnricher enricher = new AddressEnricher(MODEL, executor, 16, 2);
+    assertThrows(IllegalArgumentException.class,
+        () -> enricher.enrich(new StringReader("a,b\n1,2\n"), new StringWriter(), "zip"));
+  }
+
+  private static String district(String zipCode) {
+    String name = MODEL.getDistrictByZipCode(zipCode);
+    String number = MODEL.getDistricts().stream()
+        .filter(district -> district.getName().equals(name))
+        .findFirst()
+        .orElseThrow()
+        .getNumber();
+    return number + "," + name;
+  }
+}
@@ -0,0 +1,119 @@
+package ch.aaap.assignment.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.Application;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class QueryServerTest {
+
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+  private static Application application;
+  private static QueryServer server;
+
+  @BeforeAll
+  public static void startServer() throws IOException {
+    application = new Application();
+    server = new QueryServer(application, new InetSocketAddress("localhost", 0));
+    server.start();
+  }
+
+  @AfterAll
+  public static void stopServer() {
+    server.close();
+  }
+
+  @Test
+  public void answersAggregates() throws Exception {
+    assertEquals("{\"count\":26}", get("/cantons/count").body());
+    assertEquals("{\"count\":"
+        + application.getAmountOfPoliticalCommunityWithoutPostalCommunities() + "}",
+        get("/political-communities/without-postal-community/count").body());
+  }
+
+  @Test
+  public void answersCachedListings() throws Exception {
+    String cantons = get("/cantons").body();
+    assertTrue(cantons.startsWith("{\"cantons\":[{\"code\":\"AG\",\"name\":\"Aargau\"},"));
+    String districts = get("/cantons/ZH/districts").body();
+    assertTrue(districts.startsWith("{\"districts\":[{\"number\":\"101\","), districts);
+    assertTrue(get("/cantons/ZH/political-communities").body()
+        .startsWith("{\"politicalCommunities\":[{\"number\":\"1\","
+            + "\"name\":\"Aeugst am Albis\""));
+    assertTrue(get("/political-communities/without-postal-community").body()
+        .startsWith("{\"politicalCommunities\":["));
+    assertEquals(404, get("/cantons/XX/districts").statusCode());
+
+    long hits = server.getResponseCache().getHits();
+    assertEquals(cantons, get("/cantons").body());
+    assertEquals(districts, get("/cantons//ZH/districts/").body());
+    assertEquals(hits + 2, server.getResponseCache().getHits());
+    assertTrue(get("/cache/stats").body().contains("\"hits\":" + (hits + 2) + ","));
+  }
+
+  @Test
+  public void answersCounts() throws Exception {
+    assertEquals("{\"count\":" + application.getAmountOfPoliticalCommunitiesInCanton("ZH") + "}",
+        get("/cantons/ZH/political-communities/count").body());
+    assertEquals("{\"count\":" + application.getAmountOfDistrictsInCanton("ZH") + "}",
+        get("/cantons/ZH/districts/count").body());
+    assertEquals("{\"count\":" + application.getAmountOfPoliticalCommunitiesInDistrict("101")
+        + "}", get("/districts/101/political-communities/count").body());
+  }
+
+  @Test
+  public void answersZipCodeQueries() throws Exception {
+    HttpResponse<String> district = get("/zip-codes/8305/district");
+    assertEquals(200, district.statusCode());
+    assertEquals("application/json; charset=utf-8",
+        district.headers().firstValue("Content-Type").orElseThrow());
+    assertEquals("{\"zipCode\":\"8305\",\"district\":\"Bezirk Bülach\"}", district.body());
+    assertEquals("{\"zipCode\":\"8305\",\"districts\":[\"Bezirk Bülach\"]}",
+        get("/zip-codes/8305/districts").body());
+    assertEquals("{\"zipCode\":\"8305\",\"districts\":{\"Bezirk Bülach\":1.0}}",
+        get("/zip-codes/8305/distribution").body());
+  }
+
+  @Test
+  public void answersLastUpdateOfDecodedName() throws Exception {
+    assertEquals("{\"postalCommunityName\":\"Zürich\",\"lastUpdate\":\""
+        + application.getLastUpdateOfPoliticalCommunityByPostalCommunityName("Zürich") + "\"}",
+        get("/postal-communities/Z%C3%BCrich/last-update").body());
+  }
+
+  @Test
+  public void answersNotFoundForUnknownKeysAndPaths() throws Exception {
+    HttpResponse<String> unknownZipCode = get("/zip-codes/9999/district");
+    assertEquals(404, unknownZipCode.statusCode());
+    assertTrue(unknownZipCode.body().startsWith("{\"error\":\"Can't find"));
+    assertEquals(404, get("/cantons/XX/districts/count").statusCode());
+    assertEquals(404, get("/nowhere").statusCode());
+  }
+
+  @Test
+  public void rejectsOtherMethods() throws Exception {
+    HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(uri("/cantons/count"))
+        .POST(HttpRequest.BodyPublishers.noBody()).build(), BodyHandlers.ofString());
+    assertEquals(405, response.statusCode());
+    assertEquals("GET", response.headers().firstValue("Allow").orElseThrow());
+  }
+
+  private static HttpResponse<String> get(String path) throws Exception {
+    return CLIENT.send(HttpRequest.newBuilder(uri(path)).build(), BodyHandlers.ofString());
+  }
+
+  private static URI uri(String path) {
+    return URI.create("http://localhost:" + server.getPort() + path);
+  }
+}
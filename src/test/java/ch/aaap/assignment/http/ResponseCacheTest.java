@@ -0,0 +1,74 @@
+package ch.aaap.assignment.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.imp.IndexedModelImp;
+import ch.aaap.assignment.model.imp.ReloadableModel;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ResponseCacheTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  private final AtomicInteger encodings = new AtomicInteger();
+
+  @Test
+  public void encodesOncePerQueryAndVersion() {
+    ResponseCache cache = new ResponseCache(new ReloadableModel(MODEL));
+
+    byte[] first = cache.get("cantons/count", this::cantonCount);
+    byte[] second = cache.get("cantons/count", this::cantonCount);
+    cache.get("other", this::cantonCount);
+
+    assertSame(first, second);
+    assertArrayEquals("26".getBytes(StandardCharsets.UTF_8), first);
+    assertEquals(2, encodings.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(2, cache.size());
+    assertEquals(0, cache.getVersion());
+  }
+
+  @Test
+  public void invalidatesOnModelReplacement() {
+    ReloadableModel model = new ReloadableModel(MODEL);
+    ResponseCache cache = new ResponseCache(model);
+    byte[] before = cache.get("cantons/count", this::cantonCount);
+
+    long version = model.replace(MODEL);
+    byte[] after = cache.get("cantons/count", this::cantonCount);
+
+    assertArrayEquals(before, after);
+    assertEquals(2, encodings.get());
+    assertEquals(version, cache.getVersion());
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void doesNotCacheFailures() {
+    ResponseCache cache = new ResponseCache(new ReloadableModel(MODEL));
+
+    for (int i = 0; i < 2; i++) {
+      assertThrows(IllegalArgumentException.class, () -> cache.get("cantons/XX/count",
+          model -> new byte[model.countDistrictsByCanton("XX")]));
+    }
+
+    assertEquals(0, cache.size());
+    assertEquals(2, cache.getMisses());
+  }
+
+  private byte[] cantonCount(Model model) {
+    encodings.incrementAndGet();
+    return String.valueOf(model.getCantons().size()).getBytes(StandardCharsets.UTF_8);
+  }
+}
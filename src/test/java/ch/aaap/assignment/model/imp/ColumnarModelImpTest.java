@@ -0,0 +1,170 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Canton;
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarModelImpTest {
+
+  private static final Set<CSVPoliticalCommunity> POLITICAL_COMMUNITIES =
+      CSVFastLoader.getPoliticalCommunities();
+  private static final Set<CSVPostalCommunity> POSTAL_COMMUNITIES =
+      CSVFastLoader.getPostalCommunities();
+
+  /* The reference implementation */
+  Model reference = new IndexedModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+  /* The system under test */
+  Model sut = new ColumnarModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+  @Test
+  public void viewsHaveSameContentAsIndexedModel() {
+    assertEquals(reference.getPoliticalCommunities(), sut.getPoliticalCommunities());
+    assertEquals(reference.getPostalCommunities(), sut.getPostalCommunities());
+    assertEquals(reference.getCantons(), sut.getCantons());
+    assertEquals(reference.getDistricts(), sut.getDistricts());
+    assertEquals(reference.getPoliticalCommunitiesWithoutPostalCommunity(),
+        sut.getPoliticalCommunitiesWithoutPostalCommunity());
+  }
+
+  @Test
+  public void viewsAreEqualToEntitiesOfSameValues() {
+    Model rebuilt = new ColumnarModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+    for (Model other : List.of(reference, rebuilt)) {
+      assertEquals(sut.getCantons(), other.getCantons());
+      assertEquals(other.getCantons(), sut.getCantons());
+      assertEquals(sut.getPoliticalCommunities(), other.getPoliticalCommunities());
+      assertEquals(other.getPoliticalCommunities(), sut.getPoliticalCommunities());
+      assertEquals(sut.getPostalCommunities(), other.getPostalCommunities());
+      assertEquals(other.getPostalCommunities(), sut.getPostalCommunities());
+    }
+    Canton zurich = sut.getCantonByDistrict("101");
+    assertEquals(CantonImp.builder().code("ZH").name("Zürich").build(), zurich);
+    assertEquals(zurich, CantonImp.builder().code("ZH").name("Zürich").build());
+    assertEquals(CantonImp.builder().code("ZH").name("Zürich").build().hashCode(),
+        zurich.hashCode());
+    assertTrue(Set.copyOf(reference.getDistricts())
+        .contains(sut.getDistrictByPoliticalCommunity("1")));
+    assertEquals("Canton(code=ZH, name=Zürich)", zurich.toString());
+  }
+
+  @Test
+  public void groupsLikeIndexedModel() {
+    assertEquals(reference.getPoliticalCommunitiesByCanton(),
+        sut.getPoliticalCommunitiesByCanton());
+    assertEquals(reference.getPoliticalCommunitiesByDistrict(),
+        sut.getPoliticalCommunitiesByDistrict());
+    assertEquals(reference.getDistrictsByCanton(), sut.getDistrictsByCanton());
+    for (String cantonCode : reference.getDistrictsByCanton().keySet()) {
+      assertEquals(reference.countDistrictsByCanton(cantonCode),
+          sut.countDistrictsByCanton(cantonCode));
+      assertEquals(reference.countPoliticalCommunitiesByCanton(cantonCode),
+          sut.countPoliticalCommunitiesByCanton(cantonCode));
+    }
+    assertEquals(14, sut.countPoliticalCommunitiesByDistrict("101"));
+    assertThrows(IllegalArgumentException.class, () -> sut.countDistrictsByCanton("XX"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.countPoliticalCommunitiesByDistrict("9999"));
+  }
+
+  @Test
+  public void resolvesZipCodesAndNamesLikeIndexedModel() {
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(reference.getAllDistrictsByZipCode(zipCode),
+          Set.copyOf(sut.getAllDistrictsByZipCode(zipCode)));
+      assertEquals(reference.getLastUpdateByPostalCommunityName(csvPostalCommunity.getName()),
+          sut.getLastUpdateByPostalCommunityName(csvPostalCommunity.getName()));
+    }
+    assertThrows(IllegalArgumentException.class, () -> sut.getDistrictByZipCode("9999"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getLastUpdateByPostalCommunityName("Los Angeles"));
+  }
+
+  @Test
+  public void resolvesBatchesLikeIndexedModel() {
+    String[] zipCodes = POSTAL_COMMUNITIES.stream()
+        .map(CSVPostalCommunity::getZipCode)
+        .toArray(String[]::new);
+    String[] names = POSTAL_COMMUNITIES.stream()
+        .map(CSVPostalCommunity::getName)
+        .toArray(String[]::new);
+    assertArrayEquals(reference.getLastUpdatesByPostalCommunityNames(names),
+        sut.getLastUpdatesByPostalCommunityNames(names));
+    assertArrayEquals(new LocalDate[] {null, LocalDate.of(2016, 4, 10), null},
+        sut.getLastUpdatesByPostalCommunityNames(new String[] {null, "Vergeletto", "Los Angeles"}));
+    assertArrayEquals(new String[] {null, "Bezirk Bülach", null, null},
+        sut.getDistrictsByZipCodes(new String[] {"9999", "8305", "abc", null}));
+    assertEquals(zipCodes.length, sut.getDistrictsByZipCodes(zipCodes).length);
+  }
+
+  @Test
+  public void queriesZipCodeRangesLikeIndexedModel() {
+    String[][] ranges = {{"8000", "8099"}, {"0000", "9999"}, {"8305", "8305"}, {"8100", "8000"}};
+    for (String[] range : ranges) {
+      assertEquals(reference.getPostalCommunitiesByZipCodeRange(range[0], range[1]),
+          sut.getPostalCommunitiesByZipCodeRange(range[0], range[1]));
+      assertEquals(reference.getDistrictsByZipCodeRange(range[0], range[1]),
+          sut.getDistrictsByZipCodeRange(range[0], range[1]));
+    }
+    assertEquals(reference.getDistrictsByZipCodePrefix("3").size(),
+        sut.getDistrictsByZipCodePrefix("3").size());
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getDistrictsByZipCodeRange("8000", "x"));
+  }
+
+  @Test
+  public void resolvesDominantDistrictsLikeIndexedModel() {
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(reference.getDistrictByZipCode(zipCode), sut.getDistrictByZipCode(zipCode));
+      assertEquals(reference.getDistrictDistributionByZipCode(zipCode),
+          sut.getDistrictDistributionByZipCode(zipCode));
+      assertEquals(reference.getPoliticalCommunityByZipCode(zipCode),
+          sut.getPoliticalCommunityByZipCode(zipCode));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPoliticalCommunityByZipCode("9999"));
+  }
+
+  @Test
+  public void navigatesLikeIndexedModel() {
+    for (PoliticalCommunity politicalCommunity : reference.getPoliticalCommunities()) {
+      String number = politicalCommunity.getNumber();
+      assertEquals(reference.getPostalCommunitiesByPoliticalCommunity(number),
+          sut.getPostalCommunitiesByPoliticalCommunity(number));
+      assertEquals(List.copyOf(reference.getZipCodesByPoliticalCommunity(number)),
+          List.copyOf(sut.getZipCodesByPoliticalCommunity(number)));
+      assertEquals(reference.getDistrictByPoliticalCommunity(number),
+          sut.getDistrictByPoliticalCommunity(number));
+    }
+    for (String districtNumber : reference.getPoliticalCommunitiesByDistrict().keySet()) {
+      assertEquals(reference.getCantonByDistrict(districtNumber),
+          sut.getCantonByDistrict(districtNumber));
+    }
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(List.copyOf(reference.getPoliticalCommunitiesByZipCode(zipCode)),
+          List.copyOf(sut.getPoliticalCommunitiesByZipCode(zipCode)));
+      assertEquals(List.copyOf(reference.getCantonsByZipCode(zipCode)),
+          List.copyOf(sut.getCantonsByZipCode(zipCode)));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getDistrictByPoliticalCommunity("99999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getCantonByDistrict("9999"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPoliticalCommunitiesByZipCode("9999"));
+  }
+}
@@ -0,0 +1,87 @@
+package ch.aaap.assignment.model.imp;
+
+import static ch.aaap.assignment.model.imp.CommunityFilter.all;
+import static ch.aaap.assignment.model.imp.CommunityFilter.inCanton;
+import static ch.aaap.assignment.model.imp.CommunityFilter.inDistrict;
+import static ch.aaap.assignment.model.imp.CommunityFilter.updatedAfter;
+import static ch.aaap.assignment.model.imp.CommunityFilter.updatedBetween;
+import static ch.aaap.assignment.model.imp.CommunityFilter.withPostalCommunity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class CommunityFilterIndexTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  /* The system under test */
+  static CommunityFilterIndex sut = CommunityFilterIndex.of(MODEL);
+
+  @Test
+  public void evaluatesCombinedPredicatesLikeStreams() {
+    Set<PoliticalCommunity> zurich = MODEL.getPoliticalCommunitiesByCanton().get("ZH");
+    Set<PoliticalCommunity> bern = MODEL.getPoliticalCommunitiesByCanton().get("BE");
+    Set<PoliticalCommunity> withoutPostal = MODEL.getPoliticalCommunitiesWithoutPostalCommunity();
+    CommunityFilter filter = inCanton("ZH").or(inCanton("BE"))
+        .and(updatedAfter(2015))
+        .and(withPostalCommunity().not());
+
+    List<PoliticalCommunity> expected = sorted(politicalCommunity ->
+        (zurich.contains(politicalCommunity) || bern.contains(politicalCommunity))
+            && politicalCommunity.getLastUpdate().getYear() > 2015
+            && withoutPostal.contains(politicalCommunity));
+
+    assertTrue(sut.count(inCanton("ZH").and(updatedAfter(2015))) > expected.size());
+    assertEquals(expected, List.copyOf(sut.filter(filter)));
+    assertEquals(expected.size(), sut.count(filter));
+  }
+
+  @Test
+  public void evaluatesEachPredicate() {
+    assertEquals(MODEL.getPoliticalCommunities().size(), sut.count(all()));
+    assertEquals(MODEL.countPoliticalCommunitiesByCanton("ZH"), sut.count(inCanton("ZH")));
+    assertEquals(MODEL.countPoliticalCommunitiesByDistrict("101"), sut.count(inDistrict("101")));
+    assertEquals(MODEL.getPoliticalCommunitiesWithoutPostalCommunity(),
+        sut.filter(withPostalCommunity().not()));
+    assertEquals(sorted(politicalCommunity -> politicalCommunity.getLastUpdate().getYear() >= 2000
+            && politicalCommunity.getLastUpdate().getYear() <= 2010),
+        List.copyOf(sut.filter(updatedBetween(2000, 2010))));
+    assertEquals(0, sut.count(updatedBetween(2010, 2000)));
+    assertEquals(0, sut.count(updatedAfter(Integer.MAX_VALUE)));
+    assertEquals(sut.count(all()), sut.count(updatedAfter(Integer.MIN_VALUE)));
+    assertEquals(0, sut.count(inCanton("ZH").and(inCanton("ZH").not())));
+    assertEquals(sut.count(all()), sut.count(inCanton("ZH").or(inCanton("ZH").not())));
+  }
+
+  @Test
+  public void returnsCommunitiesInNumberOrder() {
+    List<PoliticalCommunity> affoltern = List.copyOf(sut.filter(inDistrict("101")));
+    assertEquals("1", affoltern.get(0).getNumber());
+    assertEquals(sorted(MODEL.getPoliticalCommunitiesByDistrict().get("101")::contains), affoltern);
+  }
+
+  @Test
+  public void throwsForUnknownCantonsAndDistricts() {
+    assertThrows(IllegalArgumentException.class, () -> sut.count(inCanton("XX")));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.filter(all().and(inDistrict("9999"))));
+  }
+
+  private static List<PoliticalCommunity> sorted(Predicate<PoliticalCommunity> predicate) {
+    return MODEL.getPoliticalCommunities().stream()
+        .filter(predicate)
+        .sorted((first, second) -> Integer.compare(Integer.parseInt(first.getNumber()),
+            Integer.parseInt(second.getNumber())))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,462 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import ch.aaap.assignment.raw.CSVUtil;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class IndexedModelImpTest {
+
+  private static final Set<CSVPoliticalCommunity> POLITICAL_COMMUNITIES =
+      CSVUtil.getPoliticalCommunities();
+  private static final Set<CSVPostalCommunity> POSTAL_COMMUNITIES = CSVUtil.getPostalCommunities();
+
+  /* The reference implementation */
+  Model reference = new ModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+  /* The system under test */
+  Model sut = new IndexedModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+  @Test
+  public void returnsSameInstancesOnEveryCall() {
+    assertSame(sut.getPoliticalCommunities(), sut.getPoliticalCommunities());
+    assertSame(sut.getPoliticalCommunitiesByCanton(), sut.getPoliticalCommunitiesByCanton());
+    assertSame(sut.getAllDistrictsByZipCode("1008"), sut.getAllDistrictsByZipCode("1008"));
+  }
+
+  @Test
+  public void groupsLikeReferenceModel() {
+    assertEquals(reference.getCantons(), sut.getCantons());
+    assertEquals(reference.getDistricts(), sut.getDistricts());
+    assertEquals(reference.getPostalCommunities(), sut.getPostalCommunities());
+    assertEquals(reference.getDistrictsByCanton(), sut.getDistrictsByCanton());
+    assertEquals(reference.getPoliticalCommunities(), sut.getPoliticalCommunities());
+    assertEquals(reference.getPoliticalCommunitiesByCanton(),
+        sut.getPoliticalCommunitiesByCanton());
+    assertEquals(reference.getPoliticalCommunitiesByDistrict(),
+        sut.getPoliticalCommunitiesByDistrict());
+    assertEquals(reference.getPoliticalCommunitiesWithoutPostalCommunity(),
+        sut.getPoliticalCommunitiesWithoutPostalCommunity());
+  }
+
+  @Test
+  public void keepsNameAndShortNameApart() {
+    for (Model model : List.of(reference, sut)) {
+      PoliticalCommunity vuisternens = model.getPoliticalCommunities().stream()
+          .filter(politicalCommunity -> politicalCommunity.getNumber().equals("2113"))
+          .findAny()
+          .orElseThrow();
+      assertEquals("Vuisternens-devant-Romont", vuisternens.getName());
+      assertEquals("Vuisternens-dev-Romont", vuisternens.getShortName());
+    }
+  }
+
+  @Test
+  public void resolvesZipCodesAndNamesLikeReferenceModel() {
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      String name = csvPostalCommunity.getName();
+      assertEquals(reference.getAllDistrictsByZipCode(zipCode),
+          sut.getAllDistrictsByZipCode(zipCode));
+      assertEquals(reference.getLastUpdateByPostalCommunityName(name),
+          sut.getLastUpdateByPostalCommunityName(name));
+    }
+    for (String zipCode : zipCodes(sut.getPostalCommunities())) {
+      assertEquals(reference.getDistrictByZipCode(zipCode), sut.getDistrictByZipCode(zipCode));
+      assertEquals(reference.getDistrictDistributionByZipCode(zipCode),
+          sut.getDistrictDistributionByZipCode(zipCode));
+      assertEquals(reference.getPoliticalCommunityByZipCode(zipCode).getNumber(),
+          sut.getPoliticalCommunityByZipCode(zipCode).getNumber());
+    }
+    assertThrows(IllegalArgumentException.class, () -> sut.getAllDistrictsByZipCode("9999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getAllDistrictsByZipCode("80a5"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getDistrictByZipCode("83050"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getLastUpdateByPostalCommunityName("Los Angeles"));
+  }
+
+  @Test
+  public void resolvesDominantDistrictByWeight() {
+    // Prilly (100%) and Renens (0.06%) outweigh Jouxtens-Mézery (100%)
+    assertEquals("District de l'Ouest lausannois", sut.getDistrictByZipCode("1008"));
+    assertEquals("5589", sut.getPoliticalCommunityByZipCode("1008").getNumber());
+    Map<String, Double> distribution = sut.getDistrictDistributionByZipCode("1008");
+    assertEquals(List.of("District de l'Ouest lausannois", "District de Lausanne"),
+        List.copyOf(distribution.keySet()));
+    assertEquals(100.06 / 200.06, distribution.get("District de l'Ouest lausannois"), 1e-9);
+    // Gockhausen lies in Dübendorf (15.03%), Zürich only holds 3.54%
+    assertEquals("Bezirk Uster", sut.getDistrictByZipCode("8044"));
+    assertEquals("191", sut.getPoliticalCommunityByZipCode("8044").getNumber());
+    assertEquals(Map.of("Bezirk Bülach", 1.0), sut.getDistrictDistributionByZipCode("8305"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getDistrictDistributionByZipCode("9999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getPoliticalCommunityByZipCode(null));
+  }
+
+  @Test
+  public void buildsSameModelOnExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Model parallel = new IndexedModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES, executor);
+      assertEquals(sut.getPoliticalCommunities(), parallel.getPoliticalCommunities());
+      assertEquals(sut.getPostalCommunities(), parallel.getPostalCommunities());
+      assertEquals(sut.getDistrictsByCanton(), parallel.getDistrictsByCanton());
+      assertEquals(sut.getPoliticalCommunitiesWithoutPostalCommunity(),
+          parallel.getPoliticalCommunitiesWithoutPostalCommunity());
+      assertEquals(sut.getAllDistrictsByZipCode("1008"), parallel.getAllDistrictsByZipCode("1008"));
+      assertEquals(sut.getLastUpdateByPostalCommunityName("Vergeletto"),
+          parallel.getLastUpdateByPostalCommunityName("Vergeletto"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void countsLikeReferenceModel() {
+    for (String cantonCode : reference.getPoliticalCommunitiesByCanton().keySet()) {
+      assertEquals(reference.countPoliticalCommunitiesByCanton(cantonCode),
+          sut.countPoliticalCommunitiesByCanton(cantonCode));
+      assertEquals(reference.countDistrictsByCanton(cantonCode),
+          sut.countDistrictsByCanton(cantonCode));
+    }
+    for (String districtNumber : reference.getPoliticalCommunitiesByDistrict().keySet()) {
+      assertEquals(reference.countPoliticalCommunitiesByDistrict(districtNumber),
+          sut.countPoliticalCommunitiesByDistrict(districtNumber));
+    }
+    assertThrows(IllegalArgumentException.class, () -> sut.countDistrictsByCanton("zh"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.countPoliticalCommunitiesByDistrict("0101"));
+  }
+
+  @Test
+  public void resolvesBatchesPositionallyWithNullForMisses() {
+    String[] zipCodes = {"8305", "9999", "1008", "8305", null, "7457"};
+    String[] districts = sut.getDistrictsByZipCodes(zipCodes);
+    assertEquals("Bezirk Bülach", districts[0]);
+    assertNull(districts[1]);
+    assertTrue(sut.getAllDistrictsByZipCode("1008").contains(districts[2]));
+    assertEquals("Bezirk Bülach", districts[3]);
+    assertNull(districts[4]);
+    assertEquals("Region Albula", districts[5]);
+
+    String[] names = {"Vergeletto", "Los Angeles", "Zürich", "Vergeletto", null};
+    LocalDate[] lastUpdates = sut.getLastUpdatesByPostalCommunityNames(names);
+    assertArrayEquals(reference.getLastUpdatesByPostalCommunityNames(names), lastUpdates);
+    assertEquals(LocalDate.of(2016, 4, 10), lastUpdates[3]);
+    assertNull(lastUpdates[1]);
+    assertNull(lastUpdates[4]);
+  }
+
+  @Test
+  public void appliesDeltaLikeRebuild() {
+    Map<String, CSVPoliticalCommunity> byNumber = POLITICAL_COMMUNITIES.stream()
+        .collect(Collectors.toMap(CSVPoliticalCommunity::getNumber, row -> row));
+    // Dietlikon moves to the district of Affoltern and is updated, Aeugst am Albis is removed, a
+    // new political community in a new canton and district gets the postal rows of 8305
+    CSVPoliticalCommunity previous = byNumber.get("54");
+    CSVPoliticalCommunity dietlikon = CSVPoliticalCommunity.builder()
+        .number(previous.getNumber())
+        .name(previous.getName())
+        .shortName(previous.getShortName())
+        .cantonCode(previous.getCantonCode())
+        .cantonName(previous.getCantonName())
+        .districtNumber("101")
+        .districtName("Bezirk Affoltern")
+        .lastUpdate(LocalDate.of(2030, 1, 1))
+        .build();
+    CSVPoliticalCommunity added = CSVPoliticalCommunity.builder()
+        .number("9999")
+        .name("Neudorf")
+        .shortName("Neudorf")
+        .cantonCode("XX")
+        .cantonName("Neukanton")
+        .districtNumber("9998")
+        .districtName("Bezirk Neu")
+        .lastUpdate(LocalDate.of(2031, 1, 1))
+        .build();
+    Set<CSVPostalCommunity> removedPostal = POSTAL_COMMUNITIES.stream()
+        .filter(row -> row.getZipCode().equals("8305"))
+        .collect(Collectors.toSet());
+    CSVPostalCommunity addedPostal = CSVPostalCommunity.builder()
+        .zipCode("8305")
+        .zipCodeAddition("0")
+        .name("Neudorf")
+        .cantonCode("XX")
+        .politicalCommunityNumber("9999")
+        .politicalCommunityShortName("Neudorf")
+        .build();
+    ModelDelta delta = ModelDelta.builder()
+        .politicalCommunity(dietlikon)
+        .politicalCommunity(added)
+        .removedPoliticalCommunityNumber("1")
+        .removedPostalCommunities(removedPostal)
+        .addedPostalCommunity(addedPostal)
+        .build();
+
+    IndexedModelImp updated = ((IndexedModelImp) sut).apply(delta);
+
+    byNumber.put("54", dietlikon);
+    byNumber.put("9999", added);
+    byNumber.remove("1");
+    Set<CSVPostalCommunity> postal = new HashSet<>(POSTAL_COMMUNITIES);
+    postal.removeAll(removedPostal);
+    postal.add(addedPostal);
+    Model rebuilt = new IndexedModelImp(new HashSet<>(byNumber.values()), postal);
+    assertEquals(rebuilt.getPoliticalCommunities(), updated.getPoliticalCommunities());
+    assertEquals(rebuilt.getPostalCommunities(), updated.getPostalCommunities());
+    assertEquals(rebuilt.getCantons(), updated.getCantons());
+    assertEquals(rebuilt.getDistricts(), updated.getDistricts());
+    assertEquals(rebuilt.getPoliticalCommunitiesByCanton(),
+        updated.getPoliticalCommunitiesByCanton());
+    assertEquals(rebuilt.getDistrictsByCanton(), updated.getDistrictsByCanton());
+    assertEquals(rebuilt.getPoliticalCommunitiesByDistrict(),
+        updated.getPoliticalCommunitiesByDistrict());
+    assertEquals(rebuilt.getPoliticalCommunitiesWithoutPostalCommunity(),
+        updated.getPoliticalCommunitiesWithoutPostalCommunity());
+    for (String cantonCode : Set.of("ZH", "XX")) {
+      assertEquals(rebuilt.countPoliticalCommunitiesByCanton(cantonCode),
+          updated.countPoliticalCommunitiesByCanton(cantonCode));
+      assertEquals(rebuilt.countDistrictsByCanton(cantonCode),
+          updated.countDistrictsByCanton(cantonCode));
+    }
+    for (String districtNumber : Set.of("101", "103", "9998")) {
+      assertEquals(rebuilt.countPoliticalCommunitiesByDistrict(districtNumber),
+          updated.countPoliticalCommunitiesByDistrict(districtNumber));
+    }
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      String name = csvPostalCommunity.getName();
+      assertEquals(allDistrictsOrNull(rebuilt, zipCode), allDistrictsOrNull(updated, zipCode));
+      assertEquals(rebuilt.getDistrictsByZipCodes(new String[] {zipCode})[0],
+          updated.getDistrictsByZipCodes(new String[] {zipCode})[0]);
+      assertEquals(rebuilt.getLastUpdatesByPostalCommunityNames(new String[] {name})[0],
+          updated.getLastUpdatesByPostalCommunityNames(new String[] {name})[0]);
+    }
+    assertEquals("Bezirk Neu", updated.getDistrictByZipCode("8305"));
+    assertEquals(rebuilt.getCantonsByZipCode("8305"), updated.getCantonsByZipCode("8305"));
+    assertEquals(rebuilt.getDistrictByPoliticalCommunity("54"),
+        updated.getDistrictByPoliticalCommunity("54"));
+    assertEquals(rebuilt.getCantonByDistrict("9998"), updated.getCantonByDistrict("9998"));
+    assertThrows(IllegalArgumentException.class,
+        () -> updated.getZipCodesByPoliticalCommunity("1"));
+    assertEquals(LocalDate.of(2031, 1, 1), updated.getLastUpdateByPostalCommunityName("Neudorf"));
+    assertThrows(IllegalArgumentException.class, () -> updated.countDistrictsByCanton("XY"));
+
+    // the base model is unchanged and untouched groups are shared
+    assertEquals(reference.getCantons(), sut.getCantons());
+    assertEquals("Bezirk Bülach", sut.getDistrictByZipCode("8305"));
+    assertSame(sut.getPoliticalCommunitiesByCanton().get("BE"),
+        updated.getPoliticalCommunitiesByCanton().get("BE"));
+    assertSame(sut.getAllDistrictsByZipCode("3011"), updated.getAllDistrictsByZipCode("3011"));
+  }
+
+  @Test
+  public void appliesChainedDeltasLikeRebuild() {
+    Map<String, CSVPoliticalCommunity> byNumber = POLITICAL_COMMUNITIES.stream()
+        .collect(Collectors.toMap(CSVPoliticalCommunity::getNumber, row -> row));
+    Set<CSVPostalCommunity> postal = new HashSet<>(POSTAL_COMMUNITIES);
+    // Dietlikon moves to the district of Affoltern and gets a postal row in 8600 instead of 8305,
+    // then moves back and gets its rows back while Aeugst am Albis is removed
+    CSVPoliticalCommunity dietlikon = byNumber.get("54");
+    CSVPoliticalCommunity moved = CSVPoliticalCommunity.builder()
+        .number(dietlikon.getNumber())
+        .name(dietlikon.getName())
+        .shortName(dietlikon.getShortName())
+        .cantonCode(dietlikon.getCantonCode())
+        .cantonName(dietlikon.getCantonName())
+        .districtNumber("101")
+        .districtName("Bezirk Affoltern")
+        .lastUpdate(LocalDate.of(2030, 1, 1))
+        .build();
+    Set<CSVPostalCommunity> rows8305 = POSTAL_COMMUNITIES.stream()
+        .filter(row -> row.getZipCode().equals("8305"))
+        .collect(Collectors.toSet());
+    CSVPostalCommunity row8600 = CSVPostalCommunity.builder()
+        .zipCode("8600")
+        .zipCodeAddition("9")
+        .name("Dietlikon Ost")
+        .cantonCode("ZH")
+        .politicalCommunityNumber("54")
+        .politicalCommunityShortName("Dietlikon")
+        .build();
+
+    IndexedModelImp first = ((IndexedModelImp) sut).apply(ModelDelta.builder()
+        .politicalCommunity(moved)
+        .removedPostalCommunities(rows8305)
+        .addedPostalCommunity(row8600)
+        .build());
+    byNumber.put("54", moved);
+    postal.removeAll(rows8305);
+    postal.add(row8600);
+    assertNavigatesLikeRebuild(byNumber, postal, first);
+
+    IndexedModelImp second = first.apply(ModelDelta.builder()
+        .politicalCommunity(dietlikon)
+        .removedPoliticalCommunityNumber("1")
+        .removedPostalCommunity(row8600)
+        .addedPostalCommunities(rows8305)
+        .build());
+    byNumber.put("54", dietlikon);
+    byNumber.remove("1");
+    postal.remove(row8600);
+    postal.addAll(rows8305);
+    assertNavigatesLikeRebuild(byNumber, postal, second);
+    assertEquals(sut.getPostalCommunities(), second.getPostalCommunities());
+    assertEquals(sut.getDistrictsByCanton(), second.getDistrictsByCanton());
+  }
+
+  private static void assertNavigatesLikeRebuild(Map<String, CSVPoliticalCommunity> byNumber,
+      Set<CSVPostalCommunity> postal, Model updated) {
+    Model rebuilt = new IndexedModelImp(new HashSet<>(byNumber.values()), postal);
+    assertEquals(rebuilt.getPoliticalCommunities(), updated.getPoliticalCommunities());
+    assertEquals(rebuilt.getPostalCommunities(), updated.getPostalCommunities());
+    assertEquals(rebuilt.getDistricts(), updated.getDistricts());
+    assertEquals(rebuilt.getPoliticalCommunitiesByCanton(),
+        updated.getPoliticalCommunitiesByCanton());
+    assertEquals(rebuilt.getDistrictsByCanton(), updated.getDistrictsByCanton());
+    assertEquals(rebuilt.getPoliticalCommunitiesByDistrict(),
+        updated.getPoliticalCommunitiesByDistrict());
+    assertEquals(rebuilt.getPoliticalCommunitiesWithoutPostalCommunity(),
+        updated.getPoliticalCommunitiesWithoutPostalCommunity());
+    assertEquals(List.copyOf(rebuilt.getPostalCommunitiesByZipCodeRange("8000", "8999")),
+        List.copyOf(updated.getPostalCommunitiesByZipCodeRange("8000", "8999")));
+    for (String number : List.of("1", "54", "55", "261")) {
+      assertEquals(orNull(() -> List.copyOf(rebuilt.getPostalCommunitiesByPoliticalCommunity(
+          number))), orNull(() -> List.copyOf(updated.getPostalCommunitiesByPoliticalCommunity(
+          number))));
+      assertEquals(orNull(() -> List.copyOf(rebuilt.getZipCodesByPoliticalCommunity(number))),
+          orNull(() -> List.copyOf(updated.getZipCodesByPoliticalCommunity(number))));
+      assertEquals(orNull(() -> rebuilt.getDistrictByPoliticalCommunity(number)),
+          orNull(() -> updated.getDistrictByPoliticalCommunity(number)));
+    }
+    for (String districtNumber : List.of("101", "103", "110")) {
+      assertEquals(orNull(() -> rebuilt.getCantonByDistrict(districtNumber)),
+          orNull(() -> updated.getCantonByDistrict(districtNumber)));
+    }
+    for (String zipCode : List.of("8305", "8600", "8001", "8910")) {
+      assertEquals(orNull(() -> List.copyOf(rebuilt.getPoliticalCommunitiesByZipCode(zipCode))),
+          orNull(() -> List.copyOf(updated.getPoliticalCommunitiesByZipCode(zipCode))));
+      assertEquals(orNull(() -> List.copyOf(rebuilt.getCantonsByZipCode(zipCode))),
+          orNull(() -> List.copyOf(updated.getCantonsByZipCode(zipCode))));
+    }
+  }
+
+  private static <T> T orNull(Supplier<T> query) {
+    try {
+      return query.get();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  @Test
+  public void appliesEmptyDeltaBySharingEverything() {
+    IndexedModelImp updated = ((IndexedModelImp) sut).apply(ModelDelta.builder().build());
+    assertSame(sut.getPoliticalCommunities(), updated.getPoliticalCommunities());
+    assertSame(sut.getPostalCommunities(), updated.getPostalCommunities());
+    assertSame(sut.getDistrictsByCanton(), updated.getDistrictsByCanton());
+    assertSame(sut.getPoliticalCommunitiesWithoutPostalCommunity(),
+        updated.getPoliticalCommunitiesWithoutPostalCommunity());
+  }
+
+  @Test
+  public void matchesPostalCommunityNamesIgnoringCaseAndDiacritics() {
+    LocalDate lastUpdate = sut.getLastUpdateByPostalCommunityName("Zürich");
+    assertEquals(lastUpdate, sut.getLastUpdateByPostalCommunityName("Zurich"));
+    assertEquals(lastUpdate, sut.getLastUpdateByPostalCommunityName("ZÜRICH"));
+    assertEquals(lastUpdate, sut.getLastUpdateByPostalCommunityName("zurich"));
+  }
+
+  @Test
+  public void queriesZipCodeRangesLikeReferenceModel() {
+    String[][] ranges = {{"8000", "8099"}, {"1000", "1999"}, {"0000", "9999"}, {"8305", "8305"},
+        {"3000", "3000"}, {"8100", "8000"}};
+    for (String[] range : ranges) {
+      assertEquals(reference.getPostalCommunitiesByZipCodeRange(range[0], range[1]),
+          sut.getPostalCommunitiesByZipCodeRange(range[0], range[1]));
+      assertEquals(zipCodes(reference.getPostalCommunitiesByZipCodeRange(range[0], range[1])),
+          zipCodes(sut.getPostalCommunitiesByZipCodeRange(range[0], range[1])));
+      assertEquals(reference.getDistrictsByZipCodeRange(range[0], range[1]),
+          sut.getDistrictsByZipCodeRange(range[0], range[1]));
+    }
+    assertEquals(reference.getPostalCommunitiesByZipCodePrefix("80"),
+        sut.getPostalCommunitiesByZipCodePrefix("80"));
+    assertEquals(Set.of("Bezirk Bülach"), sut.getDistrictsByZipCodePrefix("8305"));
+    assertTrue(sut.getPostalCommunitiesByZipCodeRange("8100", "8000").isEmpty());
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPostalCommunitiesByZipCodeRange("80", "8099"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getDistrictsByZipCodePrefix(""));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPostalCommunitiesByZipCodePrefix("80000"));
+  }
+
+  @Test
+  public void navigatesLikeReferenceModel() {
+    // the reference model scans all the rows on every call: a sample of cantons and zip codes
+    Set<PoliticalCommunity> sample = new HashSet<>();
+    for (String cantonCode : Set.of("FR", "ZH", "BS")) {
+      sample.addAll(reference.getPoliticalCommunitiesByCanton().get(cantonCode));
+    }
+    for (PoliticalCommunity politicalCommunity : sample) {
+      String number = politicalCommunity.getNumber();
+      assertEquals(zipCodes(reference.getPostalCommunitiesByPoliticalCommunity(number)),
+          zipCodes(sut.getPostalCommunitiesByPoliticalCommunity(number)));
+      assertEquals(reference.getPostalCommunitiesByPoliticalCommunity(number),
+          sut.getPostalCommunitiesByPoliticalCommunity(number));
+      assertEquals(List.copyOf(reference.getZipCodesByPoliticalCommunity(number)),
+          List.copyOf(sut.getZipCodesByPoliticalCommunity(number)));
+      assertEquals(reference.getDistrictByPoliticalCommunity(number),
+          sut.getDistrictByPoliticalCommunity(number));
+    }
+    for (String districtNumber : reference.getPoliticalCommunitiesByDistrict().keySet()) {
+      assertEquals(reference.getCantonByDistrict(districtNumber),
+          sut.getCantonByDistrict(districtNumber));
+    }
+    for (String zipCode : Set.copyOf(
+        zipCodes(reference.getPostalCommunitiesByZipCodeRange("1600", "1799")))) {
+      assertEquals(List.copyOf(reference.getPoliticalCommunitiesByZipCode(zipCode)),
+          List.copyOf(sut.getPoliticalCommunitiesByZipCode(zipCode)));
+      assertEquals(List.copyOf(reference.getCantonsByZipCode(zipCode)),
+          List.copyOf(sut.getCantonsByZipCode(zipCode)));
+    }
+    assertTrue(sut.getZipCodesByPoliticalCommunity("261").contains("8001"));
+    assertEquals("54", sut.getPoliticalCommunitiesByZipCode("8305").iterator().next().getNumber());
+    assertEquals("ZH", sut.getCantonByDistrict("101").getCode());
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPostalCommunitiesByPoliticalCommunity("99999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getCantonByDistrict("x"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getCantonsByZipCode("9999"));
+  }
+
+  private static Set<String> allDistrictsOrNull(Model model, String zipCode) {
+    try {
+      return model.getAllDistrictsByZipCode(zipCode);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static List<String> zipCodes(Set<PostalCommunity> postalCommunities) {
+    return postalCommunities.stream().map(PostalCommunity::getZipCode)
+        .collect(Collectors.toList());
+  }
+}
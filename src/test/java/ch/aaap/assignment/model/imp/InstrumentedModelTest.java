@@ -0,0 +1,156 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+public class InstrumentedModelTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  @Test
+  public void countsCallsAndMisses() {
+    InstrumentedModel model = new InstrumentedModel(MODEL, false);
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(MODEL.getDistrictByZipCode("8305"), model.getDistrictByZipCode("8305"));
+    }
+    assertThrows(IllegalArgumentException.class, () -> model.getDistrictByZipCode("9999"));
+    assertEquals(162, model.countPoliticalCommunitiesByCanton("ZH"));
+
+    QueryStats stats = model.getStats("getDistrictByZipCode");
+    assertEquals(11, stats.getCalls());
+    assertEquals(1, stats.getMisses());
+    assertEquals(0, stats.getErrors());
+    assertTrue(stats.getP50Nanos() <= stats.getP99Nanos());
+    assertTrue(stats.getP99Nanos() <= stats.getMaxNanos());
+    assertTrue(stats.getMeanNanos() > 0);
+    assertEquals(0, stats.getAllocatedBytes());
+    assertEquals(1, model.getStats("countPoliticalCommunitiesByCanton").getCalls());
+    assertEquals(0, model.getStats("getCantons").getCalls());
+    assertThrows(IllegalArgumentException.class, () -> model.getStats("getNothing"));
+
+    model.reset();
+    assertEquals(0, stats.getCalls());
+    assertEquals(0, stats.getMisses());
+  }
+
+  @Test
+  public void delegatesEveryQuery() {
+    InstrumentedModel model = new InstrumentedModel(MODEL, false);
+
+    assertEquals(MODEL.getPoliticalCommunities(), model.getPoliticalCommunities());
+    assertEquals(MODEL.getPostalCommunities(), model.getPostalCommunities());
+    assertEquals(MODEL.getCantons(), model.getCantons());
+    assertEquals(MODEL.getDistricts(), model.getDistricts());
+    assertEquals(MODEL.getPoliticalCommunitiesByCanton(), model.getPoliticalCommunitiesByCanton());
+    assertEquals(MODEL.getDistrictsByCanton(), model.getDistrictsByCanton());
+    assertEquals(MODEL.getPoliticalCommunitiesByDistrict(),
+        model.getPoliticalCommunitiesByDistrict());
+    assertEquals(MODEL.getLastUpdateByPostalCommunityName("Zürich"),
+        model.getLastUpdateByPostalCommunityName("Zürich"));
+    assertEquals(MODEL.getPoliticalCommunitiesWithoutPostalCommunity(),
+        model.getPoliticalCommunitiesWithoutPostalCommunity());
+    assertEquals(MODEL.getAllDistrictsByZipCode("1008"), model.getAllDistrictsByZipCode("1008"));
+    assertEquals(MODEL.getDistrictDistributionByZipCode("1008"),
+        model.getDistrictDistributionByZipCode("1008"));
+    assertEquals(MODEL.getPoliticalCommunityByZipCode("1008"),
+        model.getPoliticalCommunityByZipCode("1008"));
+    assertEquals(MODEL.countDistrictsByCanton("ZH"), model.countDistrictsByCanton("ZH"));
+    assertEquals(MODEL.countPoliticalCommunitiesByDistrict("101"),
+        model.countPoliticalCommunitiesByDistrict("101"));
+    assertEquals(MODEL.getPostalCommunitiesByZipCodeRange("8000", "8099"),
+        model.getPostalCommunitiesByZipCodeRange("8000", "8099"));
+    assertEquals(MODEL.getPostalCommunitiesByZipCodePrefix("83"),
+        model.getPostalCommunitiesByZipCodePrefix("83"));
+    assertEquals(MODEL.getDistrictsByZipCodeRange("8000", "8099"),
+        model.getDistrictsByZipCodeRange("8000", "8099"));
+    assertEquals(MODEL.getDistrictsByZipCodePrefix("83"), model.getDistrictsByZipCodePrefix("83"));
+    assertEquals(MODEL.getPostalCommunitiesByPoliticalCommunity("261"),
+        model.getPostalCommunitiesByPoliticalCommunity("261"));
+    assertEquals(MODEL.getZipCodesByPoliticalCommunity("261"),
+        model.getZipCodesByPoliticalCommunity("261"));
+    assertEquals(MODEL.getDistrictByPoliticalCommunity("261"),
+        model.getDistrictByPoliticalCommunity("261"));
+    assertEquals(MODEL.getCantonByDistrict("101"), model.getCantonByDistrict("101"));
+    assertEquals(MODEL.getPoliticalCommunitiesByZipCode("8305"),
+        model.getPoliticalCommunitiesByZipCode("8305"));
+    assertEquals(MODEL.getCantonsByZipCode("8305"), model.getCantonsByZipCode("8305"));
+
+    assertEquals(MODEL.getDistrictByZipCode("8305"), model.getDistrictByZipCode("8305"));
+    assertEquals(MODEL.countPoliticalCommunitiesByCanton("ZH"),
+        model.countPoliticalCommunitiesByCanton("ZH"));
+    assertArrayEquals(MODEL.getDistrictsByZipCodes(new String[] {"8305", "9999"}),
+        model.getDistrictsByZipCodes(new String[] {"8305", "9999"}));
+    assertArrayEquals(MODEL.getLastUpdatesByPostalCommunityNames(new String[] {"Zürich"}),
+        model.getLastUpdatesByPostalCommunityNames(new String[] {"Zürich"}));
+
+    assertEquals(28, model.getStats().size());
+    for (QueryStats stats : model.getStats()) {
+      assertEquals(1, stats.getCalls(), stats.getQuery());
+    }
+  }
+
+  @Test
+  public void measuresAllocatedBytes() {
+    InstrumentedModel model = new InstrumentedModel(MODEL, true);
+    if (!model.isAllocationTracking()) {
+      return;
+    }
+
+    model.getDistrictsByZipCodes(new String[10_000]);
+
+    // the result array alone takes 40 kB
+    assertTrue(model.getStats("getDistrictsByZipCodes").getAllocatedBytes() >= 40_000);
+    assertTrue(model.dump().contains("getDistrictsByZipCodes"));
+  }
+
+  @Test
+  public void dumpsCalledQueries() {
+    InstrumentedModel model = new InstrumentedModel(MODEL, false);
+    model.getCantons();
+
+    String[] lines = model.dump().split("\n");
+
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("query"));
+    assertTrue(lines[1].startsWith("getCantons "));
+    assertTrue(lines[1].trim().endsWith(" -"));
+  }
+
+  @Test
+  public void exposesStatsByJmx() throws Exception {
+    InstrumentedModel model = new InstrumentedModel(MODEL, false);
+    model.register("test");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName query = new ObjectName(
+        "ch.aaap.assignment:type=InstrumentedModel,name=test,query=getDistrictByZipCode");
+    try {
+      model.getDistrictByZipCode("8305");
+
+      assertEquals(1L, server.getAttribute(query, "Calls"));
+      assertEquals(false, server.getAttribute(
+          new ObjectName("ch.aaap.assignment:type=InstrumentedModel,name=test"),
+          "AllocationTracking"));
+    } finally {
+      model.unregister();
+    }
+    assertFalse(server.isRegistered(query));
+  }
+
+  @Test
+  public void isOffByDefault() {
+    assertSame(MODEL, InstrumentedModel.wrap(MODEL, "test"));
+  }
+}
@@ -0,0 +1,47 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void bucketsHoldTheirBounds() {
+    long previousUpperBound = -1;
+    for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+      long upperBound = LatencyHistogram.upperBound(bucket);
+      assertEquals(bucket, LatencyHistogram.bucket(previousUpperBound + 1));
+      assertEquals(bucket, LatencyHistogram.bucket(upperBound));
+      // within 12.5% of the bucket's lower bound
+      assertTrue(upperBound - previousUpperBound - 1 <= (previousUpperBound + 1) / 8);
+      previousUpperBound = upperBound;
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void returnsPercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 100_000; nanos++) {
+      histogram.record(nanos * 10);
+    }
+
+    assertEquals(100_000, histogram.count());
+    assertEquals(1_000_000, histogram.max());
+    assertWithin(500_000, histogram.percentile(50));
+    assertWithin(990_000, histogram.percentile(99));
+    assertEquals(1_000_000, histogram.percentile(100));
+    assertEquals(10, histogram.percentile(0));
+
+    histogram.reset();
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.percentile(99));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected + expected / 8,
+        String.format("%d not within 12.5%% above %d", actual, expected));
+  }
+}
@@ -0,0 +1,170 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedModelImpTest {
+
+  private static final Set<CSVPoliticalCommunity> POLITICAL_COMMUNITIES =
+      CSVFastLoader.getPoliticalCommunities();
+  private static final Set<CSVPostalCommunity> POSTAL_COMMUNITIES =
+      CSVFastLoader.getPostalCommunities();
+
+  @TempDir
+  static Path directory;
+
+  /* The system under test */
+  static Model sut;
+
+  /* The reference implementation */
+  Model reference = new IndexedModelImp(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+  @BeforeAll
+  static void writeSnapshot() {
+    Path file = directory.resolve("model.bin");
+    ModelSnapshot.write(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES, file);
+    sut = MappedModelImp.open(file);
+  }
+
+  @Test
+  public void servesSameCollectionsAsIndexedModel() {
+    assertEquals(reference.getPoliticalCommunities(), sut.getPoliticalCommunities());
+    assertEquals(reference.getPostalCommunities(), sut.getPostalCommunities());
+    assertEquals(reference.getCantons(), sut.getCantons());
+    assertEquals(reference.getDistricts(), sut.getDistricts());
+    assertEquals(reference.getPoliticalCommunitiesByCanton(),
+        sut.getPoliticalCommunitiesByCanton());
+    assertEquals(reference.getDistrictsByCanton(), sut.getDistrictsByCanton());
+    assertEquals(reference.getPoliticalCommunitiesByDistrict(),
+        sut.getPoliticalCommunitiesByDistrict());
+    assertEquals(reference.getPoliticalCommunitiesWithoutPostalCommunity(),
+        sut.getPoliticalCommunitiesWithoutPostalCommunity());
+  }
+
+  @Test
+  public void servesImmutableViewsEqualToEntitiesOfSameValues() {
+    assertEquals(sut.getPostalCommunities(), reference.getPostalCommunities());
+    assertEquals(reference.getPostalCommunities(), sut.getPostalCommunities());
+    PoliticalCommunity zurich = sut.getPoliticalCommunityByZipCode("8001");
+    assertEquals(reference.getPoliticalCommunityByZipCode("8001"), zurich);
+    assertEquals(reference.getPoliticalCommunityByZipCode("8001").hashCode(), zurich.hashCode());
+    assertEquals("PoliticalCommunity(number=261, name=Zürich, shortName=Zürich, lastUpdate="
+        + zurich.getLastUpdate() + ")", zurich.toString());
+    assertThrows(UnsupportedOperationException.class,
+        () -> sut.getPoliticalCommunities().add(zurich));
+    assertThrows(UnsupportedOperationException.class,
+        () -> sut.getPoliticalCommunitiesByCanton().get("ZH").clear());
+    assertThrows(UnsupportedOperationException.class,
+        () -> sut.getDistrictsByCanton().remove("ZH"));
+  }
+
+  @Test
+  public void resolvesBatchesLikeIndexedModel() {
+    String[] zipCodes = {"8305", "9999", "1008", null, "abc", "7457"};
+    assertArrayEquals(reference.getDistrictsByZipCodes(zipCodes),
+        sut.getDistrictsByZipCodes(zipCodes));
+    String[] names = {"Vergeletto", "Los Angeles", null, "ZURICH", "Zürich"};
+    assertArrayEquals(reference.getLastUpdatesByPostalCommunityNames(names),
+        sut.getLastUpdatesByPostalCommunityNames(names));
+  }
+
+  @Test
+  public void navigatesLikeIndexedModel() {
+    for (CSVPoliticalCommunity csvPoliticalCommunity : POLITICAL_COMMUNITIES) {
+      String number = csvPoliticalCommunity.getNumber();
+      assertEquals(List.copyOf(reference.getPostalCommunitiesByPoliticalCommunity(number)),
+          List.copyOf(sut.getPostalCommunitiesByPoliticalCommunity(number)));
+      assertEquals(List.copyOf(reference.getZipCodesByPoliticalCommunity(number)),
+          List.copyOf(sut.getZipCodesByPoliticalCommunity(number)));
+      assertEquals(reference.getDistrictByPoliticalCommunity(number),
+          sut.getDistrictByPoliticalCommunity(number));
+      assertEquals(reference.getCantonByDistrict(csvPoliticalCommunity.getDistrictNumber()),
+          sut.getCantonByDistrict(csvPoliticalCommunity.getDistrictNumber()));
+    }
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(List.copyOf(reference.getPoliticalCommunitiesByZipCode(zipCode)),
+          List.copyOf(sut.getPoliticalCommunitiesByZipCode(zipCode)));
+      assertEquals(List.copyOf(reference.getCantonsByZipCode(zipCode)),
+          List.copyOf(sut.getCantonsByZipCode(zipCode)));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPostalCommunitiesByPoliticalCommunity("99999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getCantonByDistrict("x"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getCantonsByZipCode("9999"));
+  }
+
+  @Test
+  public void servesSameLookupsAsIndexedModel() {
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(reference.getAllDistrictsByZipCode(zipCode),
+          sut.getAllDistrictsByZipCode(zipCode));
+      assertEquals(reference.getLastUpdateByPostalCommunityName(csvPostalCommunity.getName()),
+          sut.getLastUpdateByPostalCommunityName(csvPostalCommunity.getName()));
+    }
+    assertEquals(reference.getLastUpdateByPostalCommunityName("ZURICH"),
+        sut.getLastUpdateByPostalCommunityName("ZURICH"));
+    assertEquals(162, sut.countPoliticalCommunitiesByCanton("ZH"));
+    assertEquals(11, sut.countDistrictsByCanton("GR"));
+    assertEquals(14, sut.countPoliticalCommunitiesByDistrict("101"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getDistrictByZipCode("9999"));
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getLastUpdateByPostalCommunityName("Los Angeles"));
+    assertThrows(IllegalArgumentException.class, () -> sut.countDistrictsByCanton("XX"));
+  }
+
+  @Test
+  public void servesSameAnswersOffHeap() {
+    Model offHeap = MappedModelImp.offHeap(POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+    assertEquals(sut.getPoliticalCommunities(), offHeap.getPoliticalCommunities());
+    assertEquals(sut.getPostalCommunities(), offHeap.getPostalCommunities());
+    assertEquals(sut.getDistrictsByCanton(), offHeap.getDistrictsByCanton());
+    assertEquals(sut.getDistrictDistributionByZipCode("1008"),
+        offHeap.getDistrictDistributionByZipCode("1008"));
+    assertEquals(sut.getLastUpdateByPostalCommunityName("Zürich"),
+        offHeap.getLastUpdateByPostalCommunityName("Zürich"));
+    assertEquals(162, offHeap.countPoliticalCommunitiesByCanton("ZH"));
+    assertThrows(IllegalArgumentException.class, () -> offHeap.getDistrictByZipCode("9999"));
+  }
+
+  @Test
+  public void queriesZipCodeRangesLikeIndexedModel() {
+    String[][] ranges = {{"8000", "8099"}, {"0000", "9999"}, {"8305", "8305"}, {"8100", "8000"}};
+    for (String[] range : ranges) {
+      assertEquals(reference.getPostalCommunitiesByZipCodeRange(range[0], range[1]),
+          sut.getPostalCommunitiesByZipCodeRange(range[0], range[1]));
+      assertEquals(reference.getDistrictsByZipCodeRange(range[0], range[1]),
+          sut.getDistrictsByZipCodeRange(range[0], range[1]));
+    }
+    assertEquals(reference.getPostalCommunitiesByZipCodePrefix("1"),
+        sut.getPostalCommunitiesByZipCodePrefix("1"));
+  }
+
+  @Test
+  public void resolvesDominantDistrictsLikeIndexedModel() {
+    for (CSVPostalCommunity csvPostalCommunity : POSTAL_COMMUNITIES) {
+      String zipCode = csvPostalCommunity.getZipCode();
+      assertEquals(reference.getDistrictByZipCode(zipCode), sut.getDistrictByZipCode(zipCode));
+      assertEquals(reference.getDistrictDistributionByZipCode(zipCode),
+          sut.getDistrictDistributionByZipCode(zipCode));
+      assertEquals(reference.getPoliticalCommunityByZipCode(zipCode).getNumber(),
+          sut.getPoliticalCommunityByZipCode(zipCode).getNumber());
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> sut.getPoliticalCommunityByZipCode("9999"));
+  }
+}
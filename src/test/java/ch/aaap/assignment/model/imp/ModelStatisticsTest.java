@@ -0,0 +1,94 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class ModelStatisticsTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  /* The system under test */
+  static ModelStatistics sut = ModelStatistics.of(MODEL);
+
+  @Test
+  public void aggregatesEveryCantonAndDistrictLikeGroupingBy() {
+    assertEquals(MODEL.getPoliticalCommunitiesByCanton().keySet(),
+        Set.copyOf(sut.getCantonCodes()));
+    assertEquals(MODEL.getPoliticalCommunitiesByDistrict().keySet(),
+        Set.copyOf(sut.getDistrictNumbers()));
+    for (String cantonCode : sut.getCantonCodes()) {
+      assertEquals(expected(MODEL.getPoliticalCommunitiesByCanton().get(cantonCode)),
+          sut.ofCanton(cantonCode), cantonCode);
+    }
+    for (String districtNumber : sut.getDistrictNumbers()) {
+      assertEquals(expected(MODEL.getPoliticalCommunitiesByDistrict().get(districtNumber)),
+          sut.ofDistrict(districtNumber), districtNumber);
+    }
+    GroupStatistics zurich = sut.ofCanton("ZH");
+    assertEquals((double) zurich.getPoliticalCommunitiesWithoutPostalCommunity()
+        / zurich.getPoliticalCommunities(), zurich.getShareWithoutPostalCommunity());
+  }
+
+  @Test
+  public void computesTheSameOnAnyPool() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ModelStatistics parallel = ModelStatistics.of(MODEL, pool);
+      assertEquals(sut.ofCanton("BE"), parallel.ofCanton("BE"));
+      assertEquals(sut.ofDistrict("101"), parallel.ofDistrict("101"));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void handlesEmptyModel() {
+    ModelStatistics empty = ModelStatistics.of(new IndexedModelImp(Set.of(), Set.of()));
+    assertEquals(0, empty.getCantonCodes().size());
+    assertThrows(IllegalArgumentException.class, () -> empty.ofCanton("ZH"));
+  }
+
+  @Test
+  public void throwsForUnknownCantonsAndDistricts() {
+    assertThrows(IllegalArgumentException.class, () -> sut.ofCanton("XX"));
+    assertThrows(IllegalArgumentException.class, () -> sut.ofDistrict("9999"));
+    assertThrows(IllegalArgumentException.class, () -> sut.ofDistrict("x"));
+  }
+
+  private static GroupStatistics expected(Set<PoliticalCommunity> group) {
+    Set<String> numbers = group.stream().map(PoliticalCommunity::getNumber)
+        .collect(Collectors.toSet());
+    Set<PostalCommunity> postalCommunities = MODEL.getPostalCommunities().stream()
+        .filter(postalCommunity -> numbers.contains(postalCommunity.getPoliticalCommunityNumber()))
+        .collect(Collectors.toSet());
+    Map<Integer, Long> byYear = group.stream().collect(Collectors.groupingBy(
+        politicalCommunity -> politicalCommunity.getLastUpdate().getYear(),
+        Collectors.counting()));
+    TreeMap<Integer, Integer> lastUpdatesByYear = new TreeMap<>();
+    byYear.forEach((year, count) -> lastUpdatesByYear.put(year, count.intValue()));
+    int withoutPostalCommunity = (int) group.stream()
+        .filter(MODEL.getPoliticalCommunitiesWithoutPostalCommunity()::contains)
+        .count();
+    return new GroupStatistics(group.size(), postalCommunities.size(),
+        (int) postalCommunities.stream().map(PostalCommunity::getZipCode).distinct().count(),
+        withoutPostalCommunity,
+        group.stream().map(PoliticalCommunity::getLastUpdate).min(LocalDate::compareTo)
+            .orElse(null),
+        group.stream().map(PoliticalCommunity::getLastUpdate).max(LocalDate::compareTo)
+            .orElse(null),
+        lastUpdatesByYear);
+  }
+}
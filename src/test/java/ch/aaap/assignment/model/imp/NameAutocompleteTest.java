@@ -0,0 +1,110 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.model.PostalCommunity;
+import ch.aaap.assignment.model.imp.NameSuggestion.Kind;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class NameAutocompleteTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  /* The system under test */
+  static NameAutocomplete sut = NameAutocomplete.of(MODEL);
+
+  @Test
+  public void completesPrefixIgnoringCaseAndDiacritics() {
+    List<NameSuggestion> suggestions = sut.complete("zur", 3);
+    assertEquals(3, suggestions.size());
+    assertEquals(new NameSuggestion("Zürich", Kind.POLITICAL_COMMUNITY, 0), suggestions.get(0));
+    assertEquals(suggestions, sut.complete("ZÜR", 3));
+    assertTrue(names(sut.complete("Bern", 20)).contains("Bern"));
+    assertTrue(sut.complete("bern", 100).stream()
+        .filter(suggestion -> suggestion.getDistance() == 0)
+        .allMatch(suggestion -> ModelKeys.name(suggestion.getName()).startsWith("bern")));
+  }
+
+  @Test
+  public void returnsNamesInAlphabeticalOrderUpToLimit() {
+    List<NameSuggestion> suggestions = sut.complete("a", 50);
+    assertEquals(50, suggestions.size());
+    List<String> keys = suggestions.stream()
+        .map(suggestion -> ModelKeys.name(suggestion.getName()))
+        .collect(Collectors.toList());
+    assertEquals(keys.stream().sorted().collect(Collectors.toList()), keys);
+    assertTrue(sut.complete("zzzz", 5).isEmpty());
+  }
+
+  @Test
+  public void fallsBackToNamesWithinEditDistance() {
+    List<NameSuggestion> suggestions = sut.complete("zrich", 5);
+    assertTrue(suggestions.contains(new NameSuggestion("Zürich", Kind.POLITICAL_COMMUNITY, 1)),
+        suggestions::toString);
+    assertTrue(suggestions.stream().allMatch(suggestion -> suggestion.getDistance() == 1));
+
+    List<NameSuggestion> lausanne = sut.complete("Lasuanne", 5);
+    assertTrue(names(lausanne).contains("Lausanne"), lausanne::toString);
+    assertEquals(2, lausanne.get(0).getDistance());
+
+    // no fuzzy matching for short queries
+    assertTrue(sut.complete("qx", 5).isEmpty());
+  }
+
+  @Test
+  public void findsFuzzyMatchesLikeFullScan() {
+    for (String query : List.of("zrich", "berm", "genf", "lugnao", "sankt", "xyz")) {
+      int maxDistance = query.length() <= 5 ? 1 : 2;
+      List<NameSuggestion> suggestions = sut.complete(query, Integer.MAX_VALUE);
+      Set<String> expected = Stream.of(
+          MODEL.getPoliticalCommunities().stream().map(PoliticalCommunity::getName),
+          MODEL.getPoliticalCommunities().stream().map(PoliticalCommunity::getShortName),
+          MODEL.getPostalCommunities().stream().map(PostalCommunity::getName))
+          .flatMap(names -> names)
+          .map(ModelKeys::name)
+          .filter(key -> prefixDistance(query, key) <= maxDistance)
+          .collect(Collectors.toSet());
+      assertEquals(expected, suggestions.stream()
+          .map(suggestion -> ModelKeys.name(suggestion.getName()))
+          .collect(Collectors.toSet()), query);
+      for (NameSuggestion suggestion : suggestions) {
+        assertEquals(prefixDistance(query, ModelKeys.name(suggestion.getName())),
+            suggestion.getDistance(), suggestion::toString);
+      }
+    }
+  }
+
+  private static List<String> names(List<NameSuggestion> suggestions) {
+    return suggestions.stream().map(NameSuggestion::getName).collect(Collectors.toList());
+  }
+
+  /**
+   * Smallest edit distance between the query and a prefix of the key, by full dynamic programming.
+   */
+  private static int prefixDistance(String query, String key) {
+    int[][] distances = new int[key.length() + 1][query.length() + 1];
+    for (int j = 0; j <= query.length(); j++) {
+      distances[0][j] = j;
+    }
+    int best = query.length();
+    for (int i = 1; i <= key.length(); i++) {
+      distances[i][0] = i;
+      for (int j = 1; j <= query.length(); j++) {
+        int cost = query.charAt(j - 1) == key.charAt(i - 1) ? 0 : 1;
+        distances[i][j] = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1),
+            distances[i - 1][j - 1] + cost);
+      }
+      best = Math.min(best, distances[i][query.length()]);
+    }
+    return best;
+  }
+}
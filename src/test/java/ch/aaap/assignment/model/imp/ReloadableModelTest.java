@@ -0,0 +1,137 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReloadableModelTest {
+
+  private static final Model MODEL = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+      CSVFastLoader.getPostalCommunities());
+
+  @TempDir
+  Path directory;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  /* The system under test */
+  ReloadableModel sut = new ReloadableModel(MODEL);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void swapsInReloadedModel() throws IOException {
+    Path gde = zurichOnly("/GDE_from_be-b-00.04-agv-01.xlsx.csv", "gde.csv", 0);
+    Path plz6 = zurichOnly("/PLZ6_from_do-t-09.02-gwr-37.xlsx.csv", "plz6.csv", 4);
+
+    assertEquals(0, sut.getVersion());
+    assertEquals(1, sut.reload(gde, plz6, executor).join());
+
+    assertEquals(1, sut.getVersion());
+    assertEquals(1, sut.getCantons().size());
+    assertEquals(162, sut.countPoliticalCommunitiesByCanton("ZH"));
+    assertEquals("Bezirk Bülach", sut.getDistrictByZipCode("8305"));
+    assertThrows(IllegalArgumentException.class, () -> sut.getDistrictByZipCode("1008"));
+  }
+
+  @Test
+  public void keepsCurrentModelIfReloadFails() {
+    Path missing = directory.resolve("missing.csv");
+
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> sut.reload(missing, missing, executor).join());
+
+    assertTrue(e.getCause() instanceof UncheckedIOException);
+    assertSame(MODEL, sut.getModel());
+    assertEquals(0, sut.getVersion());
+  }
+
+  @Test
+  public void incrementsVersionOnEverySwap() {
+    Model older = new IndexedModelImp(CSVFastLoader.getPoliticalCommunities(),
+        CSVFastLoader.getPostalCommunities());
+
+    assertEquals(1, sut.replace(older));
+    assertEquals(2, sut.replace(MODEL));
+    assertSame(MODEL, sut.getModel());
+  }
+
+  @Test
+  public void swapsStatisticsInWithTheirModel() throws IOException {
+    Path gde = zurichOnly("/GDE_from_be-b-00.04-agv-01.xlsx.csv", "gde.csv", 0);
+    Path plz6 = zurichOnly("/PLZ6_from_do-t-09.02-gwr-37.xlsx.csv", "plz6.csv", 4);
+    ReloadableModel withStatistics = new ReloadableModel(MODEL, true);
+    assertEquals(26, withStatistics.getStatistics().getCantonCodes().size());
+
+    withStatistics.reload(gde, plz6, executor).join();
+
+    assertEquals(List.of("ZH"), withStatistics.getStatistics().getCantonCodes());
+    assertThrows(IllegalStateException.class, () -> sut.getStatistics());
+  }
+
+  @Test
+  public void answersQueriesWhileReloading() throws Exception {
+    Path gde = zurichOnly("/GDE_from_be-b-00.04-agv-01.xlsx.csv", "gde.csv", 0);
+    Path plz6 = zurichOnly("/PLZ6_from_do-t-09.02-gwr-37.xlsx.csv", "plz6.csv", 4);
+    AtomicBoolean reloading = new AtomicBoolean(true);
+    Future<?> reader = executor.submit(() -> {
+      while (reloading.get()) {
+        int cantons = sut.getCantons().size();
+        assertTrue(cantons == 26 || cantons == 1, "Never a half built model");
+        assertEquals("Bezirk Bülach", sut.getDistrictByZipCode("8305"));
+      }
+    });
+
+    for (int i = 0; i < 5; i++) {
+      sut.reload(gde, plz6, executor).join();
+      sut.replace(MODEL);
+    }
+    reloading.set(false);
+
+    reader.get();
+    assertEquals(10, sut.getVersion());
+  }
+
+  /**
+   * Copies the header and the rows of canton ZH of a bundled csv, the canton being at the given
+   * column.
+   */
+  private Path zurichOnly(String resource, String file, int cantonColumn) throws IOException {
+    List<String> lines;
+    try (InputStream is = getClass().getResourceAsStream(resource)) {
+      lines = new String(is.readAllBytes(), StandardCharsets.UTF_8).lines()
+          .collect(Collectors.toList());
+    }
+    List<String> zurich = lines.stream()
+        .skip(1)
+        .filter(line -> "ZH".equals(line.split(",")[cantonColumn]))
+        .collect(Collectors.toList());
+    zurich.add(0, lines.get(0));
+    Path path = directory.resolve(file);
+    Files.write(path, zurich, StandardCharsets.UTF_8);
+    return path;
+  }
+}
@@ -0,0 +1,100 @@
+package ch.aaap.assignment.model.imp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.aaap.assignment.model.Model;
+import ch.aaap.assignment.model.PoliticalCommunity;
+import ch.aaap.assignment.raw.CSVFastLoader;
+import ch.aaap.assignment.raw.CSVPoliticalCommunity;
+import ch.aaap.assignment.raw.CSVPostalCommunity;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class VersionedModelTest {
+
+  private static final Set<CSVPoliticalCommunity> POLITICAL_COMMUNITIES =
+      CSVFastLoader.getPoliticalCommunities();
+  private static final Set<CSVPostalCommunity> POSTAL_COMMUNITIES =
+      CSVFastLoader.getPostalCommunities();
+
+  private static final LocalDate FIRST = LocalDate.of(2016, 1, 1);
+  private static final LocalDate SECOND = LocalDate.of(2020, 1, 1);
+
+  /* The system under test */
+  VersionedModel sut = new VersionedModel();
+
+  @Test
+  public void answersAsOfDate() {
+    sut.addVersion(FIRST, POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+    sut.addVersion(SECOND, dietlikonMovedToAffoltern(), POSTAL_COMMUNITIES);
+
+    assertEquals("Bezirk Bülach", sut.asOf(FIRST).getDistrictByZipCode("8305"));
+    assertEquals("Bezirk Bülach", sut.asOf(SECOND.minusDays(1)).getDistrictByZipCode("8305"));
+    assertEquals("Bezirk Affoltern", sut.asOf(SECOND).getDistrictByZipCode("8305"));
+    assertEquals("Bezirk Affoltern", sut.asOf(LocalDate.MAX).getDistrictByZipCode("8305"));
+    assertEquals(sut.asOf(FIRST).countPoliticalCommunitiesByDistrict("101") + 1,
+        sut.asOf(SECOND).countPoliticalCommunitiesByDistrict("101"));
+    assertThrows(IllegalArgumentException.class, () -> sut.asOf(FIRST.minusDays(1)));
+    assertEquals(List.of(FIRST, SECOND), List.copyOf(sut.getValidFromDates()));
+  }
+
+  @Test
+  public void sharesUnchangedCommunitiesBetweenVersions() {
+    Model first = sut.addVersion(FIRST, POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+    Model second = sut.addVersion(SECOND, dietlikonMovedToAffoltern(), POSTAL_COMMUNITIES);
+
+    assertSame(first.getPoliticalCommunitiesByCanton().get("BE"),
+        second.getPoliticalCommunitiesByCanton().get("BE"));
+    assertSame(community(first, "ZH", "261"), community(second, "ZH", "261"));
+    assertSame(first.getAllDistrictsByZipCode("8001"), second.getAllDistrictsByZipCode("8001"));
+  }
+
+  @Test
+  public void insertsVersionsInAnyOrder() {
+    sut.addVersion(SECOND, dietlikonMovedToAffoltern(), POSTAL_COMMUNITIES);
+    sut.addVersion(FIRST, POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+
+    assertEquals("Bezirk Bülach", sut.asOf(FIRST).getDistrictByZipCode("8305"));
+    assertEquals("Bezirk Affoltern", sut.asOf(SECOND).getDistrictByZipCode("8305"));
+  }
+
+  @Test
+  public void appendsDeltaVersions() {
+    ModelDelta delta = ModelDelta.builder().removedPoliticalCommunityNumber("261").build();
+    assertThrows(IllegalArgumentException.class, () -> sut.addVersion(FIRST, delta));
+
+    sut.addVersion(FIRST, POLITICAL_COMMUNITIES, POSTAL_COMMUNITIES);
+    sut.addVersion(SECOND, delta);
+
+    assertEquals(162, sut.asOf(FIRST).countPoliticalCommunitiesByCanton("ZH"));
+    assertEquals(161, sut.asOf(SECOND).countPoliticalCommunitiesByCanton("ZH"));
+    assertThrows(IllegalArgumentException.class, () -> sut.addVersion(SECOND, delta));
+  }
+
+  private static Set<CSVPoliticalCommunity> dietlikonMovedToAffoltern() {
+    return POLITICAL_COMMUNITIES.stream()
+        .map(row -> !row.getNumber().equals("54") ? row : CSVPoliticalCommunity.builder()
+            .number(row.getNumber())
+            .name(row.getName())
+            .shortName(row.getShortName())
+            .cantonCode(row.getCantonCode())
+            .cantonName(row.getCantonName())
+            .districtNumber("101")
+            .districtName("Bezirk Affoltern")
+            .lastUpdate(LocalDate.of(2019, 12, 31))
+            .build())
+        .collect(Collectors.toSet());
+  }
+
+  private static PoliticalCommunity community(Model model, String cantonCode, String number) {
+    return model.getPoliticalCommunitiesByCanton().get(cantonCode).stream()
+        .filter(community -> community.getNumber().equals(number))
+        .findFirst()
+        .orElseThrow();
+  }
+}
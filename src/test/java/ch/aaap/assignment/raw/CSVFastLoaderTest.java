@@ -0,0 +1,52 @@
+package ch.aaap.assignment.raw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CSVFastLoaderTest {
+
+  @Test
+  public void loadsSameRowsAsCsvUtil() {
+    assertEquals(CSVUtil.getPoliticalCommunities(), CSVFastLoader.getPoliticalCommunities());
+    assertEquals(CSVUtil.getPostalCommunities(), CSVFastLoader.getPostalCommunities());
+  }
+
+  @Test
+  public void parsesQuotedFieldsAndReorderedColumns() {
+    Set<CSVPoliticalCommunity> rows = CSVFastLoader.getPoliticalCommunities(stream(
+        "GDENR,GDEMUTDAT,GDEKT,GDEKTNA,GDEBZNR,GDEBZNA,GDENAME,GDENAMK\r\n"
+            + "1,1976-11-15,ZH,Zürich,101,\"Bezirk \"\"A\"\", B\",Aeugst,Aeugst\r\n"
+            + "\r\n"));
+    assertEquals(Set.of(CSVPoliticalCommunity.builder()
+        .number("1")
+        .name("Aeugst")
+        .shortName("Aeugst")
+        .cantonCode("ZH")
+        .cantonName("Zürich")
+        .districtNumber("101")
+        .districtName("Bezirk \"A\", B")
+        .lastUpdate(LocalDate.of(1976, 11, 15))
+        .build()), rows);
+  }
+
+  @Test
+  public void rejectsMalformedInput() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CSVFastLoader.getPostalCommunities(stream("PLZ4,PLZZ\n8000,0\n")));
+    assertThrows(IllegalArgumentException.class,
+        () -> CSVFastLoader.getPoliticalCommunities(stream(
+            "GDEKT,GDEBZNR,GDENR,GDENAME,GDENAMK,GDEBZNA,GDEKTNA,GDEMUTDAT\n"
+                + "ZH,101,1,A,A,B,Z,15.11.1976\n")));
+  }
+
+  private static InputStream stream(String csv) {
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,50 @@
+package ch.aaap.assignment.raw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class StringPoolTest {
+
+  @Test
+  public void returnsSameInstanceForSameBytes() {
+    StringPool pool = new StringPool();
+    byte[] data = "Zürich,Zürich,Bern".getBytes(StandardCharsets.UTF_8);
+    String first = pool.get(data, 0, 7);
+    assertEquals("Zürich", first);
+    assertSame(first, pool.get(data, 8, 7));
+    assertSame(first, pool.get(new String("Zürich")));
+    assertEquals("Bern", pool.get(data, 16, 4));
+    assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void growsBeyondInitialCapacity() {
+    StringPool pool = new StringPool();
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(String.valueOf(i), pool.get(String.valueOf(i)));
+    }
+    assertEquals(5000, pool.size());
+    assertSame(pool.get("42"), pool.get("42"));
+  }
+
+  @Test
+  public void sharesValuesAcrossFiles() {
+    StringPool pool = new StringPool();
+    Set<CSVPoliticalCommunity> political = CSVFastLoader.getPoliticalCommunities(pool);
+    Set<CSVPostalCommunity> postal = CSVFastLoader.getPostalCommunities(pool);
+    CSVPoliticalCommunity zurich = political.stream()
+        .filter(row -> row.getNumber().equals("261"))
+        .findAny()
+        .orElseThrow();
+    CSVPostalCommunity zurichPostal = postal.stream()
+        .filter(row -> row.getPoliticalCommunityNumber().equals("261"))
+        .findAny()
+        .orElseThrow();
+    assertSame(zurich.getNumber(), zurichPostal.getPoliticalCommunityNumber());
+    assertSame(zurich.getCantonCode(), zurichPostal.getCantonCode());
+  }
+}